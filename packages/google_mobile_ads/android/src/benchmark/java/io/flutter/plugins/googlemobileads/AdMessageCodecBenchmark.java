@@ -0,0 +1,246 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.location.Location;
+import com.google.android.gms.ads.RequestConfiguration;
+import io.flutter.plugin.common.StandardMessageCodec;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdError;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdapterResponseInfo;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterResponseInfo;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures encoding the values sent with ad events: a {@link FlutterResponseInfo} with nested
+ * adapter responses, and maps of strings and numbers like the ones sent for paid event summaries
+ * and diagnostic metrics.
+ *
+ * <p>The {@code legacy} benchmarks use {@link LegacyAdMessageCodec}, a copy of the chain of
+ * instanceof checks {@link AdMessageCodec#writeValue} used before it looked types up by class.
+ * Every nested string, number and map walked the whole chain before reaching {@link
+ * StandardMessageCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdMessageCodecBenchmark {
+
+  @Param({"5"})
+  int adapterResponses;
+
+  private final ByteArrayOutputStream stream = new ByteArrayOutputStream(4096);
+  private final LegacyAdMessageCodec legacyCodec = new LegacyAdMessageCodec();
+  private AdMessageCodec codec;
+  private FlutterResponseInfo responseInfo;
+  private List<Map<String, Object>> eventMaps;
+
+  @Setup
+  public void setup() {
+    codec = new AdMessageCodec(null);
+    final List<FlutterAdapterResponseInfo> adapterResponseInfos = new ArrayList<>();
+    for (int i = 0; i < adapterResponses; i++) {
+      adapterResponseInfos.add(
+          new FlutterAdapterResponseInfo(
+              "com.google.ads.mediation.Adapter" + i,
+              120L + i,
+              "{}",
+              "{ad_unit_id=ca-app-pub-3940256099942544/6300978111}",
+              i == 0 ? new FlutterAdError(3, "com.google.android.gms.ads", "No fill.") : null));
+    }
+    responseInfo =
+        new FlutterResponseInfo(
+            "CMfx4Nq2_fQCFQrHGAodLj0NCw",
+            "com.google.ads.mediation.admob.AdMobAdapter",
+            adapterResponseInfos);
+
+    eventMaps = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      final Map<String, Object> eventMap = new HashMap<>();
+      eventMap.put("adUnitId", "ca-app-pub-3940256099942544/6300978111");
+      eventMap.put("currencyCode", "USD");
+      eventMap.put("precision", 3);
+      eventMap.put("valueMicros", 1500L * i);
+      eventMap.put("count", (long) i);
+      eventMaps.add(eventMap);
+    }
+  }
+
+  @Benchmark
+  public int legacyResponseInfo() {
+    stream.reset();
+    legacyCodec.writeValue(stream, responseInfo);
+    return stream.size();
+  }
+
+  @Benchmark
+  public int responseInfo() {
+    stream.reset();
+    codec.writeValue(stream, responseInfo);
+    return stream.size();
+  }
+
+  @Benchmark
+  public int legacyEventMaps() {
+    stream.reset();
+    legacyCodec.writeValue(stream, eventMaps);
+    return stream.size();
+  }
+
+  @Benchmark
+  public int eventMaps() {
+    stream.reset();
+    codec.writeValue(stream, eventMaps);
+    return stream.size();
+  }
+
+  /**
+   * Writes values the way {@link AdMessageCodec} did before its type table. Ad events and ad sizes
+   * aren't part of the payloads above, so they are still checked for but not written.
+   */
+  private static class LegacyAdMessageCodec extends StandardMessageCodec {
+    @Override
+    protected void writeValue(ByteArrayOutputStream stream, Object value) {
+      if (value instanceof FlutterAdEvent || value instanceof FlutterAdSize) {
+        throw new UnsupportedOperationException("Not part of the benchmark payloads");
+      } else if (value instanceof FlutterAdManagerAdRequest) {
+        stream.write(134);
+        final FlutterAdManagerAdRequest request = (FlutterAdManagerAdRequest) value;
+        writeValue(stream, request.getKeywords());
+        writeValue(stream, request.getContentUrl());
+        writeValue(stream, request.getCustomTargeting());
+        writeValue(stream, request.getCustomTargetingLists());
+        writeValue(stream, request.getNonPersonalizedAds());
+        writeValue(stream, request.getNeighboringContentUrls());
+        writeValue(stream, request.getHttpTimeoutMillis());
+        writeValue(stream, request.getPublisherProvidedId());
+        writeValue(stream, request.getLocation());
+      } else if (value instanceof FlutterAdRequest) {
+        stream.write(129);
+        final FlutterAdRequest request = (FlutterAdRequest) value;
+        writeValue(stream, request.getKeywords());
+        writeValue(stream, request.getContentUrl());
+        writeValue(stream, request.getNonPersonalizedAds());
+        writeValue(stream, request.getNeighboringContentUrls());
+        writeValue(stream, request.getHttpTimeoutMillis());
+        writeValue(stream, request.getLocation());
+      } else if (value instanceof FlutterRewardedAd.FlutterRewardItem) {
+        stream.write(132);
+        final FlutterRewardedAd.FlutterRewardItem item = (FlutterRewardedAd.FlutterRewardItem) value;
+        writeValue(stream, item.amount);
+        writeValue(stream, item.type);
+      } else if (value instanceof FlutterAdapterResponseInfo) {
+        stream.write(141);
+        final FlutterAdapterResponseInfo responseInfo = (FlutterAdapterResponseInfo) value;
+        writeValue(stream, responseInfo.getAdapterClassName());
+        writeValue(stream, responseInfo.getLatencyMillis());
+        writeValue(stream, responseInfo.getDescription());
+        writeValue(stream, responseInfo.getCredentials());
+        writeValue(stream, responseInfo.getError());
+      } else if (value instanceof FlutterResponseInfo) {
+        stream.write(140);
+        final FlutterResponseInfo responseInfo = (FlutterResponseInfo) value;
+        writeValue(stream, responseInfo.getResponseId());
+        writeValue(stream, responseInfo.getMediationAdapterClassName());
+        writeValue(stream, responseInfo.getAdapterResponses());
+      } else if (value instanceof FlutterAd.FlutterLoadAdError) {
+        stream.write(133);
+        final FlutterAd.FlutterLoadAdError error = (FlutterAd.FlutterLoadAdError) value;
+        writeValue(stream, error.code);
+        writeValue(stream, error.domain);
+        writeValue(stream, error.message);
+        writeValue(stream, error.responseInfo);
+      } else if (value instanceof FlutterAdError) {
+        stream.write(139);
+        final FlutterAdError error = (FlutterAdError) value;
+        writeValue(stream, error.code);
+        writeValue(stream, error.domain);
+        writeValue(stream, error.message);
+      } else if (value instanceof FlutterAdapterStatus.AdapterInitializationState) {
+        stream.write(135);
+        final FlutterAdapterStatus.AdapterInitializationState state =
+            (FlutterAdapterStatus.AdapterInitializationState) value;
+        switch (state) {
+          case NOT_READY:
+            writeValue(stream, "notReady");
+            return;
+          case READY:
+            writeValue(stream, "ready");
+            return;
+        }
+        final String message = String.format("Unable to handle state: %s", state);
+        throw new IllegalArgumentException(message);
+      } else if (value instanceof FlutterAdapterStatus) {
+        stream.write(136);
+        final FlutterAdapterStatus status = (FlutterAdapterStatus) value;
+        writeValue(stream, status.state);
+        writeValue(stream, status.description);
+        writeValue(stream, status.latency);
+      } else if (value instanceof FlutterInitializationStatus) {
+        stream.write(137);
+        final FlutterInitializationStatus status = (FlutterInitializationStatus) value;
+        writeValue(stream, status.adapterStatuses);
+      } else if (value instanceof FlutterServerSideVerificationOptions) {
+        stream.write(138);
+        FlutterServerSideVerificationOptions options = (FlutterServerSideVerificationOptions) value;
+        writeValue(stream, options.getUserId());
+        writeValue(stream, options.getCustomData());
+      } else if (value instanceof FlutterNativeAdOptions) {
+        stream.write(144);
+        FlutterNativeAdOptions options = (FlutterNativeAdOptions) value;
+        writeValue(stream, options.adChoicesPlacement);
+        writeValue(stream, options.mediaAspectRatio);
+        writeValue(stream, options.videoOptions);
+        writeValue(stream, options.requestCustomMuteThisAd);
+        writeValue(stream, options.shouldRequestMultipleImages);
+        writeValue(stream, options.shouldReturnUrlsForImageAssets);
+      } else if (value instanceof RequestConfiguration) {
+        stream.write(148);
+        RequestConfiguration params = (RequestConfiguration) value;
+        writeValue(stream, params.getMaxAdContentRating());
+        writeValue(stream, params.getTagForChildDirectedTreatment());
+        writeValue(stream, params.getTagForUnderAgeOfConsent());
+        writeValue(stream, params.getTestDeviceIds());
+      } else if (value instanceof FlutterVideoOptions) {
+        stream.write(145);
+        FlutterVideoOptions options = (FlutterVideoOptions) value;
+        writeValue(stream, options.clickToExpandRequested);
+        writeValue(stream, options.customControlsRequested);
+        writeValue(stream, options.startMuted);
+      } else if (value instanceof Location) {
+        stream.write(147);
+        Location location = (Location) value;
+        writeValue(stream, location.getAccuracy());
+        writeValue(stream, location.getLongitude());
+        writeValue(stream, location.getLatitude());
+        writeValue(stream, location.getTime());
+      } else {
+        super.writeValue(stream, value);
+      }
+    }
+  }
+}
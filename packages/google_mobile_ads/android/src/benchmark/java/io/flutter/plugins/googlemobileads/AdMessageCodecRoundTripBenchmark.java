@@ -0,0 +1,272 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.content.Context;
+import android.location.Location;
+import com.google.android.gms.ads.AdSize;
+import com.google.android.gms.ads.RequestConfiguration;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdError;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdapterResponseInfo;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterResponseInfo;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures encoding and decoding every type {@link AdMessageCodec} writes with a custom type.
+ *
+ * <p>{@code entries} sets the size of the collections in the larger payloads: the custom
+ * targeting of {@code adManagerAdRequest}, the adapter responses of {@code responseInfo} and
+ * {@code loadAdError}, and the adapters of {@code initializationStatus}. Decoded ad requests go
+ * through {@link AdRequestInterner} like they do for loads, so {@code decode} of a request
+ * includes a hit in the interner.
+ *
+ * <p>Run with the GC profiler, {@code gc.alloc.rate.norm} gives the bytes allocated per operation,
+ * which is the number to watch for regressions: it doesn't depend on the machine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdMessageCodecRoundTripBenchmark {
+
+  @Param({
+    "adSize",
+    "inlineAdaptiveBannerAdSize",
+    "anchoredAdaptiveBannerAdSize",
+    "smartBannerAdSize",
+    "fluidAdSize",
+    "adRequest",
+    "adManagerAdRequest",
+    "rewardItem",
+    "adapterResponseInfo",
+    "responseInfo",
+    "loadAdError",
+    "adError",
+    "initializationState",
+    "adapterStatus",
+    "initializationStatus",
+    "serverSideVerificationOptions",
+    "nativeAdOptions",
+    "requestConfiguration",
+    "videoOptions",
+    "location",
+    "adEvent",
+  })
+  String type;
+
+  @Param({"50"})
+  int entries;
+
+  private final EncodeBufferPool.Stream stream = new EncodeBufferPool.Stream(4096);
+  private AdMessageCodec codec;
+  private Object value;
+  private ByteBuffer message;
+
+  @Setup
+  public void setup() {
+    codec = new AdMessageCodec(null, new FixedAdSizeFactory());
+    value = createValue();
+    codec.writeValue(stream, value);
+    message = ByteBuffer.allocateDirect(stream.size());
+    message.put(stream.buffer(), 0, stream.size());
+  }
+
+  @Benchmark
+  public int encode() {
+    stream.reset();
+    codec.writeValue(stream, value);
+    return stream.size();
+  }
+
+  @Benchmark
+  public Object decode() {
+    message.position(0);
+    return codec.decodeMessage(message);
+  }
+
+  private Object createValue() {
+    switch (type) {
+      case "adSize":
+        return new FlutterAdSize(320, 50);
+      case "inlineAdaptiveBannerAdSize":
+        return new FlutterAdSize.InlineAdaptiveBannerAdSize(
+            new FixedAdSizeFactory(), null, 360, null, 250);
+      case "anchoredAdaptiveBannerAdSize":
+        return new FlutterAdSize.AnchoredAdaptiveBannerAdSize(
+            null, new FixedAdSizeFactory(), "portrait", 360);
+      case "smartBannerAdSize":
+        return new FlutterAdSize.SmartBannerAdSize();
+      case "fluidAdSize":
+        return new FlutterAdSize.FluidAdSize();
+      case "adRequest":
+        return new FlutterAdRequest.Builder()
+            .setKeywords(Arrays.asList("sports", "news", "weather"))
+            .setContentUrl("https://www.example.com/articles/1")
+            .setNonPersonalizedAds(false)
+            .setNeighboringContentUrls(
+                Arrays.asList("https://www.example.com/2", "https://www.example.com/3"))
+            .setHttpTimeoutMillis(5000)
+            .setLocation(createLocation())
+            .build();
+      case "adManagerAdRequest":
+        {
+          final Map<String, String> customTargeting = new HashMap<>();
+          final Map<String, List<String>> customTargetingLists = new HashMap<>();
+          for (int i = 0; i < entries; i++) {
+            customTargeting.put("key" + i, "value" + i);
+            customTargetingLists.put("listKey" + i, Arrays.asList("a" + i, "b" + i, "c" + i));
+          }
+          final FlutterAdManagerAdRequest.Builder builder = new FlutterAdManagerAdRequest.Builder();
+          builder.setCustomTargeting(customTargeting);
+          builder.setCustomTargetingLists(customTargetingLists);
+          builder.setPublisherProvidedId("publisher-provided-id");
+          builder.setKeywords(Arrays.asList("sports", "news", "weather"));
+          builder.setContentUrl("https://www.example.com/articles/1");
+          builder.setNonPersonalizedAds(false);
+          builder.setHttpTimeoutMillis(5000);
+          builder.setLocation(createLocation());
+          return builder.build();
+        }
+      case "rewardItem":
+        return new FlutterRewardedAd.FlutterRewardItem(10, "coins");
+      case "adapterResponseInfo":
+        return createAdapterResponseInfo(0);
+      case "responseInfo":
+        return createResponseInfo();
+      case "loadAdError":
+        return new FlutterAd.FlutterLoadAdError(
+            3, "com.google.android.gms.ads", "No fill.", createResponseInfo());
+      case "adError":
+        return new FlutterAdError(3, "com.google.android.gms.ads", "No fill.");
+      case "initializationState":
+        return FlutterAdapterStatus.AdapterInitializationState.READY;
+      case "adapterStatus":
+        return new FlutterAdapterStatus(
+            FlutterAdapterStatus.AdapterInitializationState.READY, "Ready", 120);
+      case "initializationStatus":
+        {
+          final Map<String, FlutterAdapterStatus> adapterStatuses = new HashMap<>();
+          for (int i = 0; i < entries; i++) {
+            adapterStatuses.put(
+                "com.google.ads.mediation.Adapter" + i,
+                new FlutterAdapterStatus(
+                    FlutterAdapterStatus.AdapterInitializationState.READY, "Ready", 120 + i));
+          }
+          return new FlutterInitializationStatus(adapterStatuses);
+        }
+      case "serverSideVerificationOptions":
+        return new FlutterServerSideVerificationOptions("user-id", "custom-data");
+      case "nativeAdOptions":
+        return new FlutterNativeAdOptions(
+            1, 2, new FlutterVideoOptions(true, false, true), false, true, false);
+      case "requestConfiguration":
+        return new RequestConfiguration.Builder()
+            .setMaxAdContentRating(RequestConfiguration.MAX_AD_CONTENT_RATING_G)
+            .setTagForChildDirectedTreatment(
+                RequestConfiguration.TAG_FOR_CHILD_DIRECTED_TREATMENT_TRUE)
+            .setTagForUnderAgeOfConsent(RequestConfiguration.TAG_FOR_UNDER_AGE_OF_CONSENT_FALSE)
+            .setTestDeviceIds(Arrays.asList("test-device-id-1", "test-device-id-2"))
+            .build();
+      case "videoOptions":
+        return new FlutterVideoOptions(true, false, true);
+      case "location":
+        return createLocation();
+      case "adEvent":
+        return new FlutterAdEvent(FlutterAdEvent.PAID_EVENT, 300, 1200000L, 2, "USD");
+      default:
+        throw new IllegalArgumentException("Unknown type: " + type);
+    }
+  }
+
+  private FlutterResponseInfo createResponseInfo() {
+    final List<FlutterAdapterResponseInfo> adapterResponses = new ArrayList<>();
+    for (int i = 0; i < entries; i++) {
+      adapterResponses.add(createAdapterResponseInfo(i));
+    }
+    return new FlutterResponseInfo(
+        "CMfx4Nq2_fQCFQrHGAodLj0NCw",
+        "com.google.ads.mediation.admob.AdMobAdapter",
+        adapterResponses);
+  }
+
+  private static FlutterAdapterResponseInfo createAdapterResponseInfo(int index) {
+    return new FlutterAdapterResponseInfo(
+        "com.google.ads.mediation.Adapter" + index,
+        120L + index,
+        "{}",
+        "{ad_unit_id=ca-app-pub-3940256099942544/6300978111}",
+        index == 0 ? new FlutterAdError(3, "com.google.android.gms.ads", "No fill.") : null);
+  }
+
+  private static Location createLocation() {
+    final Location location = new Location("");
+    location.setAccuracy(10.5f);
+    location.setLongitude(-122.084);
+    location.setLatitude(37.422);
+    location.setTime(1635000000000L);
+    return location;
+  }
+
+  /** Returns fixed adaptive sizes, since the SDK needs a display to compute them. */
+  private static class FixedAdSizeFactory extends FlutterAdSize.AdSizeFactory {
+    @Override
+    AdSize getPortraitAnchoredAdaptiveBannerAdSize(Context context, int width) {
+      return new AdSize(width, 50);
+    }
+
+    @Override
+    AdSize getLandscapeAnchoredAdaptiveBannerAdSize(Context context, int width) {
+      return new AdSize(width, 32);
+    }
+
+    @Override
+    AdSize getCurrentOrientationAnchoredAdaptiveBannerAdSize(Context context, int width) {
+      return new AdSize(width, 50);
+    }
+
+    @Override
+    AdSize getCurrentOrientationInlineAdaptiveBannerAdSize(Context context, int width) {
+      return new AdSize(width, 250);
+    }
+
+    @Override
+    AdSize getLandscapeInlineAdaptiveBannerAdSize(Context context, int width) {
+      return new AdSize(width, 250);
+    }
+
+    @Override
+    AdSize getPortraitInlineAdaptiveBannerAdSize(Context context, int width) {
+      return new AdSize(width, 250);
+    }
+
+    @Override
+    AdSize getInlineAdaptiveBannerAdSize(int width, int maxHeight) {
+      return new AdSize(width, maxHeight);
+    }
+  }
+}
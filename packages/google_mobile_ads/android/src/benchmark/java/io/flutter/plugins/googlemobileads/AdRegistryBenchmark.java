@@ -0,0 +1,85 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the ad id lookup done for every paid event, which must map a {@link FlutterAd} back to
+ * the id it was tracked with.
+ *
+ * <p>{@code legacyScan} is the lookup {@link AdInstanceManager#adIdFor(FlutterAd)} did before it
+ * used {@link AdRegistry}: a scan over the keys of a boxed {@link HashMap}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdRegistryBenchmark {
+
+  @Param({"500"})
+  int liveAds;
+
+  private final Map<Integer, FlutterAd> legacyAds = new HashMap<>();
+  private final AdRegistry registry = new AdRegistry();
+  private FlutterAd[] ads;
+  private int next;
+
+  @Setup
+  public void setup() {
+    ads = new FlutterAd[liveAds];
+    for (int i = 0; i < liveAds; i++) {
+      ads[i] = new FakeAd(i);
+      legacyAds.put(i, ads[i]);
+      registry.put(i, ads[i]);
+    }
+  }
+
+  @Benchmark
+  public Integer legacyScan() {
+    final FlutterAd ad = nextAd();
+    for (Integer adId : legacyAds.keySet()) {
+      if (legacyAds.get(adId) == ad) {
+        return adId;
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public Integer registryIdFor() {
+    return registry.idFor(nextAd());
+  }
+
+  @Benchmark
+  public FlutterAd registryGet() {
+    return registry.get(nextAd().adId);
+  }
+
+  private FlutterAd nextAd() {
+    final FlutterAd ad = ads[next];
+    next = next + 1 == ads.length ? 0 : next + 1;
+    return ad;
+  }
+}
@@ -0,0 +1,194 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Runs the JMH benchmarks in this source set from the unit test task.
+ *
+ * <p>Benchmarks run in the test JVM, since forking would lose the Android unit test classpath,
+ * and under Robolectric, so framework classes such as {@link android.location.Location} work.
+ * Results, with the allocations measured by the GC profiler, are written to {@code
+ * build/jmh-results.json}, and printed with the JMH output along with the comparison below.
+ *
+ * <p>Results are then compared with the baseline file passed in the {@code gmaBenchmarks.baseline}
+ * system property, and the run fails if a benchmark got slower by more than {@link
+ * #SCORE_TOLERANCE} or allocates more than {@link #ALLOCATION_TOLERANCE_BYTES} bytes per operation
+ * above its baseline. Times depend on the machine, so compare with a baseline recorded on the same
+ * one. When {@code gmaBenchmarks.updateBaseline} is true, the baseline is rewritten instead. The
+ * run fails if there is no baseline to compare with, rather than passing without comparing.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class Benchmarks {
+  /** How much slower than its baseline a benchmark may get, as a fraction of the baseline. */
+  static final double SCORE_TOLERANCE = 0.25;
+
+  /** How many more bytes per operation than its baseline a benchmark may allocate. */
+  static final double ALLOCATION_TOLERANCE_BYTES = 16;
+
+  private static final String SCORE_SUFFIX = ".score";
+  private static final String ALLOCATION_SUFFIX = ".alloc";
+  private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+  @Test
+  public void runBenchmarks() throws RunnerException, IOException {
+    final Options options =
+        new OptionsBuilder()
+            .include(getClass().getPackage().getName() + ".*Benchmark")
+            .forks(0)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result("build/jmh-results.json")
+            .build();
+    final OutputFormat output =
+        OutputFormatFactory.createFormatInstance(System.out, VerboseMode.NORMAL);
+    final String baselinePath = System.getProperty("gmaBenchmarks.baseline");
+    if (baselinePath == null) {
+      fail("No benchmark baseline set. Run with -PgmaBenchmarks to pass it.");
+    }
+    final File baselineFile = new File(baselinePath);
+    final boolean updateBaseline = Boolean.getBoolean("gmaBenchmarks.updateBaseline");
+    // Fail before the benchmarks take minutes to run.
+    if (!updateBaseline && !baselineFile.exists()) {
+      fail(
+          "No benchmark baseline at "
+              + baselineFile
+              + ". Record one on this machine with -PgmaBenchmarksUpdateBaseline.");
+    }
+    final Properties results = toProperties(new Runner(options, output).run());
+
+    if (updateBaseline) {
+      writeSorted(results, baselineFile);
+      output.println("Wrote benchmark baseline to " + baselineFile);
+      return;
+    }
+    final Properties baseline = new Properties();
+    try (InputStream in = new FileInputStream(baselineFile)) {
+      baseline.load(in);
+    }
+    final List<String> regressions = compare(baseline, results);
+    output.println("");
+    output.println("Compared with the baseline at " + baselineFile + ":");
+    for (String regression : regressions) {
+      output.println("Regression: " + regression);
+    }
+    if (regressions.isEmpty()) {
+      output.println("No regressions.");
+    }
+    output.flush();
+    assertTrue("Benchmarks regressed:\n" + String.join("\n", regressions), regressions.isEmpty());
+  }
+
+  /** Returns one line for each result that regressed past its tolerance. */
+  private static List<String> compare(Properties baseline, Properties results) {
+    final List<String> regressions = new ArrayList<>();
+    for (String key : new TreeSet<>(results.stringPropertyNames())) {
+      final String expected = baseline.getProperty(key);
+      if (expected == null) {
+        continue;
+      }
+      final double base = Double.parseDouble(expected);
+      final double actual = Double.parseDouble(results.getProperty(key));
+      final boolean regressed =
+          key.endsWith(ALLOCATION_SUFFIX)
+              ? actual > base + ALLOCATION_TOLERANCE_BYTES
+              : actual > base * (1 + SCORE_TOLERANCE);
+      if (regressed) {
+        regressions.add(String.format("%s: %.1f, baseline %.1f", key, actual, base));
+      }
+    }
+    return regressions;
+  }
+
+  /** Writes {@code results} sorted by key, so baseline updates diff well. */
+  private static void writeSorted(Properties results, File file) throws IOException {
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), "ISO-8859-1")) {
+      writer.write("# JMH baseline: ns/op (.score) and bytes/op (.alloc) per benchmark.\n");
+      for (String key : new TreeSet<>(results.stringPropertyNames())) {
+        writer.write(key.replace("=", "\\=") + "=" + results.getProperty(key) + "\n");
+      }
+    }
+  }
+
+  private static Properties toProperties(Collection<RunResult> runResults) {
+    final Properties properties = new Properties();
+    for (RunResult runResult : runResults) {
+      final String label = labelOf(runResult.getParams());
+      properties.setProperty(
+          label + SCORE_SUFFIX,
+          String.valueOf(runResult.getPrimaryResult().getScore()));
+      for (Map.Entry<String, Result> secondary : runResult.getSecondaryResults().entrySet()) {
+        // Older JMH versions prefix secondary results with a middle dot.
+        if (secondary.getKey().endsWith(ALLOCATION_RESULT)) {
+          properties.setProperty(
+              label + ALLOCATION_SUFFIX, String.valueOf(secondary.getValue().getScore()));
+        }
+      }
+    }
+    return properties;
+  }
+
+  /** Returns the benchmark's class and method, with its parameters, e.g. {@code A.b[c=d]}. */
+  private static String labelOf(BenchmarkParams params) {
+    final String benchmark = params.getBenchmark();
+    final String className = benchmark.substring(0, benchmark.lastIndexOf('.'));
+    final StringBuilder label =
+        new StringBuilder(benchmark.substring(className.lastIndexOf('.') + 1));
+    if (!params.getParamsKeys().isEmpty()) {
+      final List<String> values = new ArrayList<>();
+      for (String key : params.getParamsKeys()) {
+        values.add(key + "=" + params.getParam(key));
+      }
+      label.append('[').append(String.join(",", values)).append(']');
+    }
+    return label.toString();
+  }
+}
@@ -0,0 +1,134 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodChannel;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures dispatching a paid event from the SDK's callback to the message sent to Dart, with
+ * {@code liveAds} ads tracked.
+ *
+ * <p>{@code paidEvent} sends each paid event on its own: the ad id lookup, the event, its metrics,
+ * and encoding it with the plugin's codec into a pooled buffer. {@code aggregatedPaidEvent} adds
+ * it to the totals of {@link PaidEventAggregator} instead. Work the plugin would run on the main
+ * thread runs inline, and the messenger drops every message, so only the plugin's own work is
+ * measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaidEventDispatchBenchmark {
+
+  @Param({"500"})
+  int liveAds;
+
+  private final FlutterAdValue adValue = new FlutterAdValue(3, "USD", 2500);
+  private AdInstanceManager manager;
+  private AdInstanceManager aggregatingManager;
+  private FlutterAd[] ads;
+  private int next;
+
+  @Setup
+  public void setup() {
+    manager = createManager();
+    manager.setEventBatchWindowMillis(AdEventBatcher.BATCH_WINDOW_DISABLED);
+    aggregatingManager = createManager();
+    // The periodic flush is never run, see InlineDispatcher.
+    aggregatingManager.setPaidEventFlushIntervalMillis(60000);
+    ads = new FlutterAd[liveAds];
+    for (int i = 0; i < liveAds; i++) {
+      ads[i] = new FakeAd(i);
+      manager.trackAd(ads[i], i);
+      aggregatingManager.trackAd(ads[i], i);
+    }
+  }
+
+  @Benchmark
+  public void paidEvent() {
+    manager.onPaidEvent(nextAd(), adValue);
+  }
+
+  @Benchmark
+  public void aggregatedPaidEvent() {
+    aggregatingManager.onPaidEvent(nextAd(), adValue);
+  }
+
+  private FlutterAd nextAd() {
+    final FlutterAd ad = ads[next];
+    next = next + 1 == ads.length ? 0 : next + 1;
+    return ad;
+  }
+
+  @NonNull
+  private static AdInstanceManager createManager() {
+    final EncodeBufferPool pool = new EncodeBufferPool();
+    final MethodChannel channel =
+        new MethodChannel(
+            new PooledBinaryMessenger(new DroppingMessenger(), pool),
+            "plugins.flutter.io/google_mobile_ads",
+            new AdMethodCodec(new AdMessageCodec(null), pool));
+    return new AdInstanceManager(channel, new InlineDispatcher());
+  }
+
+  /**
+   * Runs work as if the benchmark thread were the main thread. Delayed work, such as the periodic
+   * flush of paid event totals, is dropped.
+   */
+  private static class InlineDispatcher extends MainThreadDispatcher {
+    @Override
+    boolean isMainThread() {
+      return true;
+    }
+
+    @Override
+    void execute(@NonNull Runnable runnable) {
+      runnable.run();
+    }
+
+    @Override
+    void post(@NonNull Runnable runnable) {
+      runnable.run();
+    }
+
+    @Override
+    void postDelayed(@NonNull Runnable runnable, long delayMillis) {}
+  }
+
+  /** A messenger that drops every message, as if Dart never replied. */
+  private static class DroppingMessenger implements BinaryMessenger {
+    @Override
+    public void send(@NonNull String channel, @Nullable ByteBuffer message) {}
+
+    @Override
+    public void send(
+        @NonNull String channel, @Nullable ByteBuffer message, @Nullable BinaryReply callback) {}
+
+    @Override
+    public void setMessageHandler(
+        @NonNull String channel, @Nullable BinaryMessageHandler handler) {}
+  }
+}
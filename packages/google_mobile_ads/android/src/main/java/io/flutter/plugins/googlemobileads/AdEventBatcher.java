@@ -0,0 +1,234 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coalesces ad events into as few platform channel messages as possible.
+ *
+ * <p>Events added between two flushes are delivered to Dart in order as a single {@code
+ * onAdEvents} message whose argument is the list of events. A batch containing only one event is
+ * sent as a plain {@code onAdEvent} message. Flushes always run on the main thread, since the
+ * method channel silently drops messages sent from other threads.
+ *
+ * <p>When batching is disabled with {@link #BATCH_WINDOW_DISABLED}, events raised on the main
+ * thread are sent synchronously and events raised elsewhere are posted to the main thread.
+ *
+ * <p>Events can't be delivered while the plugin is detached from the engine, or while Dart has no
+ * handler for the channel, which shows up as a {@code notImplemented} reply. Such events are kept
+ * in a bounded {@link AdEventBuffer} instead of being dropped, and are sent ahead of any newer
+ * events once {@link #resume(List)} is called, on the channel of the engine the plugin is attached
+ * to by then.
+ */
+class AdEventBatcher {
+  /**
+   * Batch window that flushes on the next iteration of the main looper. Every event raised before
+   * the main thread returns to its message queue ends up in the same batch.
+   */
+  static final long BATCH_WINDOW_NEXT_LOOP = 0;
+
+  /** Batch window that sends every event as soon as it can be sent from the main thread. */
+  static final long BATCH_WINDOW_DISABLED = -1;
+
+  @NonNull private volatile MethodChannel channel;
+  @NonNull private final MainThreadDispatcher dispatcher;
+  @NonNull private final AdEventMetrics metrics;
+  @NonNull private final List<FlutterAdEvent> pendingEvents = new ArrayList<>();
+  // Guarded by pendingEvents.
+  @NonNull private final AdEventBuffer undeliveredEvents = new AdEventBuffer();
+
+  private final Runnable flushRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          flush();
+        }
+      };
+
+  private boolean isFlushScheduled;
+  private boolean isPaused;
+  private long batchWindowMillis = BATCH_WINDOW_NEXT_LOOP;
+
+  AdEventBatcher(
+      @NonNull MethodChannel channel,
+      @NonNull MainThreadDispatcher dispatcher,
+      @NonNull AdEventMetrics metrics) {
+    this.channel = channel;
+    this.dispatcher = dispatcher;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Sets how long to wait after the first event of a batch before the batch is sent. Use {@link
+   * #BATCH_WINDOW_NEXT_LOOP} to send on the next iteration of the main looper, or {@link
+   * #BATCH_WINDOW_DISABLED} to send each event immediately.
+   */
+  void setBatchWindowMillis(long batchWindowMillis) {
+    if (batchWindowMillis < BATCH_WINDOW_DISABLED) {
+      throw new IllegalArgumentException("Batch window must not be negative: " + batchWindowMillis);
+    }
+    synchronized (pendingEvents) {
+      this.batchWindowMillis = batchWindowMillis;
+    }
+  }
+
+  /**
+   * Sends later batches on {@code channel}, such as the channel of the engine the plugin was
+   * attached to again. Events buffered since then are sent on it once {@link #resume(List)} is
+   * called.
+   */
+  void setChannel(@NonNull MethodChannel channel) {
+    this.channel = channel;
+  }
+
+  /** Queues an event and schedules a flush if one isn't already pending. */
+  void add(@NonNull FlutterAdEvent event) {
+    final long window;
+    synchronized (pendingEvents) {
+      pendingEvents.add(event);
+      if (isFlushScheduled) {
+        return;
+      }
+      isFlushScheduled = true;
+      window = batchWindowMillis;
+    }
+    scheduleFlush(window);
+  }
+
+  /** Buffers events instead of sending them until {@link #resume(List)} is called. */
+  void pause() {
+    synchronized (pendingEvents) {
+      isPaused = true;
+    }
+  }
+
+  /** Whether events are paused or undelivered events are waiting for {@link #resume(List)}. */
+  boolean needsResume() {
+    synchronized (pendingEvents) {
+      return isPaused || !undeliveredEvents.isEmpty();
+    }
+  }
+
+  /** Removes and returns the events that couldn't be delivered, oldest first. */
+  @NonNull
+  List<FlutterAdEvent> takeUndelivered() {
+    synchronized (pendingEvents) {
+      return undeliveredEvents.drain();
+    }
+  }
+
+  /**
+   * Starts sending events again, beginning with {@code replay} in order. {@code replay} is usually
+   * the undelivered events that are still relevant.
+   */
+  void resume(@NonNull List<FlutterAdEvent> replay) {
+    final long window;
+    synchronized (pendingEvents) {
+      isPaused = false;
+      if (replay.isEmpty()) {
+        return;
+      }
+      pendingEvents.addAll(0, replay);
+      if (isFlushScheduled) {
+        return;
+      }
+      isFlushScheduled = true;
+      window = batchWindowMillis;
+    }
+    scheduleFlush(window);
+  }
+
+  /** Number of undelivered events that were dropped because the buffer was full. */
+  long getDroppedCount() {
+    synchronized (pendingEvents) {
+      return undeliveredEvents.getDroppedCount();
+    }
+  }
+
+  private void scheduleFlush(long window) {
+    if (window == BATCH_WINDOW_DISABLED) {
+      dispatcher.execute(flushRunnable);
+    } else if (window == BATCH_WINDOW_NEXT_LOOP) {
+      dispatcher.post(flushRunnable);
+    } else {
+      dispatcher.postDelayed(flushRunnable, window);
+    }
+  }
+
+  /** Sends every pending event to Dart. Must be called on the main thread. */
+  void flush() {
+    final List<FlutterAdEvent> events;
+    synchronized (pendingEvents) {
+      isFlushScheduled = false;
+      if (pendingEvents.isEmpty()) {
+        return;
+      }
+      events = new ArrayList<>(pendingEvents);
+      pendingEvents.clear();
+      if (isPaused) {
+        bufferUndelivered(events);
+        return;
+      }
+    }
+    final long sentAtNanos = System.nanoTime();
+    for (int i = 0; i < events.size(); i++) {
+      metrics.recordSent(events.get(i), sentAtNanos);
+    }
+    final DeliveryResult result = new DeliveryResult(events);
+    if (events.size() == 1) {
+      channel.invokeMethod("onAdEvent", events.get(0), result);
+    } else {
+      channel.invokeMethod("onAdEvents", events, result);
+    }
+  }
+
+  // Must hold the lock on pendingEvents.
+  private void bufferUndelivered(@NonNull List<FlutterAdEvent> events) {
+    for (int i = 0; i < events.size(); i++) {
+      undeliveredEvents.add(events.get(i));
+    }
+  }
+
+  /** Buffers a batch that Dart had no handler for. */
+  private class DeliveryResult implements MethodChannel.Result {
+    @NonNull private final List<FlutterAdEvent> events;
+
+    DeliveryResult(@NonNull List<FlutterAdEvent> events) {
+      this.events = events;
+    }
+
+    @Override
+    public void success(@Nullable Object result) {}
+
+    @Override
+    public void error(
+        @NonNull String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+      // Dart received the events but a listener threw. Sending them again wouldn't help.
+    }
+
+    @Override
+    public void notImplemented() {
+      synchronized (pendingEvents) {
+        isPaused = true;
+        bufferUndelivered(events);
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed size ring buffer of ad events that couldn't be delivered to Dart, kept in the order they
+ * were raised.
+ *
+ * <p>When the buffer is full, adding an event drops the oldest low priority event (paid events and
+ * impressions) so that lifecycle events such as {@code onAdLoaded} survive. If every buffered
+ * event is high priority, the oldest event is dropped instead.
+ *
+ * <p>This class isn't thread safe. {@link AdEventBatcher} guards it with its own lock.
+ */
+class AdEventBuffer {
+  static final int DEFAULT_CAPACITY = 64;
+
+  @NonNull private final FlutterAdEvent[] events;
+  private int head;
+  private int size;
+  private long droppedCount;
+
+  AdEventBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  AdEventBuffer(int capacity) {
+    events = new FlutterAdEvent[capacity];
+  }
+
+  void add(@NonNull FlutterAdEvent event) {
+    if (size == events.length) {
+      removeAt(indexOfOldestDroppable());
+      droppedCount++;
+    }
+    events[slot(size)] = event;
+    size++;
+  }
+
+  /** Removes and returns every buffered event, oldest first. */
+  @NonNull
+  List<FlutterAdEvent> drain() {
+    final List<FlutterAdEvent> drained = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      drained.add(events[slot(i)]);
+      events[slot(i)] = null;
+    }
+    head = 0;
+    size = 0;
+    return drained;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Number of events dropped because the buffer was full. */
+  long getDroppedCount() {
+    return droppedCount;
+  }
+
+  private int indexOfOldestDroppable() {
+    for (int i = 0; i < size; i++) {
+      if (isLowPriority(events[slot(i)])) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
+  private static boolean isLowPriority(@NonNull FlutterAdEvent event) {
+    return event.type == FlutterAdEvent.PAID_EVENT || event.type == FlutterAdEvent.AD_IMPRESSION;
+  }
+
+  /** Removes the event at {@code index}, counted from the oldest, keeping the others in order. */
+  private void removeAt(int index) {
+    if (index == 0) {
+      events[head] = null;
+      head = slot(1);
+      size--;
+      return;
+    }
+    for (int i = index; i < size - 1; i++) {
+      events[slot(i)] = events[slot(i + 1)];
+    }
+    events[slot(size - 1)] = null;
+    size--;
+  }
+
+  private int slot(int index) {
+    return (head + index) % events.length;
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts ad events and how long they wait between the SDK callback that raised them and being sent
+ * to Dart, per event type and per ad format.
+ *
+ * <p>Latencies are kept in histograms with power of two buckets in microseconds: bucket 0 counts
+ * latencies under 1 microsecond and bucket {@code i} counts latencies in {@code [2^(i-1), 2^i)}
+ * microseconds. The last bucket also counts everything slower. Recording only updates
+ * preallocated atomic arrays, so it doesn't allocate and may be called from any thread.
+ */
+class AdEventMetrics {
+  static final int FORMAT_UNKNOWN = 0;
+  static final int FORMAT_BANNER = 1;
+  static final int FORMAT_AD_MANAGER_BANNER = 2;
+  static final int FORMAT_FLUID = 3;
+  static final int FORMAT_NATIVE = 4;
+  static final int FORMAT_INTERSTITIAL = 5;
+  static final int FORMAT_AD_MANAGER_INTERSTITIAL = 6;
+  static final int FORMAT_REWARDED = 7;
+  static final int FORMAT_APP_OPEN = 8;
+
+  private static final String[] FORMAT_NAMES = {
+    "unknown",
+    "banner",
+    "adManagerBanner",
+    "fluid",
+    "native",
+    "interstitial",
+    "adManagerInterstitial",
+    "rewarded",
+    "appOpen",
+  };
+
+  /** Covers latencies up to about 4 seconds. */
+  static final int BUCKET_COUNT = 23;
+
+  private final Series eventTypes = new Series(FlutterAdEvent.TYPE_COUNT);
+  private final Series formats = new Series(FORMAT_NAMES.length);
+
+  /** Returns the format {@code ad} is recorded under. */
+  static int formatOf(@Nullable FlutterAd ad) {
+    if (ad instanceof FluidAdManagerBannerAd) {
+      return FORMAT_FLUID;
+    } else if (ad instanceof FlutterAdManagerBannerAd) {
+      return FORMAT_AD_MANAGER_BANNER;
+    } else if (ad instanceof FlutterBannerAd) {
+      return FORMAT_BANNER;
+    } else if (ad instanceof FlutterNativeAd) {
+      return FORMAT_NATIVE;
+    } else if (ad instanceof FlutterAdManagerInterstitialAd) {
+      return FORMAT_AD_MANAGER_INTERSTITIAL;
+    } else if (ad instanceof FlutterInterstitialAd) {
+      return FORMAT_INTERSTITIAL;
+    } else if (ad instanceof FlutterRewardedAd) {
+      return FORMAT_REWARDED;
+    } else if (ad instanceof FlutterAppOpenAd) {
+      return FORMAT_APP_OPEN;
+    }
+    return FORMAT_UNKNOWN;
+  }
+
+  /** Records that {@code event} was sent to Dart at {@code sentAtNanos}. */
+  void recordSent(@NonNull FlutterAdEvent event, long sentAtNanos) {
+    final long latencyMicros = Math.max(0, (sentAtNanos - event.createdAtNanos) / 1000);
+    final int bucket = bucketOf(latencyMicros);
+    eventTypes.record(event.type, bucket, latencyMicros);
+    formats.record(event.adFormat, bucket, latencyMicros);
+  }
+
+  /**
+   * Returns the metrics recorded so far, keyed first by {@code "eventTypes"} or {@code
+   * "adFormats"} and then by name. Each entry has a {@code "count"}, a {@code
+   * "totalLatencyMicros"} and a {@code "latencyHistogram"}. Names with no events are left out.
+   */
+  @NonNull
+  Map<String, Object> snapshot() {
+    final Map<String, Object> snapshot = new HashMap<>();
+    snapshot.put("eventTypes", eventTypes.snapshot(FlutterAdEvent.NAMES));
+    snapshot.put("adFormats", formats.snapshot(FORMAT_NAMES));
+    return snapshot;
+  }
+
+  static int bucketOf(long latencyMicros) {
+    final int bucket = 64 - Long.numberOfLeadingZeros(latencyMicros);
+    return Math.min(bucket, BUCKET_COUNT - 1);
+  }
+
+  /** Counts, latency totals and histograms for a fixed number of keys. */
+  private static class Series {
+    private final AtomicLongArray counts;
+    private final AtomicLongArray totalMicros;
+    private final AtomicLongArray buckets;
+
+    Series(int size) {
+      counts = new AtomicLongArray(size);
+      totalMicros = new AtomicLongArray(size);
+      buckets = new AtomicLongArray(size * BUCKET_COUNT);
+    }
+
+    void record(int key, int bucket, long latencyMicros) {
+      counts.incrementAndGet(key);
+      totalMicros.addAndGet(key, latencyMicros);
+      buckets.incrementAndGet(key * BUCKET_COUNT + bucket);
+    }
+
+    Map<String, Object> snapshot(String[] names) {
+      final Map<String, Object> result = new HashMap<>();
+      for (int key = 0; key < names.length; key++) {
+        final long count = counts.get(key);
+        if (count == 0) {
+          continue;
+        }
+        final long[] histogram = new long[BUCKET_COUNT];
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+          histogram[bucket] = buckets.get(key * BUCKET_COUNT + bucket);
+        }
+        final Map<String, Object> entry = new HashMap<>();
+        entry.put("count", count);
+        entry.put("totalLatencyMicros", totalMicros.get(key));
+        entry.put("latencyHistogram", histogram);
+        result.put(names[key], entry);
+      }
+      return result;
+    }
+  }
+}
@@ -15,8 +15,7 @@
 package io.flutter.plugins.googlemobileads;
 
 import android.app.Activity;
-import android.os.Handler;
-import android.os.Looper;
+import android.util.SparseArray;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.google.android.gms.ads.AdError;
@@ -24,7 +23,9 @@ import com.google.android.gms.ads.ResponseInfo;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdError;
 import io.flutter.plugins.googlemobileads.FlutterAd.FlutterResponseInfo;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,20 +34,50 @@ import java.util.Map;
  *
  * <p>When an Ad is loaded from Dart, an equivalent ad object is created and maintained here to
  * provide access until the ad is disposed.
+ *
+ * <p>Every method may be called from any thread. SDK callbacks such as paid events can arrive off
+ * the main thread, so lookups read the current ad registry without locking. Changes to the
+ * registry copy it under a lock and then publish the copy, so readers never see a partial update.
+ * Ads are disposed on the caller's thread, which must be the main thread.
  */
 class AdInstanceManager {
-  @Nullable private Activity activity;
+  @Nullable private volatile Activity activity;
 
-  @NonNull private final Map<Integer, FlutterAd> ads;
-  @NonNull private final MethodChannel channel;
+  @NonNull private final Object adsLock = new Object();
+  // Never modified once published. Guarded by adsLock for writes.
+  @NonNull private volatile AdRegistry ads;
+  @NonNull private final AdEventBatcher eventBatcher;
+  @NonNull private final AdEventMetrics eventMetrics;
+  @NonNull private final PaidEventAggregator paidEventAggregator;
+  @NonNull private final AdReaper reaper;
+  @NonNull private final MainThreadDispatcher dispatcher;
+  // Guarded by itself. Only filled while lazyResponseInfo is set.
+  @NonNull private final SparseArray<FlutterResponseInfo> responseInfos = new SparseArray<>();
+  private volatile boolean lazyResponseInfo;
 
   /**
    * Initializes the ad instance manager. We only need a method channel to start loading ads, but an
    * activity must be present in order to attach any ads to the view hierarchy.
    */
   AdInstanceManager(@NonNull MethodChannel channel) {
-    this.channel = channel;
-    this.ads = new HashMap<>();
+    this(channel, new MainThreadDispatcher());
+  }
+
+  AdInstanceManager(@NonNull MethodChannel channel, @NonNull MainThreadDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+    this.eventMetrics = new AdEventMetrics();
+    this.eventBatcher = new AdEventBatcher(channel, dispatcher, eventMetrics);
+    this.paidEventAggregator = new PaidEventAggregator(channel, dispatcher);
+    this.reaper =
+        new AdReaper(
+            dispatcher,
+            new AdReaper.OnReapListener() {
+              @Override
+              public void onReap(int adId) {
+                reapAd(adId);
+              }
+            });
+    this.ads = new AdRegistry();
   }
 
   void setActivity(@Nullable Activity activity) {
@@ -58,6 +89,106 @@ class AdInstanceManager {
     return activity;
   }
 
+  /** Sets how long ad events are buffered before they are sent to Dart as a single batch. */
+  void setEventBatchWindowMillis(long batchWindowMillis) {
+    eventBatcher.setBatchWindowMillis(batchWindowMillis);
+  }
+
+  /**
+   * Totals paid events and sends the totals to Dart every {@code flushIntervalMillis} instead of
+   * sending each paid event, or sends each one again with {@link
+   * PaidEventAggregator#AGGREGATION_DISABLED}. Must be called on the main thread.
+   */
+  void setPaidEventFlushIntervalMillis(long flushIntervalMillis) {
+    paidEventAggregator.setFlushIntervalMillis(flushIntervalMillis);
+  }
+
+  /** Sends the paid event totals collected so far, if paid events are being totaled. */
+  void flushPaidEvents() {
+    paidEventAggregator.flush();
+  }
+
+  /**
+   * Sets how long ads may stay failed to load, dismissed, or loaded and never shown before they are
+   * disposed and untracked. Use {@link AdReaper#TTL_DISABLED} to keep ads in a state until Dart
+   * disposes them. Must be called on the main thread.
+   */
+  void setOrphanedAdTtls(long failedTtlMillis, long dismissedTtlMillis, long neverShownTtlMillis) {
+    reaper.setTtls(failedTtlMillis, dismissedTtlMillis, neverShownTtlMillis);
+  }
+
+  /**
+   * Sets whether load events carry a response info without adapter responses, with the full
+   * response info kept here for {@link #getResponseInfo(int)} until the ad is disposed.
+   */
+  void setLazyResponseInfo(boolean lazyResponseInfo) {
+    this.lazyResponseInfo = lazyResponseInfo;
+    if (!lazyResponseInfo) {
+      synchronized (responseInfos) {
+        responseInfos.clear();
+      }
+    }
+  }
+
+  /**
+   * Returns the full response info of the last load of the ad tracked with {@code adId}, or null if
+   * there is none or response infos aren't lazy.
+   */
+  @Nullable
+  FlutterResponseInfo getResponseInfo(int adId) {
+    synchronized (responseInfos) {
+      return responseInfos.get(adId);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the ad event metrics along with how often work was dispatched to the main
+   * thread directly or by posting, for {@code Diagnostics#getMetrics}.
+   */
+  @NonNull
+  Map<String, Object> getMetrics() {
+    final Map<String, Object> metrics = eventMetrics.snapshot();
+    final Map<String, Object> mainThread = new HashMap<>();
+    mainThread.put("direct", dispatcher.getDirectCount());
+    mainThread.put("posted", dispatcher.getPostedCount());
+    metrics.put("mainThreadDispatch", mainThread);
+    metrics.put("droppedUndeliveredEvents", eventBatcher.getDroppedCount());
+    metrics.put("reapedAds", reaper.getReapedCounts());
+    return metrics;
+  }
+
+  /**
+   * Sends later events to Dart on {@code channel}, after the plugin is attached to an engine again.
+   * Events held since {@link #pauseEvents()} are sent on it by {@link #resumeEvents()}.
+   */
+  void setChannel(@NonNull MethodChannel channel) {
+    eventBatcher.setChannel(channel);
+    paidEventAggregator.setChannel(channel);
+  }
+
+  /** Holds ad events in a bounded buffer until {@link #resumeEvents()} is called. */
+  void pauseEvents() {
+    eventBatcher.pause();
+  }
+
+  /**
+   * Sends the events held while paused or while Dart wasn't listening, in the order they were
+   * raised. Events for ads that are no longer tracked are dropped.
+   */
+  void resumeEvents() {
+    if (!eventBatcher.needsResume()) {
+      return;
+    }
+    final List<FlutterAdEvent> undelivered = eventBatcher.takeUndelivered();
+    final List<FlutterAdEvent> replay = new ArrayList<>(undelivered.size());
+    for (FlutterAdEvent event : undelivered) {
+      if (adForId(event.adId) != null) {
+        replay.add(event);
+      }
+    }
+    eventBatcher.resume(replay);
+  }
+
   @Nullable
   FlutterAd adForId(int id) {
     return ads.get(id);
@@ -65,150 +196,208 @@ class AdInstanceManager {
 
   @Nullable
   Integer adIdFor(@NonNull FlutterAd ad) {
-    for (Integer adId : ads.keySet()) {
-      if (ads.get(adId) == ad) {
-        return adId;
-      }
-    }
-    return null;
+    return ads.idFor(ad);
   }
 
   void trackAd(@NonNull FlutterAd ad, int adId) {
-    if (ads.get(adId) != null) {
-      throw new IllegalArgumentException(
-          String.format("Ad for following adId already exists: %d", adId));
+    trackAd(ad, adId, FlutterAdEvent.ALL_TYPES_MASK);
+  }
+
+  /**
+   * Tracks {@code ad} and only sends Dart the {@link FlutterAdEvent} types whose bit {@code 1 <<
+   * type} is set in {@code eventMask}. Masked off events aren't created at all.
+   */
+  void trackAd(@NonNull FlutterAd ad, int adId, int eventMask) {
+    synchronized (adsLock) {
+      final AdRegistry updated = new AdRegistry(ads);
+      updated.put(adId, ad, eventMask);
+      ads = updated;
     }
-    ads.put(adId, ad);
+    reaper.onTracked(adId, ad instanceof FlutterAd.FlutterOverlayAd);
   }
 
   void disposeAd(int adId) {
-    if (!ads.containsKey(adId)) {
-      return;
+    final FlutterAd ad;
+    synchronized (adsLock) {
+      if (ads.get(adId) == null) {
+        return;
+      }
+      final AdRegistry updated = new AdRegistry(ads);
+      ad = updated.remove(adId);
+      ads = updated;
     }
-    FlutterAd ad = ads.get(adId);
-    if (ad != null) {
-      ad.dispose();
+    reaper.onUntracked(adId);
+    synchronized (responseInfos) {
+      responseInfos.remove(adId);
     }
-    ads.remove(adId);
+    ad.dispose();
   }
 
   void disposeAllAds() {
-    for (Map.Entry<Integer, FlutterAd> entry : ads.entrySet()) {
-      if (entry.getValue() != null) {
-        entry.getValue().dispose();
-      }
+    final AdRegistry disposed;
+    synchronized (adsLock) {
+      disposed = ads;
+      ads = new AdRegistry();
+    }
+    reaper.clear();
+    synchronized (responseInfos) {
+      responseInfos.clear();
+    }
+    for (FlutterAd ad : disposed.values()) {
+      ad.dispose();
     }
-    ads.clear();
   }
 
   void onAdLoaded(int adId, @Nullable ResponseInfo responseInfo) {
-    Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAdLoaded");
-    FlutterResponseInfo flutterResponseInfo =
-        (responseInfo == null) ? null : new FlutterResponseInfo(responseInfo);
-    arguments.put("responseInfo", flutterResponseInfo);
-    invokeOnAdEvent(arguments);
+    reaper.onStateChanged(adId, AdReaper.STATE_LOADED);
+    // Lazy response infos are kept even if Dart doesn't listen for loads.
+    if (!lazyResponseInfo && !isSubscribed(adId, FlutterAdEvent.AD_LOADED)) {
+      return;
+    }
+    final FlutterResponseInfo flutterResponseInfo =
+        (responseInfo == null)
+            ? null
+            : cacheResponseInfo(adId, new FlutterResponseInfo(responseInfo));
+    if (!isSubscribed(adId, FlutterAdEvent.AD_LOADED)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_LOADED, adId, flutterResponseInfo));
   }
 
   void onAdFailedToLoad(int adId, @NonNull FlutterAd.FlutterLoadAdError error) {
-    Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAdFailedToLoad");
-    arguments.put("loadAdError", error);
-    invokeOnAdEvent(arguments);
+    reaper.onStateChanged(adId, AdReaper.STATE_FAILED);
+    FlutterAd.FlutterLoadAdError sentError = error;
+    if (lazyResponseInfo && error.responseInfo != null) {
+      sentError =
+          new FlutterAd.FlutterLoadAdError(
+              error.code, error.domain, error.message, cacheResponseInfo(adId, error.responseInfo));
+    }
+    if (!isSubscribed(adId, FlutterAdEvent.AD_FAILED_TO_LOAD)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_FAILED_TO_LOAD, adId, sentError));
+  }
+
+  /**
+   * Keeps {@code responseInfo} for {@link #getResponseInfo(int)} and returns the response info to
+   * send with the load event: {@code responseInfo} itself unless response infos are lazy.
+   */
+  @Nullable
+  private FlutterResponseInfo cacheResponseInfo(
+      int adId, @Nullable FlutterResponseInfo responseInfo) {
+    if (!lazyResponseInfo || responseInfo == null) {
+      return responseInfo;
+    }
+    synchronized (responseInfos) {
+      responseInfos.put(adId, responseInfo);
+    }
+    return responseInfo.withoutAdapterResponses();
   }
 
   void onAppEvent(int adId, @NonNull String name, @NonNull String data) {
-    Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAppEvent");
-    arguments.put("name", name);
-    arguments.put("data", data);
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(adId, FlutterAdEvent.APP_EVENT)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.APP_EVENT, adId, name, data));
   }
 
   void onAdImpression(int id) {
-    Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", id);
-    arguments.put("eventName", "onAdImpression");
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(id, FlutterAdEvent.AD_IMPRESSION)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, id));
   }
 
   void onNativeAdClicked(int id) {
-    Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", id);
-    arguments.put("eventName", "onNativeAdClicked");
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(id, FlutterAdEvent.NATIVE_AD_CLICKED)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.NATIVE_AD_CLICKED, id));
   }
 
   void onAdOpened(int adId) {
-    Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAdOpened");
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(adId, FlutterAdEvent.AD_OPENED)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_OPENED, adId));
   }
 
   void onAdClosed(int adId) {
-    Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAdClosed");
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(adId, FlutterAdEvent.AD_CLOSED)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_CLOSED, adId));
   }
 
   void onRewardedAdUserEarnedReward(int adId, @NonNull FlutterRewardedAd.FlutterRewardItem reward) {
-    final Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onRewardedAdUserEarnedReward");
-    arguments.put("rewardItem", reward);
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(adId, FlutterAdEvent.REWARDED_AD_USER_EARNED_REWARD)) {
+      return;
+    }
+    invokeOnAdEvent(
+        new FlutterAdEvent(FlutterAdEvent.REWARDED_AD_USER_EARNED_REWARD, adId, reward));
   }
 
   void onPaidEvent(@NonNull FlutterAd ad, @NonNull FlutterAdValue adValue) {
-    final Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adIdFor(ad));
-    arguments.put("eventName", "onPaidEvent");
-    arguments.put("valueMicros", adValue.valueMicros);
-    arguments.put("precision", adValue.precisionType);
-    arguments.put("currencyCode", adValue.currencyCode);
-    invokeOnAdEvent(arguments);
+    final Integer adId = adIdFor(ad);
+    if (adId == null) {
+      // The ad was disposed, so Dart has no listener left to notify.
+      return;
+    }
+    if (paidEventAggregator.isEnabled()) {
+      paidEventAggregator.add(
+          ad.getAdUnitId(), adValue.currencyCode, adValue.precisionType, adValue.valueMicros);
+      return;
+    }
+    if (!isSubscribed(adId, FlutterAdEvent.PAID_EVENT)) {
+      return;
+    }
+    invokeOnAdEvent(
+        new FlutterAdEvent(
+            FlutterAdEvent.PAID_EVENT,
+            adId,
+            adValue.valueMicros,
+            adValue.precisionType,
+            adValue.currencyCode));
   }
 
   void onFailedToShowFullScreenContent(int adId, @NonNull AdError error) {
-    final Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onFailedToShowFullScreenContent");
-    arguments.put("error", new FlutterAdError(error));
-    invokeOnAdEvent(arguments);
+    reaper.onStateChanged(adId, AdReaper.STATE_DISMISSED);
+    if (!isSubscribed(adId, FlutterAdEvent.FAILED_TO_SHOW_FULL_SCREEN_CONTENT)) {
+      return;
+    }
+    invokeOnAdEvent(
+        new FlutterAdEvent(
+            FlutterAdEvent.FAILED_TO_SHOW_FULL_SCREEN_CONTENT, adId, new FlutterAdError(error)));
   }
 
   void onAdShowedFullScreenContent(int adId) {
-    final Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAdShowedFullScreenContent");
-    invokeOnAdEvent(arguments);
+    reaper.onStateChanged(adId, AdReaper.STATE_SHOWING);
+    if (!isSubscribed(adId, FlutterAdEvent.AD_SHOWED_FULL_SCREEN_CONTENT)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_SHOWED_FULL_SCREEN_CONTENT, adId));
   }
 
   void onAdDismissedFullScreenContent(int adId) {
-    final Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAdDismissedFullScreenContent");
-    invokeOnAdEvent(arguments);
+    reaper.onStateChanged(adId, AdReaper.STATE_DISMISSED);
+    if (!isSubscribed(adId, FlutterAdEvent.AD_DISMISSED_FULL_SCREEN_CONTENT)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_DISMISSED_FULL_SCREEN_CONTENT, adId));
   }
 
   void onAdMetadataChanged(int adId) {
-    final Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onAdMetadataChanged");
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(adId, FlutterAdEvent.AD_METADATA_CHANGED)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_METADATA_CHANGED, adId));
   }
 
   void onFluidAdHeightChanged(int adId, int height) {
-    final Map<Object, Object> arguments = new HashMap<>();
-    arguments.put("adId", adId);
-    arguments.put("eventName", "onFluidAdHeightChanged");
-    arguments.put("height", height);
-    invokeOnAdEvent(arguments);
+    if (!isSubscribed(adId, FlutterAdEvent.FLUID_AD_HEIGHT_CHANGED)) {
+      return;
+    }
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.FLUID_AD_HEIGHT_CHANGED, adId, height));
   }
 
   boolean showAdWithId(int id) {
@@ -222,15 +411,33 @@ class AdInstanceManager {
     return true;
   }
 
-  /** Invoke the method channel using the UI thread. Otherwise the message gets silently dropped. */
-  private void invokeOnAdEvent(final Map<Object, Object> arguments) {
-    new Handler(Looper.getMainLooper())
-        .post(
-            new Runnable() {
-              @Override
-              public void run() {
-                channel.invokeMethod("onAdEvent", arguments);
-              }
-            });
+  /** Disposes an ad that was most likely leaked by Dart and tells Dart to drop it too. */
+  private void reapAd(int adId) {
+    final FlutterAd ad = adForId(adId);
+    if (ad == null) {
+      return;
+    }
+    // Disposing untracks the ad, so the event is given the ad to take its format from.
+    disposeAd(adId);
+    invokeOnAdEvent(new FlutterAdEvent(FlutterAdEvent.AD_REAPED, adId), ad);
+  }
+
+  /** Returns whether Dart wants events of {@code type} for the ad tracked with {@code adId}. */
+  private boolean isSubscribed(int adId, byte type) {
+    return (ads.eventMask(adId) & (1 << type)) != 0;
+  }
+
+  /**
+   * Queues an event for Dart. Events are batched and sent using the UI thread, otherwise the
+   * message gets silently dropped.
+   */
+  private void invokeOnAdEvent(@NonNull FlutterAdEvent event) {
+    invokeOnAdEvent(event, adForId(event.adId));
+  }
+
+  /** Queues an event for Dart about {@code ad}, which need not be tracked anymore. */
+  private void invokeOnAdEvent(@NonNull FlutterAdEvent event, @Nullable FlutterAd ad) {
+    event.adFormat = AdEventMetrics.formatOf(ad);
+    eventBatcher.add(event);
   }
 }
@@ -17,6 +17,7 @@ package io.flutter.plugins.googlemobileads;
 
 import android.content.Context;
 import android.location.Location;
+import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
@@ -28,8 +29,10 @@ import io.flutter.plugins.googlemobileads.FlutterAd.FlutterResponseInfo;
 import io.flutter.plugins.googlemobileads.FlutterAdSize.InlineAdaptiveBannerAdSize;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Encodes and decodes values by reading from a ByteBuffer and writing to a ByteArrayOutputStream.
@@ -56,9 +59,92 @@ class AdMessageCodec extends StandardMessageCodec {
   private static final byte VALUE_INLINE_ADAPTIVE_BANNER_AD_SIZE = (byte) 146;
   private static final byte VALUE_LOCATION_PARAMS = (byte) 147;
   private static final byte VALUE_REQUEST_CONFIGURATION_PARAMS = (byte) 148;
+  private static final byte VALUE_AD_EVENT = (byte) 149;
+  private static final byte VALUE_FRAMED = (byte) 150;
+  private static final byte VALUE_STRING_DEFINITION = (byte) 151;
+  private static final byte VALUE_STRING_REFERENCE = (byte) 152;
 
-  @NonNull Context context;
+  private static final Charset UTF8 = Charset.forName("UTF8");
+
+  // The largest type written by StandardMessageCodec, for its float arrays.
+  private static final int LAST_STANDARD_TYPE = 14;
+
+  // The StandardMessageCodec types read directly by readInt, readLong, readDouble and readBoolean.
+  private static final byte STANDARD_NULL = 0;
+  private static final byte STANDARD_TRUE = 1;
+  private static final byte STANDARD_FALSE = 2;
+  private static final byte STANDARD_INT = 3;
+  private static final byte STANDARD_LONG = 4;
+  private static final byte STANDARD_DOUBLE = 6;
+
+  /** Marks classes that {@link StandardMessageCodec} writes. Never written to a message. */
+  private static final byte VALUE_STANDARD = 0;
+
+  /**
+   * The classes with a custom type, in the order a value's class is matched against them. A
+   * subclass must come before its superclass, such as {@link FlutterAdManagerAdRequest} before
+   * {@link FlutterAdRequest}. Every subclass of {@link FlutterAdSize} is written by {@link
+   * #writeAdSize}.
+   */
+  private static final Class<?>[] TYPE_ORDER = {
+    FlutterAdEvent.class,
+    FlutterAdSize.class,
+    FlutterAdManagerAdRequest.class,
+    FlutterAdRequest.class,
+    FlutterRewardedAd.FlutterRewardItem.class,
+    FlutterAdapterResponseInfo.class,
+    FlutterResponseInfo.class,
+    FlutterAd.FlutterLoadAdError.class,
+    FlutterAdError.class,
+    FlutterAdapterStatus.AdapterInitializationState.class,
+    FlutterAdapterStatus.class,
+    FlutterInitializationStatus.class,
+    FlutterServerSideVerificationOptions.class,
+    FlutterNativeAdOptions.class,
+    RequestConfiguration.class,
+    FlutterVideoOptions.class,
+    Location.class,
+  };
+
+  private static final byte[] TYPE_ORDER_VALUES = {
+    VALUE_AD_EVENT,
+    VALUE_AD_SIZE,
+    VALUE_ADMANAGER_AD_REQUEST,
+    VALUE_AD_REQUEST,
+    VALUE_REWARD_ITEM,
+    VALUE_ADAPTER_RESPONSE_INFO,
+    VALUE_RESPONSE_INFO,
+    VALUE_LOAD_AD_ERROR,
+    VALUE_AD_ERROR,
+    VALUE_INITIALIZATION_STATE,
+    VALUE_ADAPTER_STATUS,
+    VALUE_INITIALIZATION_STATUS,
+    VALUE_SERVER_SIDE_VERIFICATION_OPTIONS,
+    VALUE_NATIVE_AD_OPTIONS,
+    VALUE_REQUEST_CONFIGURATION_PARAMS,
+    VALUE_VIDEO_OPTIONS,
+    VALUE_LOCATION_PARAMS,
+  };
+
+  /**
+   * The type each class seen so far is written as, keyed by its exact class. Writing a value is a
+   * single lookup instead of a chain of instanceof checks, which matters most for the strings,
+   * numbers and maps nested in every message. Shared by every codec, since the mapping is fixed.
+   */
+  private static final Map<Class<?>, Byte> TYPES = new ConcurrentHashMap<>();
+
+  // Set on the main thread and read while decoding on the channel's background task queue.
+  @NonNull volatile Context context;
   @NonNull final FlutterAdSize.AdSizeFactory adSizeFactory;
+  @NonNull final AdRequestInterner requestInterner = new AdRequestInterner();
+  private volatile boolean framingEnabled;
+  // The last location decoded. Decoded locations are shared and never modified.
+  @Nullable private volatile Location lastLocation;
+  // Only used on the main thread.
+  @NonNull final StringDictionary stringDictionary = new StringDictionary();
+  private boolean stringDictionaryEnabled;
+  // The main thread while it writes a method call with the string dictionary, otherwise null.
+  @Nullable private Thread dictionaryThread;
 
   AdMessageCodec(@NonNull Context context) {
     this.context = context;
@@ -75,133 +161,334 @@ class AdMessageCodec extends StandardMessageCodec {
     this.context = context;
   }
 
+  /**
+   * Sets whether custom values are written framed: as {@code VALUE_FRAMED}, their length in bytes
+   * as an unsigned varint, and then the value itself. A reader can skip a framed value without
+   * decoding it, and ignores fields appended to a framed value that it doesn't know about. Framed
+   * values are always read, whether or not they are written.
+   */
+  void setFramingEnabled(boolean framingEnabled) {
+    this.framingEnabled = framingEnabled;
+  }
+
+  /**
+   * Sets whether method calls sent to Dart write strings with the {@link StringDictionary}: as
+   * {@code VALUE_STRING_DEFINITION}, an id and the string the first time, and as {@code
+   * VALUE_STRING_REFERENCE} and the id after that. Turning it on starts a new dictionary, which
+   * Dart starts before it asks for it. Must be called on the main thread.
+   */
+  void setStringDictionaryEnabled(boolean enabled) {
+    if (enabled && !stringDictionaryEnabled) {
+      stringDictionary.clear();
+    }
+    stringDictionaryEnabled = enabled;
+  }
+
+  /**
+   * Forgets the strings of the string dictionary, so later method calls define them again. Called
+   * when Dart didn't decode a method call or replied to one with an error, since it may have missed
+   * the strings the call defined. Must be called on the main thread.
+   */
+  void resetStringDictionary() {
+    stringDictionary.clear();
+  }
+
+  /**
+   * Writes the method and arguments of a call sent to Dart. Calls written on the main thread use
+   * the string dictionary if it's enabled, since they're sent to Dart in the order they're written.
+   */
+  void writeMethodCall(
+      @NonNull ByteArrayOutputStream stream, @NonNull String method, @Nullable Object arguments) {
+    if (!stringDictionaryEnabled || Looper.myLooper() != Looper.getMainLooper()) {
+      writeValue(stream, method);
+      writeValue(stream, arguments);
+      return;
+    }
+    dictionaryThread = Thread.currentThread();
+    try {
+      writeValue(stream, method);
+      writeValue(stream, arguments);
+    } catch (RuntimeException e) {
+      // The call won't be sent, so Dart never sees the strings it defined.
+      stringDictionary.clear();
+      throw e;
+    } finally {
+      dictionaryThread = null;
+    }
+  }
+
   @Override
   protected void writeValue(ByteArrayOutputStream stream, Object value) {
-    if (value instanceof FlutterAdSize) {
-      writeAdSize(stream, (FlutterAdSize) value);
-    } else if (value instanceof FlutterAdManagerAdRequest) {
-      stream.write(VALUE_ADMANAGER_AD_REQUEST);
-      final FlutterAdManagerAdRequest request = (FlutterAdManagerAdRequest) value;
-      writeValue(stream, request.getKeywords());
-      writeValue(stream, request.getContentUrl());
-      writeValue(stream, request.getCustomTargeting());
-      writeValue(stream, request.getCustomTargetingLists());
-      writeValue(stream, request.getNonPersonalizedAds());
-      writeValue(stream, request.getNeighboringContentUrls());
-      writeValue(stream, request.getHttpTimeoutMillis());
-      writeValue(stream, request.getPublisherProvidedId());
-      writeValue(stream, request.getLocation());
-    } else if (value instanceof FlutterAdRequest) {
-      stream.write(VALUE_AD_REQUEST);
-      final FlutterAdRequest request = (FlutterAdRequest) value;
-      writeValue(stream, request.getKeywords());
-      writeValue(stream, request.getContentUrl());
-      writeValue(stream, request.getNonPersonalizedAds());
-      writeValue(stream, request.getNeighboringContentUrls());
-      writeValue(stream, request.getHttpTimeoutMillis());
-      writeValue(stream, request.getLocation());
-    } else if (value instanceof FlutterRewardedAd.FlutterRewardItem) {
-      stream.write(VALUE_REWARD_ITEM);
-      final FlutterRewardedAd.FlutterRewardItem item = (FlutterRewardedAd.FlutterRewardItem) value;
-      writeValue(stream, item.amount);
-      writeValue(stream, item.type);
-    } else if (value instanceof FlutterAdapterResponseInfo) {
-      stream.write(VALUE_ADAPTER_RESPONSE_INFO);
-      final FlutterAdapterResponseInfo responseInfo = (FlutterAdapterResponseInfo) value;
-      writeValue(stream, responseInfo.getAdapterClassName());
-      writeValue(stream, responseInfo.getLatencyMillis());
-      writeValue(stream, responseInfo.getDescription());
-      writeValue(stream, responseInfo.getCredentials());
-      writeValue(stream, responseInfo.getError());
-    } else if (value instanceof FlutterResponseInfo) {
-      stream.write(VALUE_RESPONSE_INFO);
-      final FlutterResponseInfo responseInfo = (FlutterResponseInfo) value;
-      writeValue(stream, responseInfo.getResponseId());
-      writeValue(stream, responseInfo.getMediationAdapterClassName());
-      writeValue(stream, responseInfo.getAdapterResponses());
-    } else if (value instanceof FlutterAd.FlutterLoadAdError) {
-      stream.write(VALUE_LOAD_AD_ERROR);
-      final FlutterAd.FlutterLoadAdError error = (FlutterAd.FlutterLoadAdError) value;
-      writeValue(stream, error.code);
-      writeValue(stream, error.domain);
-      writeValue(stream, error.message);
-      writeValue(stream, error.responseInfo);
-    } else if (value instanceof FlutterAdError) {
-      stream.write(VALUE_AD_ERROR);
-      final FlutterAdError error = (FlutterAdError) value;
-      writeValue(stream, error.code);
-      writeValue(stream, error.domain);
-      writeValue(stream, error.message);
-    } else if (value instanceof FlutterAdapterStatus.AdapterInitializationState) {
-      stream.write(VALUE_INITIALIZATION_STATE);
-      final FlutterAdapterStatus.AdapterInitializationState state =
-          (FlutterAdapterStatus.AdapterInitializationState) value;
-      switch (state) {
-        case NOT_READY:
-          writeValue(stream, "notReady");
-          return;
-        case READY:
-          writeValue(stream, "ready");
-          return;
+    if (value == null) {
+      super.writeValue(stream, null);
+      return;
+    }
+    if (dictionaryThread != null
+        && value instanceof String
+        && dictionaryThread == Thread.currentThread()) {
+      writeDictionaryString(stream, (String) value);
+      return;
+    }
+    Byte type = TYPES.get(value.getClass());
+    if (type == null) {
+      type = resolveType(value.getClass());
+    }
+    if (framingEnabled && type != VALUE_STANDARD) {
+      // Strings in a frame are written in full, since a reader that skips the frame would miss
+      // their definitions.
+      final Thread owner = dictionaryThread;
+      final boolean pauseDictionary = owner != null && owner == Thread.currentThread();
+      final EncodeBufferPool.Stream frame = new EncodeBufferPool.Stream(64);
+      if (pauseDictionary) {
+        dictionaryThread = null;
+      }
+      try {
+        writeValueOfType(frame, value, type);
+      } finally {
+        if (pauseDictionary) {
+          dictionaryThread = owner;
+        }
       }
-      final String message = String.format("Unable to handle state: %s", state);
-      throw new IllegalArgumentException(message);
-    } else if (value instanceof FlutterAdapterStatus) {
-      stream.write(VALUE_ADAPTER_STATUS);
-      final FlutterAdapterStatus status = (FlutterAdapterStatus) value;
-      writeValue(stream, status.state);
-      writeValue(stream, status.description);
-      writeValue(stream, status.latency);
-    } else if (value instanceof FlutterInitializationStatus) {
-      stream.write(VALUE_INITIALIZATION_STATUS);
-      final FlutterInitializationStatus status = (FlutterInitializationStatus) value;
-      writeValue(stream, status.adapterStatuses);
-    } else if (value instanceof FlutterServerSideVerificationOptions) {
-      stream.write(VALUE_SERVER_SIDE_VERIFICATION_OPTIONS);
-      FlutterServerSideVerificationOptions options = (FlutterServerSideVerificationOptions) value;
-      writeValue(stream, options.getUserId());
-      writeValue(stream, options.getCustomData());
-    } else if (value instanceof FlutterNativeAdOptions) {
-      stream.write(VALUE_NATIVE_AD_OPTIONS);
-      FlutterNativeAdOptions options = (FlutterNativeAdOptions) value;
-      writeValue(stream, options.adChoicesPlacement);
-      writeValue(stream, options.mediaAspectRatio);
-      writeValue(stream, options.videoOptions);
-      writeValue(stream, options.requestCustomMuteThisAd);
-      writeValue(stream, options.shouldRequestMultipleImages);
-      writeValue(stream, options.shouldReturnUrlsForImageAssets);
-    } else if (value instanceof RequestConfiguration) {
-      stream.write(VALUE_REQUEST_CONFIGURATION_PARAMS);
-      RequestConfiguration params = (RequestConfiguration) value;
-      writeValue(stream, params.getMaxAdContentRating());
-      writeValue(stream, params.getTagForChildDirectedTreatment());
-      writeValue(stream, params.getTagForUnderAgeOfConsent());
-      writeValue(stream, params.getTestDeviceIds());
-    } else if (value instanceof FlutterVideoOptions) {
-      stream.write(VALUE_VIDEO_OPTIONS);
-      FlutterVideoOptions options = (FlutterVideoOptions) value;
-      writeValue(stream, options.clickToExpandRequested);
-      writeValue(stream, options.customControlsRequested);
-      writeValue(stream, options.startMuted);
-    } else if (value instanceof Location) {
-      stream.write(VALUE_LOCATION_PARAMS);
-      Location location = (Location) value;
-      writeValue(stream, location.getAccuracy());
-      writeValue(stream, location.getLongitude());
-      writeValue(stream, location.getLatitude());
-      writeValue(stream, location.getTime());
+      stream.write(VALUE_FRAMED);
+      writeVarint(stream, frame.size());
+      stream.write(frame.buffer(), 0, frame.size());
     } else {
-      super.writeValue(stream, value);
+      writeValueOfType(stream, value, type);
     }
   }
 
-  @SuppressWarnings("unchecked")
+  private void writeDictionaryString(ByteArrayOutputStream stream, String string) {
+    if (string.length() > StringDictionary.MAX_STRING_LENGTH) {
+      super.writeValue(stream, string);
+      return;
+    }
+    int id = stringDictionary.get(string);
+    if (id >= 0) {
+      stream.write(VALUE_STRING_REFERENCE);
+      writeVarint(stream, id);
+      return;
+    }
+    id = stringDictionary.define(string);
+    stream.write(VALUE_STRING_DEFINITION);
+    writeVarint(stream, id);
+    writeBytes(stream, string.getBytes(UTF8));
+  }
+
+  private void writeValueOfType(ByteArrayOutputStream stream, Object value, byte type) {
+    switch (type) {
+      case VALUE_AD_EVENT:
+        writeAdEvent(stream, (FlutterAdEvent) value);
+        break;
+      case VALUE_AD_SIZE:
+        writeAdSize(stream, (FlutterAdSize) value);
+        break;
+      case VALUE_ADMANAGER_AD_REQUEST:
+        {
+          stream.write(VALUE_ADMANAGER_AD_REQUEST);
+          final FlutterAdManagerAdRequest request = (FlutterAdManagerAdRequest) value;
+          writeValue(stream, request.getKeywords());
+          writeValue(stream, request.getContentUrl());
+          writeValue(stream, request.getCustomTargeting());
+          writeValue(stream, request.getCustomTargetingLists());
+          writeValue(stream, request.getNonPersonalizedAds());
+          writeValue(stream, request.getNeighboringContentUrls());
+          writeValue(stream, request.getHttpTimeoutMillis());
+          writeValue(stream, request.getPublisherProvidedId());
+          writeValue(stream, request.getLocation());
+          break;
+        }
+      case VALUE_AD_REQUEST:
+        {
+          stream.write(VALUE_AD_REQUEST);
+          final FlutterAdRequest request = (FlutterAdRequest) value;
+          writeValue(stream, request.getKeywords());
+          writeValue(stream, request.getContentUrl());
+          writeValue(stream, request.getNonPersonalizedAds());
+          writeValue(stream, request.getNeighboringContentUrls());
+          writeValue(stream, request.getHttpTimeoutMillis());
+          writeValue(stream, request.getLocation());
+          break;
+        }
+      case VALUE_REWARD_ITEM:
+        {
+          stream.write(VALUE_REWARD_ITEM);
+          final FlutterRewardedAd.FlutterRewardItem item =
+              (FlutterRewardedAd.FlutterRewardItem) value;
+          writeValue(stream, item.amount);
+          writeValue(stream, item.type);
+          break;
+        }
+      case VALUE_ADAPTER_RESPONSE_INFO:
+        {
+          stream.write(VALUE_ADAPTER_RESPONSE_INFO);
+          final FlutterAdapterResponseInfo responseInfo = (FlutterAdapterResponseInfo) value;
+          writeValue(stream, responseInfo.getAdapterClassName());
+          writeValue(stream, responseInfo.getLatencyMillis());
+          writeValue(stream, responseInfo.getDescription());
+          writeValue(stream, responseInfo.getCredentials());
+          writeValue(stream, responseInfo.getError());
+          break;
+        }
+      case VALUE_RESPONSE_INFO:
+        {
+          stream.write(VALUE_RESPONSE_INFO);
+          final FlutterResponseInfo responseInfo = (FlutterResponseInfo) value;
+          writeValue(stream, responseInfo.getResponseId());
+          writeValue(stream, responseInfo.getMediationAdapterClassName());
+          writeValue(stream, responseInfo.getAdapterResponses());
+          break;
+        }
+      case VALUE_LOAD_AD_ERROR:
+        {
+          stream.write(VALUE_LOAD_AD_ERROR);
+          final FlutterAd.FlutterLoadAdError error = (FlutterAd.FlutterLoadAdError) value;
+          writeValue(stream, error.code);
+          writeValue(stream, error.domain);
+          writeValue(stream, error.message);
+          writeValue(stream, error.responseInfo);
+          break;
+        }
+      case VALUE_AD_ERROR:
+        {
+          stream.write(VALUE_AD_ERROR);
+          final FlutterAdError error = (FlutterAdError) value;
+          writeValue(stream, error.code);
+          writeValue(stream, error.domain);
+          writeValue(stream, error.message);
+          break;
+        }
+      case VALUE_INITIALIZATION_STATE:
+        {
+          stream.write(VALUE_INITIALIZATION_STATE);
+          final FlutterAdapterStatus.AdapterInitializationState state =
+              (FlutterAdapterStatus.AdapterInitializationState) value;
+          switch (state) {
+            case NOT_READY:
+              writeValue(stream, "notReady");
+              return;
+            case READY:
+              writeValue(stream, "ready");
+              return;
+          }
+          final String message = String.format("Unable to handle state: %s", state);
+          throw new IllegalArgumentException(message);
+        }
+      case VALUE_ADAPTER_STATUS:
+        {
+          stream.write(VALUE_ADAPTER_STATUS);
+          final FlutterAdapterStatus status = (FlutterAdapterStatus) value;
+          writeValue(stream, status.state);
+          writeValue(stream, status.description);
+          writeValue(stream, status.latency);
+          break;
+        }
+      case VALUE_INITIALIZATION_STATUS:
+        {
+          stream.write(VALUE_INITIALIZATION_STATUS);
+          final FlutterInitializationStatus status = (FlutterInitializationStatus) value;
+          writeValue(stream, status.adapterStatuses);
+          break;
+        }
+      case VALUE_SERVER_SIDE_VERIFICATION_OPTIONS:
+        {
+          stream.write(VALUE_SERVER_SIDE_VERIFICATION_OPTIONS);
+          FlutterServerSideVerificationOptions options =
+              (FlutterServerSideVerificationOptions) value;
+          writeValue(stream, options.getUserId());
+          writeValue(stream, options.getCustomData());
+          break;
+        }
+      case VALUE_NATIVE_AD_OPTIONS:
+        {
+          stream.write(VALUE_NATIVE_AD_OPTIONS);
+          FlutterNativeAdOptions options = (FlutterNativeAdOptions) value;
+          writeValue(stream, options.adChoicesPlacement);
+          writeValue(stream, options.mediaAspectRatio);
+          writeValue(stream, options.videoOptions);
+          writeValue(stream, options.requestCustomMuteThisAd);
+          writeValue(stream, options.shouldRequestMultipleImages);
+          writeValue(stream, options.shouldReturnUrlsForImageAssets);
+          break;
+        }
+      case VALUE_REQUEST_CONFIGURATION_PARAMS:
+        {
+          stream.write(VALUE_REQUEST_CONFIGURATION_PARAMS);
+          RequestConfiguration params = (RequestConfiguration) value;
+          writeValue(stream, params.getMaxAdContentRating());
+          writeValue(stream, params.getTagForChildDirectedTreatment());
+          writeValue(stream, params.getTagForUnderAgeOfConsent());
+          writeValue(stream, params.getTestDeviceIds());
+          break;
+        }
+      case VALUE_VIDEO_OPTIONS:
+        {
+          stream.write(VALUE_VIDEO_OPTIONS);
+          FlutterVideoOptions options = (FlutterVideoOptions) value;
+          writeValue(stream, options.clickToExpandRequested);
+          writeValue(stream, options.customControlsRequested);
+          writeValue(stream, options.startMuted);
+          break;
+        }
+      case VALUE_LOCATION_PARAMS:
+        {
+          stream.write(VALUE_LOCATION_PARAMS);
+          Location location = (Location) value;
+          writeValue(stream, location.getAccuracy());
+          writeValue(stream, location.getLongitude());
+          writeValue(stream, location.getLatitude());
+          writeValue(stream, location.getTime());
+          break;
+        }
+      default:
+        super.writeValue(stream, value);
+    }
+  }
+
+  /**
+   * Finds the type a class is written as, the first entry of {@link #TYPE_ORDER} it is assignable
+   * to or {@link #VALUE_STANDARD} if there is none, and caches it for the next value of that class.
+   */
+  @NonNull
+  private static Byte resolveType(@NonNull Class<?> valueClass) {
+    Byte type = VALUE_STANDARD;
+    for (int i = 0; i < TYPE_ORDER.length; i++) {
+      if (TYPE_ORDER[i].isAssignableFrom(valueClass)) {
+        type = TYPE_ORDER_VALUES[i];
+        break;
+      }
+    }
+    TYPES.put(valueClass, type);
+    return type;
+  }
+
   @Override
   protected Object readValueOfType(byte type, ByteBuffer buffer) {
     switch (type) {
+      case VALUE_FRAMED:
+        {
+          final int length = readVarint(buffer);
+          // Read the value from its own buffer, so alignment is relative to the frame like it was
+          // when the frame was written and any unread trailing fields are skipped.
+          // A slice is always big endian, so it takes the message's byte order explicitly.
+          final ByteBuffer frame = buffer.slice().order(buffer.order());
+          frame.limit(length);
+          buffer.position(buffer.position() + length);
+          final byte frameType = frame.get();
+          return isKnownType(frameType) ? readValueOfType(frameType, frame) : null;
+        }
+      case VALUE_AD_EVENT:
+        {
+          final byte eventType = buffer.get();
+          final int adId = readVarint(buffer);
+          final Object[] fields = new Object[fieldCountOf(eventType)];
+          for (int i = 0; i < fields.length; i++) {
+            fields[i] = readValueOfType(buffer.get(), buffer);
+          }
+          return new FlutterAdEvent(eventType, adId, fields);
+        }
       case VALUE_INLINE_ADAPTIVE_BANNER_AD_SIZE:
         {
-          final Integer width = (Integer) readValueOfType(buffer.get(), buffer);
+          final int width = readInt(buffer);
           final Integer height = (Integer) readValueOfType(buffer.get(), buffer);
           final Integer orientation = (Integer) readValueOfType(buffer.get(), buffer);
           return new FlutterAdSize.InlineAdaptiveBannerAdSize(
@@ -209,26 +496,25 @@ class AdMessageCodec extends StandardMessageCodec {
         }
       case VALUE_ANCHORED_ADAPTIVE_BANNER_AD_SIZE:
         final String orientation = (String) readValueOfType(buffer.get(), buffer);
-        final Integer width = (Integer) readValueOfType(buffer.get(), buffer);
+        final int width = readInt(buffer);
         return new FlutterAdSize.AnchoredAdaptiveBannerAdSize(
             context, adSizeFactory, orientation, width);
       case VALUE_SMART_BANNER_AD_SIZE:
         return new FlutterAdSize.SmartBannerAdSize();
       case VALUE_AD_SIZE:
-        return new FlutterAdSize(
-            (Integer) readValueOfType(buffer.get(), buffer),
-            (Integer) readValueOfType(buffer.get(), buffer));
+        return new FlutterAdSize(readInt(buffer), readInt(buffer));
       case VALUE_FLUID_AD_SIZE:
         return new FlutterAdSize.FluidAdSize();
       case VALUE_AD_REQUEST:
-        return new FlutterAdRequest.Builder()
-            .setKeywords((List<String>) readValueOfType(buffer.get(), buffer))
-            .setContentUrl((String) readValueOfType(buffer.get(), buffer))
-            .setNonPersonalizedAds(booleanValueOf(readValueOfType(buffer.get(), buffer)))
-            .setNeighboringContentUrls((List<String>) readValueOfType(buffer.get(), buffer))
-            .setHttpTimeoutMillis((Integer) readValueOfType(buffer.get(), buffer))
-            .setLocation((Location) readValueOfType(buffer.get(), buffer))
-            .build();
+        return requestInterner.intern(
+            new FlutterAdRequest.Builder()
+                .setKeywords((List<String>) readValueOfType(buffer.get(), buffer))
+                .setContentUrl((String) readValueOfType(buffer.get(), buffer))
+                .setNonPersonalizedAds(booleanValueOf(readValueOfType(buffer.get(), buffer)))
+                .setNeighboringContentUrls((List<String>) readValueOfType(buffer.get(), buffer))
+                .setHttpTimeoutMillis((Integer) readValueOfType(buffer.get(), buffer))
+                .setLocation((Location) readValueOfType(buffer.get(), buffer))
+                .build());
       case VALUE_REWARD_ITEM:
         return new FlutterRewardedAd.FlutterRewardItem(
             (Integer) readValueOfType(buffer.get(), buffer),
@@ -268,7 +554,7 @@ class AdMessageCodec extends StandardMessageCodec {
         builder.setHttpTimeoutMillis((Integer) readValueOfType(buffer.get(), buffer));
         builder.setPublisherProvidedId((String) readValueOfType(buffer.get(), buffer));
         builder.setLocation((Location) readValueOfType(buffer.get(), buffer));
-        return builder.build();
+        return requestInterner.intern(builder.build());
       case VALUE_INITIALIZATION_STATE:
         final String state = (String) readValueOfType(buffer.get(), buffer);
         switch (state) {
@@ -302,9 +588,7 @@ class AdMessageCodec extends StandardMessageCodec {
             (Boolean) readValueOfType(buffer.get(), buffer));
       case VALUE_VIDEO_OPTIONS:
         return new FlutterVideoOptions(
-            (Boolean) readValueOfType(buffer.get(), buffer),
-            (Boolean) readValueOfType(buffer.get(), buffer),
-            (Boolean) readValueOfType(buffer.get(), buffer));
+            readBoolean(buffer), readBoolean(buffer), readBoolean(buffer));
       case VALUE_REQUEST_CONFIGURATION_PARAMS:
         RequestConfiguration.Builder rcb = new RequestConfiguration.Builder();
         rcb.setMaxAdContentRating((String) readValueOfType(buffer.get(), buffer));
@@ -313,13 +597,29 @@ class AdMessageCodec extends StandardMessageCodec {
         rcb.setTestDeviceIds((List<String>) readValueOfType(buffer.get(), buffer));
         return rcb.build();
       case VALUE_LOCATION_PARAMS:
-        Location location = new Location("");
-        // This is necessary because StandardMessageCodec converts floats to double.
-        location.setAccuracy(((Double) readValueOfType(buffer.get(), buffer)).floatValue());
-        location.setLongitude((double) readValueOfType(buffer.get(), buffer));
-        location.setLatitude((double) readValueOfType(buffer.get(), buffer));
-        location.setTime((long) readValueOfType(buffer.get(), buffer));
-        return location;
+        {
+          // This is necessary because StandardMessageCodec converts floats to double.
+          final float accuracy = (float) readDouble(buffer);
+          final double longitude = readDouble(buffer);
+          final double latitude = readDouble(buffer);
+          final long time = readLong(buffer);
+          // Apps usually send the same location with every request, so reuse the last one.
+          final Location last = lastLocation;
+          if (last != null
+              && last.getAccuracy() == accuracy
+              && last.getLongitude() == longitude
+              && last.getLatitude() == latitude
+              && last.getTime() == time) {
+            return last;
+          }
+          final Location location = new Location("");
+          location.setAccuracy(accuracy);
+          location.setLongitude(longitude);
+          location.setLatitude(latitude);
+          location.setTime(time);
+          lastLocation = location;
+          return location;
+        }
       default:
         return super.readValueOfType(type, buffer);
     }
@@ -349,6 +649,114 @@ class AdMessageCodec extends StandardMessageCodec {
     }
   }
 
+  /**
+   * Writes an ad event as its type, its ad id as an unsigned varint and then its fields, which
+   * keeps the common events with no fields to three or four bytes.
+   */
+  protected void writeAdEvent(ByteArrayOutputStream stream, FlutterAdEvent event) {
+    stream.write(VALUE_AD_EVENT);
+    stream.write(event.type);
+    writeVarint(stream, event.adId);
+    for (Object field : event.fields) {
+      writeValue(stream, field);
+    }
+  }
+
+  /** Whether {@code type} is a type this codec can read, as opposed to one added later. */
+  private static boolean isKnownType(byte type) {
+    final int unsignedType = type & 0xFF;
+    return unsignedType <= LAST_STANDARD_TYPE
+        || (unsignedType >= (VALUE_AD_SIZE & 0xFF) && unsignedType <= (VALUE_FRAMED & 0xFF));
+  }
+
+  private static void writeVarint(ByteArrayOutputStream stream, int value) {
+    while ((value & ~0x7F) != 0) {
+      stream.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    stream.write(value);
+  }
+
+  private static int readVarint(ByteBuffer buffer) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  private static int fieldCountOf(byte eventType) {
+    switch (eventType) {
+      case FlutterAdEvent.AD_LOADED:
+      case FlutterAdEvent.AD_FAILED_TO_LOAD:
+      case FlutterAdEvent.REWARDED_AD_USER_EARNED_REWARD:
+      case FlutterAdEvent.FAILED_TO_SHOW_FULL_SCREEN_CONTENT:
+      case FlutterAdEvent.FLUID_AD_HEIGHT_CHANGED:
+        return 1;
+      case FlutterAdEvent.APP_EVENT:
+        return 2;
+      case FlutterAdEvent.PAID_EVENT:
+        return 3;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Reads an int written by {@link StandardMessageCodec} without boxing it. Other number types are
+   * read by {@link #readValueOfType} and converted.
+   */
+  private int readInt(ByteBuffer buffer) {
+    final byte type = buffer.get();
+    if (type == STANDARD_INT) {
+      return buffer.getInt();
+    }
+    return ((Number) readValueOfType(type, buffer)).intValue();
+  }
+
+  /** Reads a long, which Dart writes as an int when it fits, without boxing it. */
+  private long readLong(ByteBuffer buffer) {
+    final byte type = buffer.get();
+    switch (type) {
+      case STANDARD_INT:
+        return buffer.getInt();
+      case STANDARD_LONG:
+        return buffer.getLong();
+      default:
+        return ((Number) readValueOfType(type, buffer)).longValue();
+    }
+  }
+
+  /** Reads a double without boxing it. */
+  private double readDouble(ByteBuffer buffer) {
+    final byte type = buffer.get();
+    if (type == STANDARD_DOUBLE) {
+      readAlignment(buffer, 8);
+      return buffer.getDouble();
+    }
+    return ((Number) readValueOfType(type, buffer)).doubleValue();
+  }
+
+  /** Reads a nullable boolean as one of the shared {@link Boolean} instances. */
+  @Nullable
+  private Boolean readBoolean(ByteBuffer buffer) {
+    final byte type = buffer.get();
+    switch (type) {
+      case STANDARD_NULL:
+        return null;
+      case STANDARD_TRUE:
+        return Boolean.TRUE;
+      case STANDARD_FALSE:
+        return Boolean.FALSE;
+      default:
+        return (Boolean) readValueOfType(type, buffer);
+    }
+  }
+
   @Nullable
   private static Boolean booleanValueOf(@Nullable Object object) {
     if (object == null) {
@@ -0,0 +1,78 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link StandardMethodCodec} that encodes method calls and successful results, the messages
+ * sent for every ad event and most replies, with streams and buffers from an {@link
+ * EncodeBufferPool} instead of allocating a new stream and a new direct buffer for each one.
+ *
+ * <p>The encoded bytes are the same as {@link StandardMethodCodec}'s, except that method calls may
+ * use the string dictionary of {@link AdMessageCodec#writeMethodCall}. Error envelopes are rare and
+ * still encoded by {@link StandardMethodCodec}. An error reply to a method call resets the string
+ * dictionary.
+ */
+class AdMethodCodec extends StandardMethodCodec {
+  // The envelope markers written by StandardMethodCodec.
+  private static final int SUCCESS = 0;
+  private static final int ERROR = 1;
+
+  @NonNull private final AdMessageCodec messageCodec;
+  @NonNull private final EncodeBufferPool pool;
+
+  AdMethodCodec(@NonNull AdMessageCodec messageCodec, @NonNull EncodeBufferPool pool) {
+    super(messageCodec);
+    this.messageCodec = messageCodec;
+    this.pool = pool;
+  }
+
+  @Override
+  public ByteBuffer encodeMethodCall(MethodCall methodCall) {
+    final EncodeBufferPool.Stream stream = pool.acquireStream();
+    try {
+      messageCodec.writeMethodCall(stream, methodCall.method, methodCall.arguments);
+    } catch (RuntimeException e) {
+      pool.release(stream);
+      throw e;
+    }
+    return pool.toBuffer(stream);
+  }
+
+  @Override
+  public ByteBuffer encodeSuccessEnvelope(Object result) {
+    final EncodeBufferPool.Stream stream = pool.acquireStream();
+    try {
+      stream.write(SUCCESS);
+      messageCodec.writeValue(stream, result);
+    } catch (RuntimeException e) {
+      pool.release(stream);
+      throw e;
+    }
+    return pool.toBuffer(stream);
+  }
+
+  @Override
+  public Object decodeEnvelope(ByteBuffer envelope) {
+    if (envelope.get(envelope.position()) == ERROR) {
+      messageCodec.resetStringDictionary();
+    }
+    return super.decodeEnvelope(envelope);
+  }
+}
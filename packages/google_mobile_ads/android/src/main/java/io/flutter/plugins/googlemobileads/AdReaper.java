@@ -0,0 +1,227 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.os.SystemClock;
+import android.util.SparseArray;
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds tracked ads that Dart most likely leaked, so {@link AdInstanceManager} can dispose them.
+ *
+ * <p>Each tracked ad has a lifecycle state, updated from its events. An ad is reaped once it has
+ * stayed in one of these states for longer than the state's time to live:
+ *
+ * <ul>
+ *   <li>{@link #STATE_FAILED}: the ad failed to load.
+ *   <li>{@link #STATE_DISMISSED}: a full screen ad was dismissed or failed to show.
+ *   <li>{@link #STATE_LOADED} for full screen ads only: the ad loaded but was never shown.
+ * </ul>
+ *
+ * <p>Every time to live starts out as {@link #TTL_DISABLED}, so nothing is reaped unless Dart
+ * opts in. Ads are checked on the main thread every shortest enabled time to live, so an ad is
+ * reaped between one and two times to live after entering its state.
+ *
+ * <p>State changes may be reported from any thread.
+ */
+class AdReaper {
+  static final int STATE_LOADING = 0;
+  static final int STATE_LOADED = 1;
+  static final int STATE_FAILED = 2;
+  static final int STATE_SHOWING = 3;
+  static final int STATE_DISMISSED = 4;
+
+  /** Time to live that never reaps ads in a state. */
+  static final long TTL_DISABLED = -1;
+
+  private static final int REAPED_FAILED = 0;
+  private static final int REAPED_DISMISSED = 1;
+  private static final int REAPED_NEVER_SHOWN = 2;
+
+  /** Disposes and untracks an ad chosen for reaping. Called on the main thread. */
+  interface OnReapListener {
+    void onReap(int adId);
+  }
+
+  private static class Entry {
+    final boolean isFullScreen;
+    int state = STATE_LOADING;
+    long sinceMillis = SystemClock.uptimeMillis();
+
+    Entry(boolean isFullScreen) {
+      this.isFullScreen = isFullScreen;
+    }
+  }
+
+  @NonNull private final MainThreadDispatcher dispatcher;
+  @NonNull private final OnReapListener listener;
+  // Guarded by itself.
+  @NonNull private final SparseArray<Entry> entries = new SparseArray<>();
+  @NonNull private final AtomicLongArray reapedCounts = new AtomicLongArray(3);
+
+  // Only accessed on the main thread.
+  private long failedTtlMillis = TTL_DISABLED;
+  private long dismissedTtlMillis = TTL_DISABLED;
+  private long neverShownTtlMillis = TTL_DISABLED;
+
+  private final Runnable sweepRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          sweep();
+          final long interval = sweepIntervalMillis();
+          if (interval > 0) {
+            dispatcher.postDelayed(this, interval);
+          }
+        }
+      };
+
+  AdReaper(@NonNull MainThreadDispatcher dispatcher, @NonNull OnReapListener listener) {
+    this.dispatcher = dispatcher;
+    this.listener = listener;
+  }
+
+  /**
+   * Sets how long ads may stay failed, dismissed, or loaded and never shown before they are
+   * reaped. Use {@link #TTL_DISABLED} to never reap ads in a state. Must be called on the main
+   * thread.
+   */
+  void setTtls(long failedTtlMillis, long dismissedTtlMillis, long neverShownTtlMillis) {
+    checkTtl(failedTtlMillis);
+    checkTtl(dismissedTtlMillis);
+    checkTtl(neverShownTtlMillis);
+    this.failedTtlMillis = failedTtlMillis;
+    this.dismissedTtlMillis = dismissedTtlMillis;
+    this.neverShownTtlMillis = neverShownTtlMillis;
+    dispatcher.cancel(sweepRunnable);
+    final long interval = sweepIntervalMillis();
+    if (interval > 0) {
+      dispatcher.postDelayed(sweepRunnable, interval);
+    }
+  }
+
+  /** Starts following the lifecycle of a newly tracked ad. */
+  void onTracked(int adId, boolean isFullScreen) {
+    synchronized (entries) {
+      entries.put(adId, new Entry(isFullScreen));
+    }
+  }
+
+  /** Records that the ad tracked with {@code adId} entered {@code state}. */
+  void onStateChanged(int adId, int state) {
+    synchronized (entries) {
+      final Entry entry = entries.get(adId);
+      if (entry != null && entry.state != state) {
+        entry.state = state;
+        entry.sinceMillis = SystemClock.uptimeMillis();
+      }
+    }
+  }
+
+  /** Stops following the ad tracked with {@code adId}. */
+  void onUntracked(int adId) {
+    synchronized (entries) {
+      entries.remove(adId);
+    }
+  }
+
+  /** Stops following every ad. */
+  void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /** Returns how many ads were reaped, keyed by the state they were reaped in. */
+  @NonNull
+  Map<String, Object> getReapedCounts() {
+    final Map<String, Object> counts = new HashMap<>();
+    counts.put("failed", reapedCounts.get(REAPED_FAILED));
+    counts.put("dismissed", reapedCounts.get(REAPED_DISMISSED));
+    counts.put("neverShown", reapedCounts.get(REAPED_NEVER_SHOWN));
+    return counts;
+  }
+
+  /** Reaps every ad whose time to live has passed. Must be called on the main thread. */
+  void sweep() {
+    final long now = SystemClock.uptimeMillis();
+    final int[] expiredIds;
+    final int[] expiredReasons;
+    int expiredCount = 0;
+    synchronized (entries) {
+      expiredIds = new int[entries.size()];
+      expiredReasons = new int[entries.size()];
+      for (int i = 0; i < entries.size(); i++) {
+        final Entry entry = entries.valueAt(i);
+        final int reason = reapReasonOf(entry);
+        if (reason >= 0 && now - entry.sinceMillis >= ttlOf(reason)) {
+          expiredIds[expiredCount] = entries.keyAt(i);
+          expiredReasons[expiredCount] = reason;
+          expiredCount++;
+        }
+      }
+    }
+    // Reap outside the lock, since disposing an ad calls back into onUntracked.
+    for (int i = 0; i < expiredCount; i++) {
+      reapedCounts.incrementAndGet(expiredReasons[i]);
+      listener.onReap(expiredIds[i]);
+    }
+  }
+
+  /** Returns why {@code entry} may be reaped, or -1 if its state is never reaped. */
+  private int reapReasonOf(@NonNull Entry entry) {
+    if (entry.state == STATE_FAILED && failedTtlMillis != TTL_DISABLED) {
+      return REAPED_FAILED;
+    } else if (entry.state == STATE_DISMISSED && dismissedTtlMillis != TTL_DISABLED) {
+      return REAPED_DISMISSED;
+    } else if (entry.state == STATE_LOADED
+        && entry.isFullScreen
+        && neverShownTtlMillis != TTL_DISABLED) {
+      return REAPED_NEVER_SHOWN;
+    }
+    return -1;
+  }
+
+  private long ttlOf(int reason) {
+    switch (reason) {
+      case REAPED_FAILED:
+        return failedTtlMillis;
+      case REAPED_DISMISSED:
+        return dismissedTtlMillis;
+      default:
+        return neverShownTtlMillis;
+    }
+  }
+
+  /** The shortest enabled time to live, or {@link #TTL_DISABLED} if every state is disabled. */
+  private long sweepIntervalMillis() {
+    long interval = TTL_DISABLED;
+    for (long ttl : new long[] {failedTtlMillis, dismissedTtlMillis, neverShownTtlMillis}) {
+      if (ttl != TTL_DISABLED && (interval == TTL_DISABLED || ttl < interval)) {
+        interval = ttl;
+      }
+    }
+    return interval;
+  }
+
+  private static void checkTtl(long ttlMillis) {
+    if (ttlMillis <= 0 && ttlMillis != TTL_DISABLED) {
+      throw new IllegalArgumentException("Time to live must be positive: " + ttlMillis);
+    }
+  }
+}
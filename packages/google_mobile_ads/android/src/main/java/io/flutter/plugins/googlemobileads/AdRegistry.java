@@ -0,0 +1,210 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks {@link FlutterAd}s by the id assigned to them in Dart.
+ *
+ * <p>Ads are stored in an open addressing table keyed by the primitive id, so looking up an ad by
+ * id doesn't box. A reverse index keyed by ad identity makes {@link #idFor(FlutterAd)} constant
+ * time instead of a scan over every tracked ad. Neither lookup allocates.
+ *
+ * <p>Each ad also has an event mask, with bit {@code 1 << type} set for every {@link
+ * FlutterAdEvent} type Dart wants for it.
+ *
+ * <p>This class isn't thread safe. {@link AdInstanceManager} never mutates a registry after
+ * publishing it, and instead replaces it with a modified copy.
+ */
+class AdRegistry {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] keys;
+  private FlutterAd[] values;
+  private int[] eventMasks;
+  private int size;
+
+  @NonNull private final Map<FlutterAd, Integer> ids = new IdentityHashMap<>();
+
+  AdRegistry() {
+    keys = new int[DEFAULT_CAPACITY];
+    values = new FlutterAd[DEFAULT_CAPACITY];
+    eventMasks = new int[DEFAULT_CAPACITY];
+  }
+
+  /** Creates a registry tracking the same ads as {@code other}. */
+  AdRegistry(@NonNull AdRegistry other) {
+    keys = other.keys.clone();
+    values = other.values.clone();
+    eventMasks = other.eventMasks.clone();
+    size = other.size;
+    ids.putAll(other.ids);
+  }
+
+  /** Number of tracked ads. */
+  int size() {
+    return size;
+  }
+
+  /** Returns the ad tracked for {@code adId}, or null if there is none. */
+  @Nullable
+  FlutterAd get(int adId) {
+    final int i = indexOf(adId);
+    return i < 0 ? null : values[i];
+  }
+
+  /**
+   * Returns the event mask of the ad tracked for {@code adId}, or {@link
+   * FlutterAdEvent#ALL_TYPES_MASK} if there is none.
+   */
+  int eventMask(int adId) {
+    final int i = indexOf(adId);
+    return i < 0 ? FlutterAdEvent.ALL_TYPES_MASK : eventMasks[i];
+  }
+
+  /** Returns the id {@code ad} is tracked with, or null if it isn't tracked. */
+  @Nullable
+  Integer idFor(@NonNull FlutterAd ad) {
+    return ids.get(ad);
+  }
+
+  /**
+   * Tracks {@code ad} with {@code adId}, sending it every event type.
+   *
+   * @throws IllegalArgumentException if an ad is already tracked for {@code adId}.
+   */
+  void put(int adId, @NonNull FlutterAd ad) {
+    put(adId, ad, FlutterAdEvent.ALL_TYPES_MASK);
+  }
+
+  /**
+   * Tracks {@code ad} with {@code adId}, sending it only the event types in {@code eventMask}.
+   *
+   * @throws IllegalArgumentException if an ad is already tracked for {@code adId}.
+   */
+  void put(int adId, @NonNull FlutterAd ad, int eventMask) {
+    if (get(adId) != null) {
+      throw new IllegalArgumentException(
+          String.format("Ad for following adId already exists: %d", adId));
+    }
+    if ((size + 1) * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    insert(adId, ad, eventMask);
+    ids.put(ad, adId);
+    size++;
+  }
+
+  /** Stops tracking the ad for {@code adId} and returns it, or null if there was none. */
+  @Nullable
+  FlutterAd remove(int adId) {
+    final int mask = keys.length - 1;
+    int i = hash(adId) & mask;
+    while (values[i] != null && keys[i] != adId) {
+      i = (i + 1) & mask;
+    }
+    final FlutterAd removed = values[i];
+    if (removed == null) {
+      return null;
+    }
+    values[i] = null;
+    size--;
+    ids.remove(removed);
+
+    // Shift later entries of the probe sequence back so lookups never stop at the freed slot.
+    int free = i;
+    for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+      final int home = hash(keys[j]) & mask;
+      final boolean canMove = free <= j ? (home <= free || home > j) : (home <= free && home > j);
+      if (canMove) {
+        keys[free] = keys[j];
+        values[free] = values[j];
+        eventMasks[free] = eventMasks[j];
+        values[j] = null;
+        free = j;
+      }
+    }
+    return removed;
+  }
+
+  /** Every tracked ad, in no particular order. */
+  @NonNull
+  List<FlutterAd> values() {
+    final List<FlutterAd> result = new ArrayList<>(size);
+    for (FlutterAd value : values) {
+      if (value != null) {
+        result.add(value);
+      }
+    }
+    return result;
+  }
+
+  /** Stops tracking every ad. */
+  void clear() {
+    keys = new int[DEFAULT_CAPACITY];
+    values = new FlutterAd[DEFAULT_CAPACITY];
+    eventMasks = new int[DEFAULT_CAPACITY];
+    ids.clear();
+    size = 0;
+  }
+
+  /** Returns the slot of {@code adId}, or -1 if it isn't tracked. */
+  private int indexOf(int adId) {
+    final int mask = keys.length - 1;
+    for (int i = hash(adId) & mask; values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == adId) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void insert(int adId, @NonNull FlutterAd ad, int eventMask) {
+    final int mask = keys.length - 1;
+    int i = hash(adId) & mask;
+    while (values[i] != null) {
+      i = (i + 1) & mask;
+    }
+    keys[i] = adId;
+    values[i] = ad;
+    eventMasks[i] = eventMask;
+  }
+
+  private void resize(int capacity) {
+    final int[] oldKeys = keys;
+    final FlutterAd[] oldValues = values;
+    final int[] oldEventMasks = eventMasks;
+    keys = new int[capacity];
+    values = new FlutterAd[capacity];
+    eventMasks = new int[capacity];
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        insert(oldKeys[i], oldValues[i], oldEventMasks[i]);
+      }
+    }
+  }
+
+  /** Spreads sequential ids from Dart across the table. */
+  private static int hash(int adId) {
+    final int h = adId * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
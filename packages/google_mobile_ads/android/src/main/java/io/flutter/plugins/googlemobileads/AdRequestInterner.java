@@ -0,0 +1,89 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Canonicalizes decoded ad requests, so every load made with the same request content shares one
+ * {@link FlutterAdRequest} and with it the SDK request that {@link FlutterAdRequest#asAdRequest()}
+ * and {@link FlutterAdManagerAdRequest#asAdManagerAdRequest()} memoize.
+ *
+ * <p>Requests are matched by {@link FlutterAdRequest#equals(Object)} and its hash code. At most
+ * {@code capacity} requests are kept, evicting the least recently used one.
+ *
+ * <p>This class is thread safe.
+ */
+class AdRequestInterner {
+  static final int DEFAULT_CAPACITY = 32;
+
+  private final int capacity;
+  // Guarded by itself.
+  @NonNull private final LinkedHashMap<FlutterAdRequest, FlutterAdRequest> requests;
+  private long hits;
+  private long misses;
+
+  AdRequestInterner() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  AdRequestInterner(final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.requests =
+        new LinkedHashMap<FlutterAdRequest, FlutterAdRequest>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(
+              Map.Entry<FlutterAdRequest, FlutterAdRequest> eldest) {
+            return size() > capacity;
+          }
+        };
+  }
+
+  /** Returns the interned request with the same content as {@code request}, interning it if new. */
+  @NonNull
+  <T extends FlutterAdRequest> T intern(@NonNull T request) {
+    synchronized (requests) {
+      @SuppressWarnings("unchecked")
+      final T interned = (T) requests.get(request);
+      if (interned != null) {
+        hits++;
+        return interned;
+      }
+      misses++;
+      requests.put(request, request);
+      return request;
+    }
+  }
+
+  /** Returns hit and miss counts, the hit rate, and the number of interned requests. */
+  @NonNull
+  Map<String, Object> getStats() {
+    synchronized (requests) {
+      final Map<String, Object> stats = new HashMap<>();
+      stats.put("hits", hits);
+      stats.put("misses", misses);
+      stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+      stats.put("size", requests.size());
+      stats.put("capacity", capacity);
+      return stats;
+    }
+  }
+}
@@ -29,9 +29,19 @@ import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 
-/** Listens to changes in app foreground/background and forwards events to Flutter. */
+/**
+ * Listens to changes in app foreground/background and forwards events to Flutter.
+ *
+ * <p>A {@link BackgroundListener} can also be notified when the app goes to the background,
+ * whether or not Dart has started listening.
+ */
 final class AppStateNotifier implements LifecycleEventObserver, MethodCallHandler, StreamHandler {
 
+  /** Notified on the main thread when the app goes to the background. */
+  interface BackgroundListener {
+    void onAppBackgrounded();
+  }
+
   private static final String METHOD_CHANNEL_NAME =
       "plugins.flutter.io/google_mobile_ads/app_state_method";
   private static final String EVENT_CHANNEL_NAME =
@@ -41,6 +51,7 @@ final class AppStateNotifier implements LifecycleEventObserver, MethodCallHandle
   @NonNull private EventChannel eventChannel;
   @NonNull private BinaryMessenger binaryMessenger;
   @Nullable private EventSink events;
+  @Nullable private LifecycleEventObserver backgroundObserver;
 
   AppStateNotifier(BinaryMessenger binaryMessenger) {
     this.binaryMessenger = binaryMessenger;
@@ -50,6 +61,46 @@ final class AppStateNotifier implements LifecycleEventObserver, MethodCallHandle
     eventChannel.setStreamHandler(this);
   }
 
+  /**
+   * Moves the channels to {@code binaryMessenger}, the messenger of the engine the plugin was
+   * attached to again. The background listener is kept, and app state events are sent once Dart
+   * listens on the new engine.
+   */
+  void setBinaryMessenger(@NonNull BinaryMessenger binaryMessenger) {
+    methodChannel.setMethodCallHandler(null);
+    eventChannel.setStreamHandler(null);
+    events = null;
+    this.binaryMessenger = binaryMessenger;
+    methodChannel = new MethodChannel(binaryMessenger, METHOD_CHANNEL_NAME);
+    methodChannel.setMethodCallHandler(this);
+    eventChannel = new EventChannel(binaryMessenger, EVENT_CHANNEL_NAME);
+    eventChannel.setStreamHandler(this);
+  }
+
+  /**
+   * Sets the listener to notify when the app goes to the background, replacing any previous one.
+   * Must be called on the main thread.
+   */
+  void setBackgroundListener(@Nullable final BackgroundListener backgroundListener) {
+    if (backgroundObserver != null) {
+      ProcessLifecycleOwner.get().getLifecycle().removeObserver(backgroundObserver);
+      backgroundObserver = null;
+    }
+    if (backgroundListener == null) {
+      return;
+    }
+    backgroundObserver =
+        new LifecycleEventObserver() {
+          @Override
+          public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Event event) {
+            if (event == Event.ON_STOP) {
+              backgroundListener.onAppBackgrounded();
+            }
+          }
+        };
+    ProcessLifecycleOwner.get().getLifecycle().addObserver(backgroundObserver);
+  }
+
   private void start() {
     ProcessLifecycleOwner.get().getLifecycle().addObserver(this);
   }
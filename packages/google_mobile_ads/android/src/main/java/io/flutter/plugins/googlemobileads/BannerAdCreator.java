@@ -28,6 +28,12 @@ public class BannerAdCreator {
     this.context = context;
   }
 
+  /** Returns the context views are created with. */
+  @NonNull
+  Context getContext() {
+    return context;
+  }
+
   /** Create a new {@link AdManagerAdView}. */
   public AdManagerAdView createAdManagerAdView() {
     return new AdManagerAdView(context);
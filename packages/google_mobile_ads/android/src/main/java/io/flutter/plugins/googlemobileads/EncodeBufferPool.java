@@ -0,0 +1,204 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reusable streams and direct buffers for encoding messages sent on the plugin's method channel.
+ *
+ * <p>{@link AdMethodCodec} encodes each message into a {@link Stream} and copies it into a direct
+ * buffer taken from the pool. {@link PooledBinaryMessenger} gives the buffer back once the
+ * messenger has copied the message to Dart. Buffers are pooled by power of two capacity, from
+ * {@link #MIN_BUFFER_CAPACITY} to {@link #MAX_BUFFER_CAPACITY}. Larger messages use buffers that
+ * aren't pooled.
+ *
+ * <p>New streams start out as large as the largest of the last {@link #HISTORY_SIZE} messages, so
+ * they rarely grow. Once every size in use has a buffer in the pool, encoding allocates nothing
+ * but the values themselves, which {@link #getStats()} can confirm.
+ *
+ * <p>This class is thread safe.
+ */
+class EncodeBufferPool {
+  static final int MIN_BUFFER_CAPACITY = 256;
+  static final int MAX_BUFFER_CAPACITY = 64 * 1024;
+  static final int HISTORY_SIZE = 16;
+
+  private static final int MAX_BUFFERS_PER_CAPACITY = 4;
+  private static final int MAX_STREAMS = 4;
+  private static final int CAPACITY_COUNT =
+      Integer.numberOfTrailingZeros(MAX_BUFFER_CAPACITY)
+          - Integer.numberOfTrailingZeros(MIN_BUFFER_CAPACITY)
+          + 1;
+
+  /** A {@link ByteArrayOutputStream} that exposes its buffer, so it can be read without a copy. */
+  static class Stream extends ByteArrayOutputStream {
+    // Capacity when taken from the pool, to count messages that made the stream grow.
+    private int acquiredCapacity;
+
+    Stream(int size) {
+      super(size);
+    }
+
+    @NonNull
+    byte[] buffer() {
+      return buf;
+    }
+  }
+
+  @NonNull private final Object lock = new Object();
+
+  // Guarded by lock.
+  @NonNull private final ArrayDeque<Stream> streams = new ArrayDeque<>();
+  @NonNull private final ArrayDeque<ByteBuffer>[] buffers;
+  @NonNull private final int[] recentSizes = new int[HISTORY_SIZE];
+  private int nextRecentSize;
+  private long streamsAllocated;
+  private long streamGrowths;
+  private long buffersAllocated;
+  private long buffersReused;
+  private long unpooledBuffersAllocated;
+
+  @SuppressWarnings("unchecked")
+  EncodeBufferPool() {
+    buffers = new ArrayDeque[CAPACITY_COUNT];
+    for (int i = 0; i < CAPACITY_COUNT; i++) {
+      buffers[i] = new ArrayDeque<>();
+    }
+  }
+
+  /** Takes a stream to encode a message into. Give it back with {@link #release(Stream)}. */
+  @NonNull
+  Stream acquireStream() {
+    synchronized (lock) {
+      Stream stream = streams.poll();
+      if (stream == null) {
+        streamsAllocated++;
+        stream = new Stream(suggestedCapacity());
+      }
+      stream.acquiredCapacity = stream.buffer().length;
+      return stream;
+    }
+  }
+
+  /**
+   * Copies the message encoded in {@code stream} into a direct buffer and gives the stream back.
+   * The returned buffer's position is the message size, as {@link
+   * io.flutter.plugin.common.BinaryMessenger} expects.
+   */
+  @NonNull
+  ByteBuffer toBuffer(@NonNull Stream stream) {
+    final int size = stream.size();
+    final ByteBuffer buffer = acquireBuffer(size);
+    buffer.put(stream.buffer(), 0, size);
+    synchronized (lock) {
+      recentSizes[nextRecentSize] = size;
+      nextRecentSize = (nextRecentSize + 1) % HISTORY_SIZE;
+      if (stream.buffer().length != stream.acquiredCapacity) {
+        streamGrowths++;
+      }
+    }
+    release(stream);
+    return buffer;
+  }
+
+  /** Gives back a stream taken with {@link #acquireStream()}. */
+  void release(@NonNull Stream stream) {
+    synchronized (lock) {
+      // Drop streams grown by an unusually large message instead of keeping their memory.
+      if (streams.size() < MAX_STREAMS && stream.buffer().length <= MAX_BUFFER_CAPACITY) {
+        stream.reset();
+        streams.push(stream);
+      }
+    }
+  }
+
+  /** Gives back a buffer once its message has been sent. Buffers not from this pool are ignored. */
+  void release(@NonNull ByteBuffer buffer) {
+    final int index = indexOf(buffer.capacity());
+    if (!buffer.isDirect() || index < 0) {
+      return;
+    }
+    synchronized (lock) {
+      if (buffers[index].size() < MAX_BUFFERS_PER_CAPACITY) {
+        buffer.clear();
+        buffers[index].push(buffer);
+      }
+    }
+  }
+
+  /** Returns how many streams and buffers were allocated and reused. */
+  @NonNull
+  Map<String, Object> getStats() {
+    synchronized (lock) {
+      final Map<String, Object> stats = new HashMap<>();
+      stats.put("streamsAllocated", streamsAllocated);
+      stats.put("streamGrowths", streamGrowths);
+      stats.put("buffersAllocated", buffersAllocated);
+      stats.put("buffersReused", buffersReused);
+      stats.put("unpooledBuffersAllocated", unpooledBuffersAllocated);
+      return stats;
+    }
+  }
+
+  @NonNull
+  private ByteBuffer acquireBuffer(int size) {
+    final int capacity = Math.max(MIN_BUFFER_CAPACITY, roundUpToPowerOfTwo(size));
+    final int index = indexOf(capacity);
+    synchronized (lock) {
+      if (index < 0) {
+        unpooledBuffersAllocated++;
+        return ByteBuffer.allocateDirect(size);
+      }
+      final ByteBuffer pooled = buffers[index].poll();
+      if (pooled != null) {
+        buffersReused++;
+        return pooled;
+      }
+      buffersAllocated++;
+    }
+    return ByteBuffer.allocateDirect(capacity);
+  }
+
+  // Guarded by lock.
+  private int suggestedCapacity() {
+    int largest = 0;
+    for (int size : recentSizes) {
+      largest = Math.max(largest, size);
+    }
+    return Math.min(
+        MAX_BUFFER_CAPACITY, Math.max(MIN_BUFFER_CAPACITY, roundUpToPowerOfTwo(largest)));
+  }
+
+  /** Returns the pool index of a buffer with {@code capacity}, or -1 if it isn't pooled. */
+  private static int indexOf(int capacity) {
+    if (capacity < MIN_BUFFER_CAPACITY
+        || capacity > MAX_BUFFER_CAPACITY
+        || Integer.bitCount(capacity) != 1) {
+      return -1;
+    }
+    return Integer.numberOfTrailingZeros(capacity)
+        - Integer.numberOfTrailingZeros(MIN_BUFFER_CAPACITY);
+  }
+
+  private static int roundUpToPowerOfTwo(int value) {
+    return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+}
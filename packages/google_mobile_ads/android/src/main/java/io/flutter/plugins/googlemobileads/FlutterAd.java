@@ -25,6 +25,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * Base class of the native counterparts of ads created in Dart.
+ *
+ * <p>Threading: the plugin calls {@link #load()}, {@link #dispose()}, {@link #getPlatformView()}
+ * and the methods that show an ad on the main thread, and the SDK delivers load, ad listener, full
+ * screen content, app event and reward callbacks there too. The views and loaded ads kept by
+ * subclasses are therefore confined to the main thread and need no synchronization. Paid events
+ * are the only callbacks that may arrive on an SDK thread. They only pass the ad to {@link
+ * AdInstanceManager}, which may be called from any thread.
+ */
 abstract class FlutterAd {
 
   protected final int adId;
@@ -44,21 +54,25 @@ abstract class FlutterAd {
     }
   }
 
-  /** A wrapper around {@link ResponseInfo}. */
+  /**
+   * A wrapper around {@link ResponseInfo}.
+   *
+   * <p>When wrapping an SDK {@link ResponseInfo}, the adapter responses are only converted the
+   * first time they are read, since their descriptions and credentials are costly to build.
+   */
   static class FlutterResponseInfo {
 
     @Nullable private final String responseId;
     @Nullable private final String mediationAdapterClassName;
-    @NonNull private final List<FlutterAdapterResponseInfo> adapterResponses;
+    // Guarded by this. Null until converted from responseInfo.
+    @Nullable private List<FlutterAdapterResponseInfo> adapterResponses;
+    // Guarded by this. Cleared once the adapter responses have been converted.
+    @Nullable private ResponseInfo responseInfo;
 
     FlutterResponseInfo(@NonNull ResponseInfo responseInfo) {
       this.responseId = responseInfo.getResponseId();
       this.mediationAdapterClassName = responseInfo.getMediationAdapterClassName();
-      final List<FlutterAdapterResponseInfo> adapterResponseInfos = new ArrayList<>();
-      for (AdapterResponseInfo adapterInfo : responseInfo.getAdapterResponses()) {
-        adapterResponseInfos.add(new FlutterAdapterResponseInfo(adapterInfo));
-      }
-      this.adapterResponses = adapterResponseInfos;
+      this.responseInfo = responseInfo;
     }
 
     FlutterResponseInfo(
@@ -70,6 +84,13 @@ abstract class FlutterAd {
       this.adapterResponses = adapterResponseInfos;
     }
 
+    /** Returns a copy with the same ids and no adapter responses. */
+    @NonNull
+    FlutterResponseInfo withoutAdapterResponses() {
+      return new FlutterResponseInfo(
+          responseId, mediationAdapterClassName, new ArrayList<FlutterAdapterResponseInfo>());
+    }
+
     @Nullable
     String getResponseId() {
       return responseId;
@@ -81,7 +102,15 @@ abstract class FlutterAd {
     }
 
     @NonNull
-    List<FlutterAdapterResponseInfo> getAdapterResponses() {
+    synchronized List<FlutterAdapterResponseInfo> getAdapterResponses() {
+      if (adapterResponses == null) {
+        final List<FlutterAdapterResponseInfo> adapterResponseInfos = new ArrayList<>();
+        for (AdapterResponseInfo adapterInfo : responseInfo.getAdapterResponses()) {
+          adapterResponseInfos.add(new FlutterAdapterResponseInfo(adapterInfo));
+        }
+        adapterResponses = adapterResponseInfos;
+        responseInfo = null;
+      }
       return adapterResponses;
     }
 
@@ -96,7 +125,7 @@ abstract class FlutterAd {
       FlutterResponseInfo that = (FlutterResponseInfo) obj;
       return Objects.equals(responseId, that.responseId)
           && Objects.equals(mediationAdapterClassName, that.mediationAdapterClassName)
-          && Objects.equals(adapterResponses, that.adapterResponses);
+          && Objects.equals(getAdapterResponses(), that.getAdapterResponses());
     }
 
     @Override
@@ -285,6 +314,10 @@ abstract class FlutterAd {
 
   abstract void load();
 
+  /** The ad unit id the ad was loaded with. */
+  @NonNull
+  abstract String getAdUnitId();
+
   /**
    * Gets the PlatformView for the ad. Default behavior is to return null. Should be overridden by
    * ads with platform views, such as banner and native ads.
@@ -0,0 +1,130 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * An ad lifecycle event sent to Dart.
+ *
+ * <p>{@link AdMessageCodec} encodes an event as its type, its ad id and then its fields in a fixed
+ * order, instead of as a map with a string key for every value. The type values and the order of
+ * the fields for each type must be consistent with the Dart decoder.
+ */
+final class FlutterAdEvent {
+  // Fields: responseInfo.
+  static final byte AD_LOADED = 0;
+  // Fields: loadAdError.
+  static final byte AD_FAILED_TO_LOAD = 1;
+  // Fields: name, data.
+  static final byte APP_EVENT = 2;
+  static final byte AD_IMPRESSION = 3;
+  static final byte NATIVE_AD_CLICKED = 4;
+  static final byte AD_OPENED = 5;
+  static final byte AD_CLOSED = 6;
+  // Fields: rewardItem.
+  static final byte REWARDED_AD_USER_EARNED_REWARD = 7;
+  // Fields: valueMicros, precision, currencyCode.
+  static final byte PAID_EVENT = 8;
+  // Fields: error.
+  static final byte FAILED_TO_SHOW_FULL_SCREEN_CONTENT = 9;
+  static final byte AD_SHOWED_FULL_SCREEN_CONTENT = 10;
+  static final byte AD_DISMISSED_FULL_SCREEN_CONTENT = 11;
+  static final byte AD_METADATA_CHANGED = 12;
+  // Fields: height.
+  static final byte FLUID_AD_HEIGHT_CHANGED = 13;
+  // Sent after AdReaper disposed an ad that Dart leaked.
+  static final byte AD_REAPED = 14;
+
+  /** Number of event types. */
+  static final int TYPE_COUNT = 15;
+
+  /** An event mask with the bit {@code 1 << type} set for every event type. */
+  static final int ALL_TYPES_MASK = (1 << TYPE_COUNT) - 1;
+
+  /** Event names indexed by type, matching the names Dart dispatches on. */
+  static final String[] NAMES = {
+    "onAdLoaded",
+    "onAdFailedToLoad",
+    "onAppEvent",
+    "onAdImpression",
+    "onNativeAdClicked",
+    "onAdOpened",
+    "onAdClosed",
+    "onRewardedAdUserEarnedReward",
+    "onPaidEvent",
+    "onFailedToShowFullScreenContent",
+    "onAdShowedFullScreenContent",
+    "onAdDismissedFullScreenContent",
+    "onAdMetadataChanged",
+    "onFluidAdHeightChanged",
+    "onAdReaped",
+  };
+
+  private static final Object[] NO_FIELDS = new Object[0];
+
+  final byte type;
+  final int adId;
+  @NonNull final Object[] fields;
+
+  /** When the event was raised, from {@link System#nanoTime()}. Not sent to Dart. */
+  final long createdAtNanos;
+
+  /**
+   * The {@link AdEventMetrics} format of the ad, set when the event is queued. Not sent to Dart.
+   */
+  int adFormat = AdEventMetrics.FORMAT_UNKNOWN;
+
+  FlutterAdEvent(byte type, int adId) {
+    this(type, adId, NO_FIELDS);
+  }
+
+  FlutterAdEvent(byte type, int adId, @NonNull Object... fields) {
+    this.type = type;
+    this.adId = adId;
+    this.fields = fields;
+    this.createdAtNanos = System.nanoTime();
+  }
+
+  @Override
+  public boolean equals(@Nullable Object object) {
+    if (this == object) {
+      return true;
+    } else if (!(object instanceof FlutterAdEvent)) {
+      return false;
+    }
+
+    final FlutterAdEvent that = (FlutterAdEvent) object;
+    return type == that.type && adId == that.adId && Arrays.equals(fields, that.fields);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * type + adId) + Arrays.hashCode(fields);
+  }
+
+  @Override
+  public String toString() {
+    return "FlutterAdEvent{type="
+        + type
+        + ", adId="
+        + adId
+        + ", fields="
+        + Arrays.toString(fields)
+        + '}';
+  }
+}
@@ -42,6 +42,12 @@ public class FlutterAdLoader {
     this.context = context;
   }
 
+  /** Returns the context loads use. */
+  @NonNull
+  Context getContext() {
+    return context;
+  }
+
   /** Load an app open ad. */
   public void loadAppOpen(
       @NonNull String adUnitId,
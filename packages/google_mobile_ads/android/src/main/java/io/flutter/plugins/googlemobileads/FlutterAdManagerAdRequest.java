@@ -29,9 +29,11 @@ import java.util.Objects;
  */
 class FlutterAdManagerAdRequest extends FlutterAdRequest {
 
-  @Nullable private Map<String, String> customTargeting;
-  @Nullable private Map<String, List<String>> customTargetingLists;
-  @Nullable private String publisherProvidedId;
+  @Nullable private final Map<String, String> customTargeting;
+  @Nullable private final Map<String, List<String>> customTargetingLists;
+  @Nullable private final String publisherProvidedId;
+  // Built on first use, like FlutterAdRequest#asAdRequest.
+  @Nullable private volatile AdManagerAdRequest adManagerAdRequest;
 
   static class Builder extends FlutterAdRequest.Builder {
 
@@ -92,6 +94,15 @@ class FlutterAdManagerAdRequest extends FlutterAdRequest {
   }
 
   AdManagerAdRequest asAdManagerAdRequest() {
+    AdManagerAdRequest request = adManagerAdRequest;
+    if (request == null) {
+      request = buildAdManagerAdRequest();
+      adManagerAdRequest = request;
+    }
+    return request;
+  }
+
+  private AdManagerAdRequest buildAdManagerAdRequest() {
     final AdManagerAdRequest.Builder builder = new AdManagerAdRequest.Builder();
     if (getKeywords() != null) {
       for (final String keyword : getKeywords()) {
@@ -153,11 +164,13 @@ class FlutterAdManagerAdRequest extends FlutterAdRequest {
     FlutterAdManagerAdRequest request = (FlutterAdManagerAdRequest) o;
     return super.equals(o)
         && Objects.equals(customTargeting, request.customTargeting)
-        && Objects.equals(customTargetingLists, request.customTargetingLists);
+        && Objects.equals(customTargetingLists, request.customTargetingLists)
+        && Objects.equals(publisherProvidedId, request.publisherProvidedId);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), customTargeting, customTargetingLists);
+    return Objects.hash(
+        super.hashCode(), customTargeting, customTargetingLists, publisherProvidedId);
   }
 }
@@ -65,6 +65,12 @@ class FlutterAdManagerBannerAd extends FlutterAd implements FlutterAdLoadedListe
     this.bannerAdCreator = bannerAdCreator;
   }
 
+  @Override
+  @NonNull
+  String getAdUnitId() {
+    return adUnitId;
+  }
+
   @Override
   void load() {
     adView = bannerAdCreator.createAdManagerAdView();
@@ -55,6 +55,12 @@ class FlutterAdManagerInterstitialAd extends FlutterAd.FlutterOverlayAd {
     this.flutterAdLoader = flutterAdLoader;
   }
 
+  @Override
+  @NonNull
+  String getAdUnitId() {
+    return adUnitId;
+  }
+
   @Override
   void load() {
     flutterAdLoader.loadAdManagerInterstitial(
@@ -29,6 +29,8 @@ class FlutterAdRequest {
   @Nullable private final List<String> neighboringContentUrls;
   @Nullable private final Integer httpTimeoutMillis;
   @Nullable private final Location location;
+  // Built on first use. Requests are immutable, so the SDK request can be reused for every load.
+  @Nullable private volatile AdRequest adRequest;
 
   protected static class Builder {
     @Nullable private List<String> keywords;
@@ -125,6 +127,15 @@ class FlutterAdRequest {
   }
 
   AdRequest asAdRequest() {
+    AdRequest request = adRequest;
+    if (request == null) {
+      request = buildAdRequest();
+      adRequest = request;
+    }
+    return request;
+  }
+
+  private AdRequest buildAdRequest() {
     final AdRequest.Builder builder = new AdRequest.Builder();
 
     if (keywords != null) {
@@ -187,7 +198,8 @@ class FlutterAdRequest {
   public boolean equals(Object o) {
     if (this == o) {
       return true;
-    } else if (!(o instanceof FlutterAdRequest)) {
+    } else if (o == null || getClass() != o.getClass()) {
+      // A FlutterAdManagerAdRequest never equals a FlutterAdRequest.
       return false;
     }
 
@@ -214,6 +226,10 @@ class FlutterAdRequest {
         nonPersonalizedAds,
         neighboringContentUrls,
         httpTimeoutMillis,
-        location);
+        // Location doesn't override hashCode, so hash the properties compared by equals.
+        location == null ? null : location.getAccuracy(),
+        location == null ? null : location.getLongitude(),
+        location == null ? null : location.getLatitude(),
+        location == null ? null : location.getTime());
   }
 }
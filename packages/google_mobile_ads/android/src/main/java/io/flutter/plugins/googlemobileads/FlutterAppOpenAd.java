@@ -56,6 +56,12 @@ class FlutterAppOpenAd extends FlutterAd.FlutterOverlayAd {
     this.flutterAdLoader = flutterAdLoader;
   }
 
+  @Override
+  @NonNull
+  String getAdUnitId() {
+    return adUnitId;
+  }
+
   @Override
   void load() {
     if (request != null) {
@@ -20,6 +20,7 @@ import com.google.android.gms.ads.AdView;
 import io.flutter.plugin.platform.PlatformView;
 import io.flutter.util.Preconditions;
 
+import android.app.Activity;
 import android.content.res.Configuration;
 import android.os.Bundle;
 import android.util.DisplayMetrics;
@@ -68,7 +69,8 @@ class FlutterBannerAd extends FlutterAd implements FlutterAdLoadedListener {
 
   private AdSize getFullAdSize() {
     // Step 2 - Determine the screen width (less decorations) to use for the ad width.
-    Display display = manager.activity.getWindowManager().getDefaultDisplay();
+    final Activity activity = manager.getActivity();
+    Display display = activity.getWindowManager().getDefaultDisplay();
     DisplayMetrics outMetrics = new DisplayMetrics();
     display.getMetrics(outMetrics);
 
@@ -78,7 +80,13 @@ class FlutterBannerAd extends FlutterAd implements FlutterAdLoadedListener {
     int adWidth = (int) (widthPixels / density);
 
     // Step 3 - Get adaptive ad size and return for setting on the ad view.
-    return AdSize.getCurrentOrientationAnchoredAdaptiveBannerAdSize(manager.activity, adWidth);
+    return AdSize.getCurrentOrientationAnchoredAdaptiveBannerAdSize(activity, adWidth);
+  }
+
+  @Override
+  @NonNull
+  String getAdUnitId() {
+    return adUnitId;
   }
 
   @Override
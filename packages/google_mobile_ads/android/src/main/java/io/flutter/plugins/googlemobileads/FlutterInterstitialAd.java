@@ -44,6 +44,12 @@ class FlutterInterstitialAd extends FlutterAd.FlutterOverlayAd {
     this.flutterAdLoader = flutterAdLoader;
   }
 
+  @Override
+  @NonNull
+  String getAdUnitId() {
+    return adUnitId;
+  }
+
   @Override
   void load() {
     if (manager != null && adUnitId != null && request != null) {
@@ -25,9 +25,17 @@ public class FlutterMobileAdsWrapper {
 
   public FlutterMobileAdsWrapper() {}
 
-  /** Initializes the sdk. */
+  /**
+   * Initializes the sdk. If {@link MobileAdsInitializer} already started initializing it, {@code
+   * listener} is called when that completes instead.
+   */
   public void initialize(
       @NonNull Context context, @NonNull OnInitializationCompleteListener listener) {
+    final StartupInitialization startupInitialization = StartupInitialization.get();
+    if (startupInitialization != null) {
+      startupInitialization.addListener(listener);
+      return;
+    }
     MobileAds.initialize(context, listener);
   }
 
@@ -55,4 +63,9 @@ public class FlutterMobileAdsWrapper {
   public RequestConfiguration getRequestConfiguration() {
     return MobileAds.getRequestConfiguration();
   }
+
+  /** Wrapper for setRequestConfiguration. */
+  public void setRequestConfiguration(@NonNull RequestConfiguration requestConfiguration) {
+    MobileAds.setRequestConfiguration(requestConfiguration);
+  }
 }
@@ -26,7 +26,11 @@ import io.flutter.plugin.platform.PlatformView;
 import io.flutter.plugins.googlemobileads.GoogleMobileAdsPlugin.NativeAdFactory;
 import java.util.Map;
 
-/** A wrapper for {@link NativeAd}. */
+/**
+ * A wrapper for {@link NativeAd}.
+ *
+ * <p>The {@link NativeAdFactory} is only called on the main thread.
+ */
 class FlutterNativeAd extends FlutterAd {
   private static final String TAG = "FlutterNativeAd";
 
@@ -173,6 +177,12 @@ class FlutterNativeAd extends FlutterAd {
     this.nativeAdOptions = nativeAdOptions;
   }
 
+  @Override
+  @NonNull
+  String getAdUnitId() {
+    return adUnitId;
+  }
+
   @Override
   void load() {
     final OnNativeAdLoadedListener loadedListener = new FlutterNativeAdLoadedListener(this);
@@ -104,6 +104,12 @@ class FlutterRewardedAd extends FlutterAd.FlutterOverlayAd {
     this.flutterAdLoader = flutterAdLoader;
   }
 
+  @Override
+  @NonNull
+  String getAdUnitId() {
+    return adUnitId;
+  }
+
   @Override
   void load() {
     final RewardedAdLoadCallback adLoadCallback = new DelegatingRewardedCallback(this);
@@ -20,8 +20,6 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.ads.AdSize;
-import com.google.android.gms.ads.MobileAds;
-import com.google.android.gms.ads.RequestConfiguration;
 import com.google.android.gms.ads.initialization.InitializationStatus;
 import com.google.android.gms.ads.initialization.OnInitializationCompleteListener;
 import com.google.android.gms.ads.nativead.NativeAd;
@@ -30,12 +28,14 @@ import io.flutter.embedding.engine.FlutterEngine;
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
 import io.flutter.embedding.engine.plugins.activity.ActivityAware;
 import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
-import io.flutter.plugin.common.StandardMethodCodec;
 import io.flutter.plugins.googlemobileads.FlutterAd.FlutterOverlayAd;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -60,15 +60,33 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
   @Nullable private FlutterPluginBinding pluginBinding;
   @Nullable private AdInstanceManager instanceManager;
   @Nullable private AdMessageCodec adMessageCodec;
+  @Nullable private EncodeBufferPool encodeBufferPool;
   @Nullable private AppStateNotifier appStateNotifier;
+  // Shared by every load. Both use the application context, so no view holds an activity.
+  @Nullable private FlutterAdLoader flutterAdLoader;
+  @Nullable private BannerAdCreator bannerAdCreator;
+  @NonNull private final MainThreadDispatcher mainThreadDispatcher = new MainThreadDispatcher();
+
+  @NonNull
+  private final InitializationLoadQueue loadQueue =
+      new InitializationLoadQueue(mainThreadDispatcher);
+
   private final Map<String, NativeAdFactory> nativeAdFactories = new HashMap<>();
   private final FlutterMobileAdsWrapper flutterMobileAds;
+  @NonNull private final RequestConfigurationCache requestConfigurations;
+  // The handlers of the methods Dart calls, keyed by method name. Built once, when the plugin is
+  // attached or on the first call if it never was. See createHandlers.
+  @Nullable private Map<String, MethodCallHandler> loadHandlers;
+  @Nullable private Map<String, MethodCallHandler> methodHandlers;
+  @Nullable private MethodCallMetrics methodCallMetrics;
+
   /**
    * Public constructor for the plugin. Dependency initialization is handled in lifecycle methods
    * below.
    */
   public GoogleMobileAdsPlugin() {
     this.flutterMobileAds = new FlutterMobileAdsWrapper();
+    this.requestConfigurations = new RequestConfigurationCache(flutterMobileAds);
   }
 
   /** Constructor for testing. */
@@ -80,6 +98,7 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
     this.pluginBinding = pluginBinding;
     this.instanceManager = instanceManager;
     this.flutterMobileAds = flutterMobileAds;
+    this.requestConfigurations = new RequestConfigurationCache(flutterMobileAds);
   }
 
   /**
@@ -122,6 +141,18 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
     return registerNativeAdFactory(gmaPlugin, factoryId, nativeAdFactory);
   }
 
+  /** Returns the event mask sent with a load call, or every event type if there is none. */
+  private static int eventMaskOf(@NonNull MethodCall call) {
+    final Integer eventMask = call.argument("eventMask");
+    return eventMask == null ? FlutterAdEvent.ALL_TYPES_MASK : eventMask;
+  }
+
+  /** Returns a time to live sent by Dart, where null means ads are never reaped. */
+  private static long ttlArgument(@NonNull MethodCall call, @NonNull String key) {
+    final Integer ttlMillis = call.argument(key);
+    return ttlMillis == null ? AdReaper.TTL_DISABLED : ttlMillis.longValue();
+  }
+
   private static boolean registerNativeAdFactory(
       GoogleMobileAdsPlugin plugin, String factoryId, NativeAdFactory nativeAdFactory) {
     if (plugin == null) {
@@ -176,25 +207,60 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
   @Override
   public void onAttachedToEngine(FlutterPluginBinding binding) {
     pluginBinding = binding;
-    adMessageCodec = new AdMessageCodec(binding.getApplicationContext());
+    final AdMessageCodec codec = new AdMessageCodec(binding.getApplicationContext());
+    adMessageCodec = codec;
+    flutterAdLoader = new FlutterAdLoader(binding.getApplicationContext());
+    bannerAdCreator = new BannerAdCreator(binding.getApplicationContext());
+    encodeBufferPool = new EncodeBufferPool();
+    // Dart may have missed the strings defined by a message it didn't decode.
+    final BinaryMessenger messenger =
+        new PooledBinaryMessenger(
+            binding.getBinaryMessenger(),
+            encodeBufferPool,
+            new Runnable() {
+              @Override
+              public void run() {
+                codec.resetStringDictionary();
+              }
+            });
+    // Decode calls on a background thread. See onMethodCall.
     final MethodChannel channel =
         new MethodChannel(
-            binding.getBinaryMessenger(),
+            messenger,
             "plugins.flutter.io/google_mobile_ads",
-            new StandardMethodCodec(adMessageCodec));
+            new AdMethodCodec(codec, encodeBufferPool),
+            messenger.makeBackgroundTaskQueue());
+    createHandlers();
     channel.setMethodCallHandler(this);
-    instanceManager = new AdInstanceManager(channel);
+    if (instanceManager == null) {
+      instanceManager = new AdInstanceManager(channel, mainThreadDispatcher);
+    } else {
+      // Attached again after onDetachedFromEngine. The ads still report to this manager, so keep it
+      // and replay the events they raised while detached on the new channel.
+      instanceManager.setChannel(channel);
+      instanceManager.resumeEvents();
+    }
     binding
         .getPlatformViewRegistry()
         .registerViewFactory(
             "plugins.flutter.io/google_mobile_ads/ad_widget",
             new GoogleMobileAdsViewFactory(instanceManager));
-    appStateNotifier = new AppStateNotifier(binding.getBinaryMessenger());
+    if (appStateNotifier == null) {
+      appStateNotifier = new AppStateNotifier(binding.getBinaryMessenger());
+    } else {
+      // Reuse the notifier, so its lifecycle observers aren't leaked and the paid event totals are
+      // still sent when the app goes to the background.
+      appStateNotifier.setBinaryMessenger(binding.getBinaryMessenger());
+    }
   }
 
   @Override
   public void onDetachedFromEngine(FlutterPluginBinding binding) {
-    // Do nothing
+    // Keep events raised while detached, to replay them once the plugin is attached to an engine
+    // again, or Dart calls into the plugin again.
+    if (instanceManager != null) {
+      instanceManager.pauseEvents();
+    }
   }
 
   @Override
@@ -202,16 +268,14 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
     if (instanceManager != null) {
       instanceManager.setActivity(binding.getActivity());
     }
-    if (adMessageCodec != null) {
-      adMessageCodec.setContext(binding.getActivity());
-    }
+    setContext(binding.getActivity());
   }
 
   @Override
   public void onDetachedFromActivityForConfigChanges() {
     // Use the application context
-    if (adMessageCodec != null && pluginBinding != null) {
-      adMessageCodec.setContext(pluginBinding.getApplicationContext());
+    if (pluginBinding != null) {
+      setContext(pluginBinding.getApplicationContext());
     }
     if (instanceManager != null) {
       instanceManager.setActivity(null);
@@ -223,268 +287,818 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
     if (instanceManager != null) {
       instanceManager.setActivity(binding.getActivity());
     }
-    if (adMessageCodec != null) {
-      adMessageCodec.setContext(binding.getActivity());
-    }
+    setContext(binding.getActivity());
   }
 
   @Override
   public void onDetachedFromActivity() {
-    if (adMessageCodec != null && pluginBinding != null) {
-      adMessageCodec.setContext(pluginBinding.getApplicationContext());
+    if (pluginBinding != null) {
+      setContext(pluginBinding.getApplicationContext());
     }
     if (instanceManager != null) {
       instanceManager.setActivity(null);
     }
   }
 
+  /**
+   * Sets the context ads are decoded with. Ads are still loaded and their views created with the
+   * application context, so they don't keep an activity alive after a configuration change.
+   */
+  private void setContext(@NonNull Context context) {
+    if (adMessageCodec != null) {
+      adMessageCodec.setContext(context);
+    }
+  }
+
+  /**
+   * Handles a call from Dart on the channel's background task queue, where its arguments were
+   * decoded. The SDK requests of a load are built here too, and the call is then handled on the
+   * main thread, which the SDK and {@link AdInstanceManager} require. The task queue is serial, so
+   * calls still reach the main thread in the order Dart made them.
+   */
   @Override
-  public void onMethodCall(@NonNull MethodCall call, @NonNull final Result result) {
+  public void onMethodCall(@NonNull final MethodCall call, @NonNull final Result result) {
+    final long decodedAtNanos = System.nanoTime();
+    buildAdRequests(call.arguments);
+    mainThreadDispatcher.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            handleMethodCall(call, result, decodedAtNanos);
+          }
+        });
+  }
+
+  /**
+   * Builds the SDK request of every ad request in {@code arguments}, including those of the loads
+   * in a "loadAds" call. Ad requests memoize what they build, so loading on the main thread reuses
+   * it.
+   */
+  private static void buildAdRequests(@Nullable Object arguments) {
+    if (arguments instanceof FlutterAdManagerAdRequest) {
+      ((FlutterAdManagerAdRequest) arguments).asAdManagerAdRequest();
+    } else if (arguments instanceof FlutterAdRequest) {
+      ((FlutterAdRequest) arguments).asAdRequest();
+    } else if (arguments instanceof Map) {
+      for (Object value : ((Map<?, ?>) arguments).values()) {
+        buildAdRequests(value);
+      }
+    } else if (arguments instanceof List) {
+      for (Object value : (List<?>) arguments) {
+        buildAdRequests(value);
+      }
+    }
+  }
+
+  private void handleMethodCall(
+      @NonNull MethodCall call, @NonNull Result result, long decodedAtNanos) {
     if (instanceManager == null || pluginBinding == null) {
       Log.e(TAG, "method call received before instanceManager initialized: " + call.method);
       return;
     }
-    Context appContext = pluginBinding.getApplicationContext();
-    switch (call.method) {
-      case "_init":
-        // Internal init. This is necessary to cleanup state on hot restart.
-        instanceManager.disposeAllAds();
-        result.success(null);
-        break;
-
-      case "MobileAds#initialize":
-        flutterMobileAds.initialize(appContext, new FlutterInitializationListener(result));
-        break;
-      case "MobileAds#getRequestConfiguration":
-        result.success(flutterMobileAds.getRequestConfiguration());
-        break;
-      case "MobileAds#updateRequestConfiguration":
-        RequestConfiguration.Builder builder = MobileAds.getRequestConfiguration().toBuilder();
-        String maxAdContentRating = call.argument("maxAdContentRating");
-        Integer tagForChildDirectedTreatment = call.argument("tagForChildDirectedTreatment");
-        Integer tagForUnderAgeOfConsent = call.argument("tagForUnderAgeOfConsent");
-        List<String> testDeviceIds = call.argument("testDeviceIds");
-        if (maxAdContentRating != null) {
-          builder.setMaxAdContentRating(maxAdContentRating);
-        }
-        if (tagForChildDirectedTreatment != null) {
-          builder.setTagForChildDirectedTreatment(tagForChildDirectedTreatment);
-        }
-        if (tagForUnderAgeOfConsent != null) {
-          builder.setTagForUnderAgeOfConsent(tagForUnderAgeOfConsent);
-        }
-        if (testDeviceIds != null) {
-          builder.setTestDeviceIds(testDeviceIds);
-        }
-        MobileAds.setRequestConfiguration(builder.build());
-        result.success(null);
-        break;
-      case "loadBannerAd":
-        final FlutterBannerAd bannerAd =
-            new FlutterBannerAd(
-                call.<Integer>argument("adId"),
-                instanceManager,
-                call.<String>argument("adUnitId"),
-                call.<FlutterAdRequest>argument("request"),
-                call.<FlutterAdSize>argument("size"),
-                getBannerAdCreator(appContext));
-        instanceManager.trackAd(bannerAd, call.<Integer>argument("adId"));
-        bannerAd.load();
-        result.success(null);
-        break;
-      case "loadNativeAd":
-        final String factoryId = call.argument("factoryId");
-        final NativeAdFactory factory = nativeAdFactories.get(factoryId);
-        if (factory == null) {
-          final String message = String.format("Can't find NativeAdFactory with id: %s", factoryId);
-          result.error("NativeAdError", message, null);
-          break;
-        }
-
-        final FlutterNativeAd nativeAd =
-            new FlutterNativeAd.Builder()
-                .setManager(instanceManager)
-                .setAdUnitId(call.<String>argument("adUnitId"))
-                .setAdFactory(factory)
-                .setRequest(call.<FlutterAdRequest>argument("request"))
-                .setAdManagerRequest(call.<FlutterAdManagerAdRequest>argument("adManagerRequest"))
-                .setCustomOptions(call.<Map<String, Object>>argument("customOptions"))
-                .setId(call.<Integer>argument("adId"))
-                .setNativeAdOptions(call.<FlutterNativeAdOptions>argument("nativeAdOptions"))
-                .setFlutterAdLoader(new FlutterAdLoader(appContext))
-                .build();
-        instanceManager.trackAd(nativeAd, call.<Integer>argument("adId"));
-        nativeAd.load();
-        result.success(null);
-        break;
-      case "loadInterstitialAd":
-        final FlutterInterstitialAd interstitial =
-            new FlutterInterstitialAd(
-                call.<Integer>argument("adId"),
-                instanceManager,
-                call.<String>argument("adUnitId"),
-                call.<FlutterAdRequest>argument("request"),
-                new FlutterAdLoader(appContext));
-        instanceManager.trackAd(interstitial, call.<Integer>argument("adId"));
-        interstitial.load();
-        result.success(null);
-        break;
-      case "loadRewardedAd":
-        final String adUnitId = requireNonNull(call.<String>argument("adUnitId"));
-        final FlutterAdRequest request = call.argument("request");
-        final FlutterAdManagerAdRequest adManagerRequest = call.argument("adManagerRequest");
-        final FlutterServerSideVerificationOptions serverSideVerificationOptions =
-            call.argument("serverSideVerificationOptions");
-
-        final FlutterRewardedAd rewardedAd;
-        if (request != null) {
-          rewardedAd =
-              new FlutterRewardedAd(
-                  call.<Integer>argument("adId"),
-                  requireNonNull(instanceManager),
-                  adUnitId,
-                  request,
-                  serverSideVerificationOptions,
-                  new FlutterAdLoader(appContext));
-        } else if (adManagerRequest != null) {
-          rewardedAd =
-              new FlutterRewardedAd(
-                  call.<Integer>argument("adId"),
-                  requireNonNull(instanceManager),
-                  adUnitId,
-                  adManagerRequest,
-                  serverSideVerificationOptions,
-                  new FlutterAdLoader(appContext));
-        } else {
-          result.error("InvalidRequest", "A null or invalid ad request was provided.", null);
-          break;
-        }
-
-        instanceManager.trackAd(rewardedAd, requireNonNull(call.<Integer>argument("adId")));
-        rewardedAd.load();
-        result.success(null);
-        break;
-      case "loadAdManagerBannerAd":
-        final FlutterAdManagerBannerAd adManagerBannerAd =
-            new FlutterAdManagerBannerAd(
-                call.<Integer>argument("adId"),
-                instanceManager,
-                call.<String>argument("adUnitId"),
-                call.<List<FlutterAdSize>>argument("sizes"),
-                call.<FlutterAdManagerAdRequest>argument("request"),
-                getBannerAdCreator(appContext));
-        instanceManager.trackAd(adManagerBannerAd, call.<Integer>argument("adId"));
-        adManagerBannerAd.load();
-        result.success(null);
-        break;
-      case "loadFluidAd":
-        final FluidAdManagerBannerAd fluidAd =
-            new FluidAdManagerBannerAd(
-                call.<Integer>argument("adId"),
-                instanceManager,
-                call.<String>argument("adUnitId"),
-                call.<FlutterAdManagerAdRequest>argument("request"),
-                getBannerAdCreator(appContext));
-        instanceManager.trackAd(fluidAd, call.<Integer>argument("adId"));
-        fluidAd.load();
-        result.success(null);
-        break;
-      case "loadAdManagerInterstitialAd":
-        final FlutterAdManagerInterstitialAd adManagerInterstitialAd =
-            new FlutterAdManagerInterstitialAd(
-                call.<Integer>argument("adId"),
-                requireNonNull(instanceManager),
-                requireNonNull(call.<String>argument("adUnitId")),
-                call.<FlutterAdManagerAdRequest>argument("request"),
-                new FlutterAdLoader(appContext));
-        instanceManager.trackAd(
-            adManagerInterstitialAd, requireNonNull(call.<Integer>argument("adId")));
-        adManagerInterstitialAd.load();
-        result.success(null);
-        break;
-      case "loadAppOpenAd":
-        final FlutterAppOpenAd appOpenAd =
-            new FlutterAppOpenAd(
-                call.<Integer>argument("adId"),
-                call.<Integer>argument("orientation"),
-                requireNonNull(instanceManager),
-                requireNonNull(call.<String>argument("adUnitId")),
-                call.<FlutterAdRequest>argument("request"),
-                call.<FlutterAdManagerAdRequest>argument("adManagerRequest"),
-                new FlutterAdLoader(appContext));
-        instanceManager.trackAd(appOpenAd, call.<Integer>argument("adId"));
-        appOpenAd.load();
-        result.success(null);
-        break;
-      case "disposeAd":
-        instanceManager.disposeAd(call.<Integer>argument("adId"));
-        result.success(null);
-        break;
-      case "showAdWithoutView":
-        final boolean adShown = instanceManager.showAdWithId(call.<Integer>argument("adId"));
-        if (!adShown) {
-          result.error("AdShowError", "Ad failed to show.", null);
-          break;
-        }
-        result.success(null);
-        break;
-      case "AdSize#getAnchoredAdaptiveBannerAdSize":
-        final FlutterAdSize.AnchoredAdaptiveBannerAdSize size =
-            new FlutterAdSize.AnchoredAdaptiveBannerAdSize(
-                appContext,
-                new FlutterAdSize.AdSizeFactory(),
-                call.<String>argument("orientation"),
-                call.<Integer>argument("width"));
-        if (AdSize.INVALID.equals(size.size)) {
-          result.success(null);
-        } else {
-          result.success(size.height);
-        }
-        break;
-      case "MobileAds#setAppMuted":
-        flutterMobileAds.setAppMuted(call.<Boolean>argument("muted"));
-        result.success(null);
-        break;
-      case "MobileAds#setAppVolume":
-        flutterMobileAds.setAppVolume(call.<Double>argument("volume"));
-        result.success(null);
-        break;
-      case "setImmersiveMode":
-        ((FlutterOverlayAd) instanceManager.adForId(call.<Integer>argument("adId")))
-            .setImmersiveMode(call.<Boolean>argument("immersiveModeEnabled"));
-        result.success(null);
-        break;
-      case "MobileAds#disableMediationInitialization":
-        flutterMobileAds.disableMediationInitialization(appContext);
-        result.success(null);
-        break;
-      case "MobileAds#getVersionString":
-        result.success(flutterMobileAds.getVersionString());
-        break;
-      case "getAdSize":
-        FlutterAd ad = instanceManager.adForId(call.<Integer>argument("adId"));
-        if (ad == null) {
-          // This was called on a dart ad container that hasn't been loaded yet.
-          result.success(null);
-        } else if (ad instanceof FlutterBannerAd) {
-          result.success(((FlutterBannerAd) ad).getAdSize());
-        } else if (ad instanceof FlutterAdManagerBannerAd) {
-          result.success(((FlutterAdManagerBannerAd) ad).getAdSize());
-        } else {
-          result.error(
-              Constants.ERROR_CODE_UNEXPECTED_AD_TYPE,
-              "Unexpected ad type for getAdSize: " + ad,
-              null);
-        }
-        break;
-      default:
-        result.notImplemented();
+    // Dart is listening again, so replay any events it missed. "_init" disposes every ad first,
+    // which leaves nothing worth replaying.
+    if (!call.method.equals("_init")) {
+      instanceManager.resumeEvents();
     }
+    // Configuration updates are set on the SDK once per frame, but every other call, such as a
+    // load, sees them.
+    if (!call.method.equals("MobileAds#updateRequestConfiguration")
+        && !call.method.equals("MobileAds#getRequestConfiguration")) {
+      requestConfigurations.flush();
+    }
+    createHandlers();
+    final MethodCallHandler handler = methodHandlers.get(call.method);
+    if (handler == null) {
+      result.notImplemented();
+      return;
+    }
+    final boolean timed = methodCallMetrics.isEnabled();
+    final Result reply =
+        timed ? new TimedResult(methodCallMetrics, call.method, decodedAtNanos, result) : result;
+    if (loadQueue.isHolding() && loadHandlers.containsKey(call.method)) {
+      holdLoad(call, handler, reply, timed);
+      return;
+    }
+    runHandler(call, handler, reply, timed);
   }
 
+  /** Runs {@code handler}, recording how long it ran if the call is {@code timed}. */
+  private void runHandler(
+      @NonNull MethodCall call,
+      @NonNull MethodCallHandler handler,
+      @NonNull Result result,
+      boolean timed) {
+    if (!timed) {
+      handler.onMethodCall(call, result);
+      return;
+    }
+    final long startNanos = System.nanoTime();
+    handler.onMethodCall(call, result);
+    methodCallMetrics.recordHandled(call.method, System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Runs the handler of a load, replying with an error instead of throwing if it fails, since the
+   * load isn't the only one started at this point.
+   */
+  private void startLoad(
+      @NonNull MethodCall call,
+      @NonNull MethodCallHandler handler,
+      @NonNull Result result,
+      boolean timed) {
+    try {
+      runHandler(call, handler, result, timed);
+    } catch (RuntimeException e) {
+      Log.e(TAG, "Failed to load ad: " + call.method, e);
+      result.error("LoadAdError", String.valueOf(e.getMessage()), null);
+    }
+  }
+
+  /** Holds a load in {@link #loadQueue} until the SDK is initialized. */
+  private void holdLoad(
+      @NonNull final MethodCall call,
+      @NonNull final MethodCallHandler handler,
+      @NonNull final Result result,
+      final boolean timed) {
+    loadQueue.hold(
+        call.method,
+        call.<Integer>argument("adId"),
+        new Runnable() {
+          @Override
+          public void run() {
+            startLoad(call, handler, result, timed);
+          }
+        },
+        result);
+  }
+
+  @NonNull
+  private Context appContext() {
+    return requireNonNull(pluginBinding).getApplicationContext();
+  }
+
+  /**
+   * Creates the handler tables and the metrics of the methods in them, unless they exist. Handlers
+   * are bound to the plugin instance that creates them, so they aren't created in a field
+   * initializer: that would bind them to the original of a Mockito spy in tests.
+   */
+  private void createHandlers() {
+    if (methodHandlers != null) {
+      return;
+    }
+    loadHandlers = createLoadHandlers();
+    methodHandlers = createMethodHandlers();
+    methodCallMetrics = new MethodCallMetrics(methodHandlers.keySet());
+  }
+
+  /** Creates the handler of every method Dart calls, keyed by method name. */
+  @NonNull
+  private Map<String, MethodCallHandler> createMethodHandlers() {
+    final Map<String, MethodCallHandler> handlers = new HashMap<>(loadHandlers);
+    handlers.put(
+        "_init",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            // Internal init. This is necessary to cleanup state on hot restart.
+            instanceManager.disposeAllAds();
+            instanceManager.resumeEvents();
+            loadQueue.clear();
+            // Dart starts with an empty string dictionary after a hot restart.
+            if (adMessageCodec != null) {
+              adMessageCodec.setStringDictionaryEnabled(false);
+            }
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#initialize",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            loadQueue.onInitializationStarted();
+            flutterMobileAds.initialize(
+                appContext(),
+                new FlutterInitializationListener(
+                    result,
+                    new Runnable() {
+                      @Override
+                      public void run() {
+                        mainThreadDispatcher.execute(
+                            new Runnable() {
+                              @Override
+                              public void run() {
+                                loadQueue.onInitializationComplete();
+                              }
+                            });
+                      }
+                    }));
+          }
+        });
+    handlers.put(
+        "MobileAds#getRequestConfiguration",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            result.success(requestConfigurations.get());
+          }
+        });
+    handlers.put(
+        "MobileAds#updateRequestConfiguration",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            requestConfigurations.update(
+                call.<String>argument("maxAdContentRating"),
+                call.<Integer>argument("tagForChildDirectedTreatment"),
+                call.<Integer>argument("tagForUnderAgeOfConsent"),
+                call.<List<String>>argument("testDeviceIds"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadAds",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            loadAds(call.<List<Map<String, Object>>>argument("loads"), result);
+          }
+        });
+    handlers.put(
+        "disposeAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            loadQueue.cancel(call.<Integer>argument("adId"));
+            instanceManager.disposeAd(call.<Integer>argument("adId"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "showAdWithoutView",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final boolean adShown = instanceManager.showAdWithId(call.<Integer>argument("adId"));
+            if (!adShown) {
+              result.error("AdShowError", "Ad failed to show.", null);
+              return;
+            }
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "AdSize#getAnchoredAdaptiveBannerAdSize",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final FlutterAdSize.AnchoredAdaptiveBannerAdSize size =
+                new FlutterAdSize.AnchoredAdaptiveBannerAdSize(
+                    appContext(),
+                    new FlutterAdSize.AdSizeFactory(),
+                    call.<String>argument("orientation"),
+                    call.<Integer>argument("width"));
+            if (AdSize.INVALID.equals(size.size)) {
+              result.success(null);
+            } else {
+              result.success(size.height);
+            }
+          }
+        });
+    handlers.put(
+        "MobileAds#setAppMuted",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            flutterMobileAds.setAppMuted(call.<Boolean>argument("muted"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setAppVolume",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            flutterMobileAds.setAppVolume(call.<Double>argument("volume"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "setImmersiveMode",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            ((FlutterOverlayAd) instanceManager.adForId(call.<Integer>argument("adId")))
+                .setImmersiveMode(call.<Boolean>argument("immersiveModeEnabled"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#disableMediationInitialization",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            flutterMobileAds.disableMediationInitialization(appContext());
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#getVersionString",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            result.success(flutterMobileAds.getVersionString());
+          }
+        });
+    handlers.put(
+        "MobileAds#setAdEventBatchWindow",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final Integer batchWindowMillis = call.argument("batchWindowMillis");
+            instanceManager.setEventBatchWindowMillis(
+                batchWindowMillis == null
+                    ? AdEventBatcher.BATCH_WINDOW_DISABLED
+                    : batchWindowMillis.longValue());
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setPaidEventAggregation",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final Integer flushIntervalMillis = call.argument("flushIntervalMillis");
+            if (flushIntervalMillis == null) {
+              instanceManager.setPaidEventFlushIntervalMillis(
+                  PaidEventAggregator.AGGREGATION_DISABLED);
+              if (appStateNotifier != null) {
+                appStateNotifier.setBackgroundListener(null);
+              }
+            } else {
+              instanceManager.setPaidEventFlushIntervalMillis(flushIntervalMillis.longValue());
+              if (appStateNotifier != null) {
+                final AdInstanceManager manager = instanceManager;
+                // Send the totals before the app can be killed in the background.
+                appStateNotifier.setBackgroundListener(
+                    new AppStateNotifier.BackgroundListener() {
+                      @Override
+                      public void onAppBackgrounded() {
+                        manager.flushPaidEvents();
+                      }
+                    });
+              }
+            }
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setOrphanedAdTtls",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            instanceManager.setOrphanedAdTtls(
+                ttlArgument(call, "failedMillis"),
+                ttlArgument(call, "dismissedMillis"),
+                ttlArgument(call, "neverShownMillis"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setInitializationLoadDeadline",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final Integer deadlineMillis = call.argument("deadlineMillis");
+            loadQueue.setDeadlineMillis(
+                deadlineMillis == null
+                    ? InitializationLoadQueue.DEADLINE_DISABLED
+                    : deadlineMillis.longValue());
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setMessageFraming",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            if (adMessageCodec != null) {
+              adMessageCodec.setFramingEnabled(call.<Boolean>argument("enabled"));
+            }
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setStringDictionary",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            if (adMessageCodec != null) {
+              adMessageCodec.setStringDictionaryEnabled(call.<Boolean>argument("enabled"));
+            }
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setMethodCallTiming",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            methodCallMetrics.setEnabled(call.<Boolean>argument("enabled"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "MobileAds#setLazyResponseInfo",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            instanceManager.setLazyResponseInfo(call.<Boolean>argument("enabled"));
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "getResponseInfo",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            result.success(instanceManager.getResponseInfo(call.<Integer>argument("adId")));
+          }
+        });
+    handlers.put(
+        "Diagnostics#getMetrics",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final Map<String, Object> metrics = instanceManager.getMetrics();
+            if (adMessageCodec != null) {
+              metrics.put("requestInterning", adMessageCodec.requestInterner.getStats());
+              metrics.put("stringDictionary", adMessageCodec.stringDictionary.getStats());
+            }
+            if (encodeBufferPool != null) {
+              metrics.put("encoding", encodeBufferPool.getStats());
+            }
+            metrics.put("requestConfiguration", requestConfigurations.getStats());
+            metrics.put("initializationLoadQueue", loadQueue.getStats());
+            metrics.put("methodCalls", methodCallMetrics.snapshot());
+            result.success(metrics);
+          }
+        });
+    handlers.put(
+        "getAdSize",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            FlutterAd ad = instanceManager.adForId(call.<Integer>argument("adId"));
+            if (ad == null) {
+              // This was called on a dart ad container that hasn't been loaded yet.
+              result.success(null);
+            } else if (ad instanceof FlutterBannerAd) {
+              result.success(((FlutterBannerAd) ad).getAdSize());
+            } else if (ad instanceof FlutterAdManagerBannerAd) {
+              result.success(((FlutterAdManagerBannerAd) ad).getAdSize());
+            } else {
+              result.error(
+                  Constants.ERROR_CODE_UNEXPECTED_AD_TYPE,
+                  "Unexpected ad type for getAdSize: " + ad,
+                  null);
+            }
+          }
+        });
+    return handlers;
+  }
+
+  /**
+   * Creates the handlers of the load calls, such as "loadBannerAd", which track and start loading
+   * the ad a call describes. These are also the calls a "loadAds" call can batch.
+   */
+  @NonNull
+  private Map<String, MethodCallHandler> createLoadHandlers() {
+    final Map<String, MethodCallHandler> handlers = new HashMap<>();
+    handlers.put(
+        "loadBannerAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final FlutterBannerAd bannerAd =
+                new FlutterBannerAd(
+                    call.<Integer>argument("adId"),
+                    instanceManager,
+                    call.<String>argument("adUnitId"),
+                    call.<FlutterAdRequest>argument("request"),
+                    call.<FlutterAdSize>argument("size"),
+                    getBannerAdCreator(appContext()));
+            instanceManager.trackAd(bannerAd, call.<Integer>argument("adId"), eventMaskOf(call));
+            bannerAd.load();
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadNativeAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final String factoryId = call.argument("factoryId");
+            final NativeAdFactory factory = nativeAdFactories.get(factoryId);
+            if (factory == null) {
+              final String message =
+                  String.format("Can't find NativeAdFactory with id: %s", factoryId);
+              result.error("NativeAdError", message, null);
+              return;
+            }
+
+            final FlutterNativeAd nativeAd =
+                new FlutterNativeAd.Builder()
+                    .setManager(instanceManager)
+                    .setAdUnitId(call.<String>argument("adUnitId"))
+                    .setAdFactory(factory)
+                    .setRequest(call.<FlutterAdRequest>argument("request"))
+                    .setAdManagerRequest(
+                        call.<FlutterAdManagerAdRequest>argument("adManagerRequest"))
+                    .setCustomOptions(call.<Map<String, Object>>argument("customOptions"))
+                    .setId(call.<Integer>argument("adId"))
+                    .setNativeAdOptions(call.<FlutterNativeAdOptions>argument("nativeAdOptions"))
+                    .setFlutterAdLoader(getFlutterAdLoader(appContext()))
+                    .build();
+            instanceManager.trackAd(nativeAd, call.<Integer>argument("adId"), eventMaskOf(call));
+            nativeAd.load();
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadInterstitialAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final FlutterInterstitialAd interstitial =
+                new FlutterInterstitialAd(
+                    call.<Integer>argument("adId"),
+                    instanceManager,
+                    call.<String>argument("adUnitId"),
+                    call.<FlutterAdRequest>argument("request"),
+                    getFlutterAdLoader(appContext()));
+            instanceManager.trackAd(interstitial, call.<Integer>argument("adId"));
+            interstitial.load();
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadRewardedAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final String adUnitId = requireNonNull(call.<String>argument("adUnitId"));
+            final FlutterAdRequest request = call.argument("request");
+            final FlutterAdManagerAdRequest adManagerRequest = call.argument("adManagerRequest");
+            final FlutterServerSideVerificationOptions serverSideVerificationOptions =
+                call.argument("serverSideVerificationOptions");
+
+            final FlutterRewardedAd rewardedAd;
+            if (request != null) {
+              rewardedAd =
+                  new FlutterRewardedAd(
+                      call.<Integer>argument("adId"),
+                      requireNonNull(instanceManager),
+                      adUnitId,
+                      request,
+                      serverSideVerificationOptions,
+                      getFlutterAdLoader(appContext()));
+            } else if (adManagerRequest != null) {
+              rewardedAd =
+                  new FlutterRewardedAd(
+                      call.<Integer>argument("adId"),
+                      requireNonNull(instanceManager),
+                      adUnitId,
+                      adManagerRequest,
+                      serverSideVerificationOptions,
+                      getFlutterAdLoader(appContext()));
+            } else {
+              result.error("InvalidRequest", "A null or invalid ad request was provided.", null);
+              return;
+            }
+
+            instanceManager.trackAd(rewardedAd, requireNonNull(call.<Integer>argument("adId")));
+            rewardedAd.load();
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadAdManagerBannerAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final FlutterAdManagerBannerAd adManagerBannerAd =
+                new FlutterAdManagerBannerAd(
+                    call.<Integer>argument("adId"),
+                    instanceManager,
+                    call.<String>argument("adUnitId"),
+                    call.<List<FlutterAdSize>>argument("sizes"),
+                    call.<FlutterAdManagerAdRequest>argument("request"),
+                    getBannerAdCreator(appContext()));
+            instanceManager.trackAd(
+                adManagerBannerAd, call.<Integer>argument("adId"), eventMaskOf(call));
+            adManagerBannerAd.load();
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadFluidAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final FluidAdManagerBannerAd fluidAd =
+                new FluidAdManagerBannerAd(
+                    call.<Integer>argument("adId"),
+                    instanceManager,
+                    call.<String>argument("adUnitId"),
+                    call.<FlutterAdManagerAdRequest>argument("request"),
+                    getBannerAdCreator(appContext()));
+            instanceManager.trackAd(fluidAd, call.<Integer>argument("adId"), eventMaskOf(call));
+            fluidAd.load();
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadAdManagerInterstitialAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final FlutterAdManagerInterstitialAd adManagerInterstitialAd =
+                new FlutterAdManagerInterstitialAd(
+                    call.<Integer>argument("adId"),
+                    requireNonNull(instanceManager),
+                    requireNonNull(call.<String>argument("adUnitId")),
+                    call.<FlutterAdManagerAdRequest>argument("request"),
+                    getFlutterAdLoader(appContext()));
+            instanceManager.trackAd(
+                adManagerInterstitialAd, requireNonNull(call.<Integer>argument("adId")));
+            adManagerInterstitialAd.load();
+            result.success(null);
+          }
+        });
+    handlers.put(
+        "loadAppOpenAd",
+        new MethodCallHandler() {
+          @Override
+          public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+            final FlutterAppOpenAd appOpenAd =
+                new FlutterAppOpenAd(
+                    call.<Integer>argument("adId"),
+                    call.<Integer>argument("orientation"),
+                    requireNonNull(instanceManager),
+                    requireNonNull(call.<String>argument("adUnitId")),
+                    call.<FlutterAdRequest>argument("request"),
+                    call.<FlutterAdManagerAdRequest>argument("adManagerRequest"),
+                    getFlutterAdLoader(appContext()));
+            instanceManager.trackAd(appOpenAd, call.<Integer>argument("adId"));
+            appOpenAd.load();
+            result.success(null);
+          }
+        });
+    return handlers;
+  }
+
+  /**
+   * Starts every load in {@code loads}, each a map with the "method" and "arguments" of a load call
+   * such as "loadBannerAd", and replies once with a status for each, in order: null if the ad is
+   * loading, or a map with the "code" and "message" of the error the load call would have replied.
+   * Every load is attempted, even after one fails. Loads held until the SDK is initialized delay
+   * the reply until they start.
+   */
+  private void loadAds(@NonNull List<Map<String, Object>> loads, @NonNull Result result) {
+    final LoadAdsReply reply = new LoadAdsReply(loads.size(), result);
+    for (int i = 0; i < loads.size(); i++) {
+      final Map<String, Object> load = loads.get(i);
+      final MethodCall call = new MethodCall((String) load.get("method"), load.get("arguments"));
+      final MethodCallHandler handler = loadHandlers.get(call.method);
+      final Result status = new LoadStatus(reply, i);
+      if (handler == null) {
+        status.notImplemented();
+      } else if (loadQueue.isHolding()) {
+        holdLoad(call, handler, status, false);
+      } else {
+        startLoad(call, handler, status, false);
+      }
+    }
+  }
+
+  /** Returns the shared loader, replacing it unless it uses {@code context}. */
+  @NonNull
+  private FlutterAdLoader getFlutterAdLoader(@NonNull Context context) {
+    if (flutterAdLoader == null || flutterAdLoader.getContext() != context) {
+      flutterAdLoader = new FlutterAdLoader(context);
+    }
+    return flutterAdLoader;
+  }
+
+  /** Returns the shared creator, replacing it unless it uses {@code context}. */
   @VisibleForTesting
   BannerAdCreator getBannerAdCreator(@NonNull Context context) {
-    return new BannerAdCreator(context);
+    if (bannerAdCreator == null || bannerAdCreator.getContext() != context) {
+      bannerAdCreator = new BannerAdCreator(context);
+    }
+    return bannerAdCreator;
+  }
+
+  /** Records when a call replies in {@link MethodCallMetrics}, then sends the reply. */
+  private static final class TimedResult implements Result {
+    @NonNull private final MethodCallMetrics metrics;
+    @NonNull private final String method;
+    private final long decodedAtNanos;
+    @NonNull private final Result result;
+
+    TimedResult(
+        @NonNull MethodCallMetrics metrics,
+        @NonNull String method,
+        long decodedAtNanos,
+        @NonNull Result result) {
+      this.metrics = metrics;
+      this.method = method;
+      this.decodedAtNanos = decodedAtNanos;
+      this.result = result;
+    }
+
+    @Override
+    public void success(@Nullable Object value) {
+      result.success(value);
+      metrics.recordReplied(method, System.nanoTime() - decodedAtNanos);
+    }
+
+    @Override
+    public void error(
+        @NonNull String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+      result.error(errorCode, errorMessage, errorDetails);
+      metrics.recordReplied(method, System.nanoTime() - decodedAtNanos);
+    }
+
+    @Override
+    public void notImplemented() {
+      result.notImplemented();
+      metrics.recordReplied(method, System.nanoTime() - decodedAtNanos);
+    }
+  }
+
+  /** Replies to a "loadAds" call once each of its loads has a status. */
+  private static final class LoadAdsReply {
+    @NonNull private final Result result;
+    @NonNull private final List<Object> statuses;
+    private int remaining;
+
+    LoadAdsReply(int size, @NonNull Result result) {
+      this.result = result;
+      this.statuses = new ArrayList<>(Collections.nCopies(size, null));
+      this.remaining = size;
+      if (size == 0) {
+        result.success(statuses);
+      }
+    }
+
+    void setStatus(int index, @Nullable Map<String, Object> status) {
+      statuses.set(index, status);
+      if (--remaining == 0) {
+        result.success(statuses);
+      }
+    }
+  }
+
+  /** Collects the reply of one load in {@link #loadAds} as its status. */
+  private static final class LoadStatus implements Result {
+    @NonNull private final LoadAdsReply reply;
+    private final int index;
+    private boolean replied;
+
+    LoadStatus(@NonNull LoadAdsReply reply, int index) {
+      this.reply = reply;
+      this.index = index;
+    }
+
+    @Override
+    public void success(@Nullable Object result) {
+      setStatus(null);
+    }
+
+    @Override
+    public void error(
+        @NonNull String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+      final Map<String, Object> status = new HashMap<>();
+      status.put("code", errorCode);
+      status.put("message", errorMessage);
+      setStatus(status);
+    }
+
+    @Override
+    public void notImplemented() {
+      error("notImplemented", "Not a load method.", null);
+    }
+
+    private void setStatus(@Nullable Map<String, Object> status) {
+      if (replied) {
+        return;
+      }
+      replied = true;
+      reply.setStatus(index, status);
+    }
   }
 
   /** An {@link OnInitializationCompleteListener} that invokes result.success() at most once. */
@@ -492,10 +1106,14 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
       implements OnInitializationCompleteListener {
 
     private final Result result;
+    // Runs once initialization completes, before replying.
+    private final Runnable onComplete;
     private boolean isInitializationCompleted;
 
-    private FlutterInitializationListener(@NonNull final Result result) {
+    private FlutterInitializationListener(
+        @NonNull final Result result, @NonNull final Runnable onComplete) {
       this.result = result;
+      this.onComplete = onComplete;
       isInitializationCompleted = false;
     }
 
@@ -506,6 +1124,7 @@ public class GoogleMobileAdsPlugin implements FlutterPlugin, ActivityAware, Meth
       if (isInitializationCompleted) {
         return;
       }
+      onComplete.run();
       result.success(new FlutterInitializationStatus(initializationStatus));
       isInitializationCompleted = true;
     }
@@ -0,0 +1,227 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Holds the loads Dart starts while the SDK is initializing, so they don't race mediation adapter
+ * initialization, and starts them once initialization completes or a deadline passes, whichever
+ * comes first.
+ *
+ * <p>Holding is off until a deadline is set with {@link #setDeadlineMillis}. Even then, loads are
+ * only held after {@code MobileAds#initialize} was called and before it completes, so apps that
+ * never initialize explicitly load as before. Held loads start in the order of their
+ * format's priority, see {@link #priorityOf}, and in the order they were made within a priority.
+ * How long each load waited is reported by {@link #getStats()}.
+ *
+ * <p>This class is only used on the main thread.
+ */
+class InitializationLoadQueue {
+  /** Deadline that never holds loads, the default. */
+  static final long DEADLINE_DISABLED = 0;
+
+  private static final int STATE_NOT_STARTED = 0;
+  private static final int STATE_INITIALIZING = 1;
+  private static final int STATE_INITIALIZED = 2;
+
+  private static class Entry implements Comparable<Entry> {
+    final int priority;
+    final long sequence;
+    @Nullable final Integer adId;
+    @NonNull final Runnable load;
+    @NonNull final Result result;
+    final long heldAtMillis = SystemClock.uptimeMillis();
+
+    Entry(
+        int priority,
+        long sequence,
+        @Nullable Integer adId,
+        @NonNull Runnable load,
+        @NonNull Result result) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.adId = adId;
+      this.load = load;
+      this.result = result;
+    }
+
+    @Override
+    public int compareTo(@NonNull Entry other) {
+      if (priority != other.priority) {
+        return priority < other.priority ? -1 : 1;
+      }
+      return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+    }
+  }
+
+  @NonNull private final MainThreadDispatcher dispatcher;
+  @NonNull private final PriorityQueue<Entry> entries = new PriorityQueue<>();
+  private long deadlineMillis = DEADLINE_DISABLED;
+  private int state = STATE_NOT_STARTED;
+  private boolean holding;
+  private long sequence;
+  private long held;
+  private long releasedByDeadline;
+  private long cancelled;
+  private long totalWaitMillis;
+  private long maxWaitMillis;
+
+  @NonNull
+  private final Runnable onDeadline =
+      new Runnable() {
+        @Override
+        public void run() {
+          release(true);
+        }
+      };
+
+  InitializationLoadQueue(@NonNull MainThreadDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  /**
+   * Returns the priority loads made with {@code method} start with, lower first: app open ads,
+   * which are shown at cold start, then banners, which are usually on screen, then native ads,
+   * then full screen ads, which are shown later.
+   */
+  static int priorityOf(@NonNull String method) {
+    switch (method) {
+      case "loadAppOpenAd":
+        return 0;
+      case "loadBannerAd":
+      case "loadAdManagerBannerAd":
+      case "loadFluidAd":
+        return 1;
+      case "loadNativeAd":
+        return 2;
+      default:
+        return 3;
+    }
+  }
+
+  /**
+   * Sets how long loads may be held for, from the start of initialization, or {@link
+   * #DEADLINE_DISABLED}. Takes effect for the next initialization, except that disabling the
+   * deadline starts every held load right away.
+   */
+  void setDeadlineMillis(long deadlineMillis) {
+    this.deadlineMillis = deadlineMillis;
+    if (deadlineMillis == DEADLINE_DISABLED && holding) {
+      dispatcher.cancel(onDeadline);
+      release(false);
+    }
+  }
+
+  /** Starts holding loads, unless initialization was already started. */
+  void onInitializationStarted() {
+    if (state != STATE_NOT_STARTED) {
+      return;
+    }
+    state = STATE_INITIALIZING;
+    if (deadlineMillis != DEADLINE_DISABLED) {
+      holding = true;
+      dispatcher.postDelayed(onDeadline, deadlineMillis);
+    }
+  }
+
+  /** Starts every held load and stops holding loads. */
+  void onInitializationComplete() {
+    state = STATE_INITIALIZED;
+    dispatcher.cancel(onDeadline);
+    release(false);
+  }
+
+  /** Whether loads should be held with {@link #hold} instead of started. */
+  boolean isHolding() {
+    return holding;
+  }
+
+  /**
+   * Holds a load made with {@code method} until initialization completes. {@code load} starts it,
+   * and {@code result} is replied to if the load is cancelled instead.
+   */
+  void hold(
+      @NonNull String method,
+      @Nullable Integer adId,
+      @NonNull Runnable load,
+      @NonNull Result result) {
+    held++;
+    entries.add(new Entry(priorityOf(method), sequence++, adId, load, result));
+  }
+
+  /** Drops the held loads of the ad {@code adId}, which Dart disposed, replying to each. */
+  void cancel(int adId) {
+    final Iterator<Entry> iterator = entries.iterator();
+    while (iterator.hasNext()) {
+      final Entry entry = iterator.next();
+      if (entry.adId != null && entry.adId == adId) {
+        iterator.remove();
+        cancelled++;
+        entry.result.success(null);
+      }
+    }
+  }
+
+  /** Drops every held load without replying, since Dart restarted. */
+  void clear() {
+    cancelled += entries.size();
+    entries.clear();
+  }
+
+  private void release(boolean byDeadline) {
+    holding = false;
+    // Loads are started from a copy, so a load can't see the queue change under it.
+    final List<Entry> released = new ArrayList<>(entries.size());
+    while (!entries.isEmpty()) {
+      released.add(entries.poll());
+    }
+    final long now = SystemClock.uptimeMillis();
+    for (Entry entry : released) {
+      final long waitMillis = now - entry.heldAtMillis;
+      totalWaitMillis += waitMillis;
+      maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+      if (byDeadline) {
+        releasedByDeadline++;
+      }
+      entry.load.run();
+    }
+  }
+
+  /**
+   * Returns how many loads were held, released by the deadline instead of by initialization and
+   * cancelled, how many are held now, and their total and longest wait.
+   */
+  @NonNull
+  Map<String, Object> getStats() {
+    final Map<String, Object> stats = new HashMap<>();
+    stats.put("held", held);
+    stats.put("releasedByDeadline", releasedByDeadline);
+    stats.put("cancelled", cancelled);
+    stats.put("waiting", entries.size());
+    stats.put("totalWaitMillis", totalWaitMillis);
+    stats.put("maxWaitMillis", maxWaitMillis);
+    return stats;
+  }
+}
@@ -0,0 +1,79 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs work on the main thread for the plugin using a single shared {@link Handler}.
+ *
+ * <p>Work submitted with {@link #execute(Runnable)} from the main thread runs synchronously, which
+ * avoids a hop through the message queue when SDK callbacks already arrive on the main thread.
+ */
+class MainThreadDispatcher {
+
+  @NonNull private final Handler handler;
+  private final AtomicLong directCount = new AtomicLong();
+  private final AtomicLong postedCount = new AtomicLong();
+
+  MainThreadDispatcher() {
+    this.handler = new Handler(Looper.getMainLooper());
+  }
+
+  /** Whether the caller is running on the main thread. */
+  boolean isMainThread() {
+    return Looper.myLooper() == Looper.getMainLooper();
+  }
+
+  /** Runs {@code runnable} now if called on the main thread, otherwise posts it. */
+  void execute(@NonNull Runnable runnable) {
+    if (isMainThread()) {
+      directCount.incrementAndGet();
+      runnable.run();
+    } else {
+      post(runnable);
+    }
+  }
+
+  /** Posts {@code runnable} to the main thread, even if already on the main thread. */
+  void post(@NonNull Runnable runnable) {
+    postedCount.incrementAndGet();
+    handler.post(runnable);
+  }
+
+  /** Posts {@code runnable} to the main thread after {@code delayMillis}. */
+  void postDelayed(@NonNull Runnable runnable, long delayMillis) {
+    postedCount.incrementAndGet();
+    handler.postDelayed(runnable, delayMillis);
+  }
+
+  /** Removes any pending posts of {@code runnable}. */
+  void cancel(@NonNull Runnable runnable) {
+    handler.removeCallbacks(runnable);
+  }
+
+  /** Number of runnables that ran synchronously because the caller was on the main thread. */
+  long getDirectCount() {
+    return directCount.get();
+  }
+
+  /** Number of runnables that were queued on the main thread's message queue. */
+  long getPostedCount() {
+    return postedCount.get();
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Times the method calls Dart makes on the plugin's channel, per method.
+ *
+ * <p>For each method, this counts the calls handled, the time their handlers ran on the main
+ * thread, and the latency from a call being decoded to its reply being sent, in the same power of
+ * two histograms as {@link AdEventMetrics}. Calls that haven't replied yet, such as an
+ * initialization still in progress, are counted but have no latency yet.
+ *
+ * <p>Only the methods given when this is created are recorded, so recording is a lookup in a map
+ * that never changes and a few atomic updates, and may be called from any thread.
+ */
+class MethodCallMetrics {
+  @NonNull private final Map<String, Entry> entries = new HashMap<>();
+  private volatile boolean enabled;
+
+  MethodCallMetrics(@NonNull Collection<String> methods) {
+    for (String method : methods) {
+      entries.put(method, new Entry());
+    }
+  }
+
+  /** Sets whether calls are timed. Times recorded so far are kept. */
+  void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Records that a handler of {@code method} ran on the main thread for {@code nanos}. */
+  void recordHandled(@NonNull String method, long nanos) {
+    final Entry entry = entries.get(method);
+    if (entry != null) {
+      entry.count.incrementAndGet();
+      entry.mainThreadMicros.addAndGet(Math.max(0, nanos / 1000));
+    }
+  }
+
+  /** Records that a call of {@code method} replied {@code nanos} after it was decoded. */
+  void recordReplied(@NonNull String method, long nanos) {
+    final Entry entry = entries.get(method);
+    if (entry != null) {
+      final long latencyMicros = Math.max(0, nanos / 1000);
+      entry.latencyMicros.addAndGet(latencyMicros);
+      entry.buckets.incrementAndGet(AdEventMetrics.bucketOf(latencyMicros));
+    }
+  }
+
+  /**
+   * Returns the metrics recorded so far keyed by method. Each entry has a {@code "count"}, a
+   * {@code "totalMainThreadMicros"}, a {@code "totalLatencyMicros"} and a {@code
+   * "latencyHistogram"}. Methods with no calls are left out.
+   */
+  @NonNull
+  Map<String, Object> snapshot() {
+    final Map<String, Object> snapshot = new HashMap<>();
+    for (Map.Entry<String, Entry> method : entries.entrySet()) {
+      final Entry entry = method.getValue();
+      final long count = entry.count.get();
+      if (count == 0) {
+        continue;
+      }
+      final long[] histogram = new long[AdEventMetrics.BUCKET_COUNT];
+      for (int bucket = 0; bucket < histogram.length; bucket++) {
+        histogram[bucket] = entry.buckets.get(bucket);
+      }
+      final Map<String, Object> result = new HashMap<>();
+      result.put("count", count);
+      result.put("totalMainThreadMicros", entry.mainThreadMicros.get());
+      result.put("totalLatencyMicros", entry.latencyMicros.get());
+      result.put("latencyHistogram", histogram);
+      snapshot.put(method.getKey(), result);
+    }
+    return snapshot;
+  }
+
+  private static class Entry {
+    final AtomicLong count = new AtomicLong();
+    final AtomicLong mainThreadMicros = new AtomicLong();
+    final AtomicLong latencyMicros = new AtomicLong();
+    final AtomicLongArray buckets = new AtomicLongArray(AdEventMetrics.BUCKET_COUNT);
+  }
+}
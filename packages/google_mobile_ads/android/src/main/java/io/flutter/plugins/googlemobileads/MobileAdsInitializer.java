@@ -0,0 +1,60 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Starts initializing the Google Mobile Ads SDK, with its mediation adapters, when the app's
+ * process starts, so it overlaps with the Flutter engine starting up. {@code
+ * MobileAds.instance.initialize()} then completes with the result of this initialization instead
+ * of starting a new one.
+ *
+ * <p>This only runs if the app lists it under the App Startup {@code InitializationProvider} in its
+ * {@code AndroidManifest.xml}:
+ *
+ * <pre>{@code
+ * <provider
+ *     android:name="androidx.startup.InitializationProvider"
+ *     android:authorities="${applicationId}.androidx-startup"
+ *     android:exported="false"
+ *     tools:node="merge">
+ *   <meta-data
+ *       android:name="io.flutter.plugins.googlemobileads.MobileAdsInitializer"
+ *       android:value="androidx.startup" />
+ * </provider>
+ * }</pre>
+ *
+ * <p>Since initialization has already started by the time Dart runs, {@code
+ * MobileAds.instance.disableMediationInitialization()} has no effect in apps that do this.
+ */
+public class MobileAdsInitializer implements Initializer<Void> {
+
+  @Override
+  public Void create(@NonNull Context context) {
+    StartupInitialization.start(context);
+    return null;
+  }
+
+  @NonNull
+  @Override
+  public List<Class<? extends Initializer<?>>> dependencies() {
+    return Collections.emptyList();
+  }
+}
@@ -0,0 +1,181 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totals paid events per ad unit, currency and precision instead of sending each one to Dart.
+ *
+ * <p>While enabled, totals are sent to Dart as a single {@code onPaidEventSummary} message every
+ * flush interval and whenever {@link #flush()} is called, such as when the app goes to the
+ * background. Intervals without paid events send nothing. The totals are kept in parallel
+ * primitive arrays, so adding a paid event for a key that was seen before doesn't allocate.
+ *
+ * <p>Paid events may be added from any thread. Summaries are always sent on the main thread.
+ */
+class PaidEventAggregator {
+  /** Flush interval that turns aggregation off. */
+  static final long AGGREGATION_DISABLED = -1;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  @NonNull private volatile MethodChannel channel;
+  @NonNull private final MainThreadDispatcher dispatcher;
+  @NonNull private final Object lock = new Object();
+
+  // Guarded by lock.
+  private String[] adUnitIds = new String[INITIAL_CAPACITY];
+  private String[] currencyCodes = new String[INITIAL_CAPACITY];
+  private int[] precisionTypes = new int[INITIAL_CAPACITY];
+  private long[] totalValueMicros = new long[INITIAL_CAPACITY];
+  private long[] counts = new long[INITIAL_CAPACITY];
+  private int size;
+
+  private volatile long flushIntervalMillis = AGGREGATION_DISABLED;
+
+  private final Runnable flushRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          flush();
+          final long interval = flushIntervalMillis;
+          if (interval > 0) {
+            dispatcher.postDelayed(this, interval);
+          }
+        }
+      };
+
+  PaidEventAggregator(@NonNull MethodChannel channel, @NonNull MainThreadDispatcher dispatcher) {
+    this.channel = channel;
+    this.dispatcher = dispatcher;
+  }
+
+  /** Sends later summaries on {@code channel}. */
+  void setChannel(@NonNull MethodChannel channel) {
+    this.channel = channel;
+  }
+
+  /** Whether paid events are being totaled instead of sent to Dart one by one. */
+  boolean isEnabled() {
+    return flushIntervalMillis > 0;
+  }
+
+  /**
+   * Starts totaling paid events and sending the totals every {@code flushIntervalMillis}, or turns
+   * aggregation off with {@link #AGGREGATION_DISABLED}. Turning aggregation off sends the totals
+   * collected so far. Must be called on the main thread.
+   */
+  void setFlushIntervalMillis(long flushIntervalMillis) {
+    if (flushIntervalMillis <= 0 && flushIntervalMillis != AGGREGATION_DISABLED) {
+      throw new IllegalArgumentException("Flush interval must be positive: " + flushIntervalMillis);
+    }
+    dispatcher.cancel(flushRunnable);
+    this.flushIntervalMillis = flushIntervalMillis;
+    if (flushIntervalMillis > 0) {
+      dispatcher.postDelayed(flushRunnable, flushIntervalMillis);
+    } else {
+      flush();
+    }
+  }
+
+  /** Adds a paid event to the totals for its ad unit, currency and precision. */
+  void add(
+      @NonNull String adUnitId,
+      @NonNull String currencyCode,
+      int precisionType,
+      long valueMicros) {
+    synchronized (lock) {
+      int index = indexOf(adUnitId, currencyCode, precisionType);
+      if (index < 0) {
+        index = append(adUnitId, currencyCode, precisionType);
+      }
+      totalValueMicros[index] += valueMicros;
+      counts[index]++;
+    }
+  }
+
+  /** Sends the totals collected since the last flush to Dart, if there are any. */
+  void flush() {
+    dispatcher.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final List<Map<String, Object>> summaries = drain();
+            if (!summaries.isEmpty()) {
+              channel.invokeMethod("onPaidEventSummary", summaries);
+            }
+          }
+        });
+  }
+
+  /** Removes and returns the totals collected since the last flush. */
+  @NonNull
+  List<Map<String, Object>> drain() {
+    synchronized (lock) {
+      final List<Map<String, Object>> summaries = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        if (counts[i] == 0) {
+          continue;
+        }
+        final Map<String, Object> summary = new HashMap<>();
+        summary.put("adUnitId", adUnitIds[i]);
+        summary.put("currencyCode", currencyCodes[i]);
+        summary.put("precision", precisionTypes[i]);
+        summary.put("valueMicros", totalValueMicros[i]);
+        summary.put("count", counts[i]);
+        summaries.add(summary);
+      }
+      // Keep the keys so the next interval's events for the same ad units don't allocate.
+      for (int i = 0; i < size; i++) {
+        totalValueMicros[i] = 0;
+        counts[i] = 0;
+      }
+      return summaries;
+    }
+  }
+
+  private int indexOf(@NonNull String adUnitId, @NonNull String currencyCode, int precisionType) {
+    for (int i = 0; i < size; i++) {
+      if (precisionTypes[i] == precisionType
+          && adUnitIds[i].equals(adUnitId)
+          && currencyCodes[i].equals(currencyCode)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int append(@NonNull String adUnitId, @NonNull String currencyCode, int precisionType) {
+    if (size == adUnitIds.length) {
+      final int capacity = size * 2;
+      adUnitIds = Arrays.copyOf(adUnitIds, capacity);
+      currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+      precisionTypes = Arrays.copyOf(precisionTypes, capacity);
+      totalValueMicros = Arrays.copyOf(totalValueMicros, capacity);
+      counts = Arrays.copyOf(counts, capacity);
+    }
+    adUnitIds[size] = adUnitId;
+    currencyCodes[size] = currencyCode;
+    precisionTypes[size] = precisionType;
+    return size++;
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.nio.ByteBuffer;
+
+/**
+ * Gives the buffers encoded by {@link AdMethodCodec} back to their {@link EncodeBufferPool} once
+ * they have been sent.
+ *
+ * <p>The engine copies a message out of its buffer before {@link BinaryMessenger#send} or {@link
+ * BinaryMessenger.BinaryReply#reply} returns, so the buffer can be reused right after.
+ *
+ * <p>It can also report the messages Dart didn't decode: Dart replies with no message when it has
+ * no handler for the channel, such as during a hot restart, or when decoding fails.
+ */
+class PooledBinaryMessenger implements BinaryMessenger {
+  @NonNull private final BinaryMessenger messenger;
+  @NonNull private final EncodeBufferPool pool;
+  @Nullable private final Runnable onUndecodedMessage;
+
+  PooledBinaryMessenger(@NonNull BinaryMessenger messenger, @NonNull EncodeBufferPool pool) {
+    this(messenger, pool, null);
+  }
+
+  /** Runs {@code onUndecodedMessage} on the main thread for each message Dart didn't decode. */
+  PooledBinaryMessenger(
+      @NonNull BinaryMessenger messenger,
+      @NonNull EncodeBufferPool pool,
+      @Nullable Runnable onUndecodedMessage) {
+    this.messenger = messenger;
+    this.pool = pool;
+    this.onUndecodedMessage = onUndecodedMessage;
+  }
+
+  @Override
+  public void send(@NonNull String channel, @Nullable ByteBuffer message) {
+    if (onUndecodedMessage != null) {
+      send(channel, message, null);
+      return;
+    }
+    messenger.send(channel, message);
+    if (message != null) {
+      pool.release(message);
+    }
+  }
+
+  @Override
+  public void send(
+      @NonNull String channel, @Nullable ByteBuffer message, @Nullable BinaryReply callback) {
+    messenger.send(channel, message, reportingUndecoded(callback));
+    if (message != null) {
+      pool.release(message);
+    }
+  }
+
+  @Override
+  public void setMessageHandler(
+      @NonNull String channel, @Nullable final BinaryMessageHandler handler) {
+    messenger.setMessageHandler(channel, handler == null ? null : releasingReplies(handler));
+  }
+
+  @Override
+  public void setMessageHandler(
+      @NonNull String channel,
+      @Nullable final BinaryMessageHandler handler,
+      @Nullable TaskQueue taskQueue) {
+    messenger.setMessageHandler(
+        channel, handler == null ? null : releasingReplies(handler), taskQueue);
+  }
+
+  @Override
+  public TaskQueue makeBackgroundTaskQueue() {
+    return messenger.makeBackgroundTaskQueue();
+  }
+
+  /** Wraps {@code callback} so that an empty reply runs {@code onUndecodedMessage} first. */
+  @Nullable
+  private BinaryReply reportingUndecoded(@Nullable final BinaryReply callback) {
+    if (onUndecodedMessage == null) {
+      return callback;
+    }
+    return new BinaryReply() {
+      @Override
+      public void reply(@Nullable ByteBuffer reply) {
+        if (reply == null) {
+          onUndecodedMessage.run();
+        }
+        if (callback != null) {
+          callback.reply(reply);
+        }
+      }
+    };
+  }
+
+  /** Wraps {@code handler} so the buffers of its replies are released once sent. */
+  @NonNull
+  private BinaryMessageHandler releasingReplies(@NonNull final BinaryMessageHandler handler) {
+    return new BinaryMessageHandler() {
+      @Override
+      public void onMessage(@Nullable ByteBuffer message, @NonNull final BinaryReply reply) {
+        handler.onMessage(
+            message,
+            new BinaryReply() {
+              @Override
+              public void reply(@Nullable ByteBuffer replyMessage) {
+                reply.reply(replyMessage);
+                if (replyMessage != null) {
+                  pool.release(replyMessage);
+                }
+              }
+            });
+      }
+    };
+  }
+}
@@ -0,0 +1,135 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.view.Choreographer;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.gms.ads.RequestConfiguration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link RequestConfiguration} the plugin has set, so reads don't ask the SDK and updates
+ * that change nothing don't reach it.
+ *
+ * <p>An update is applied to the cached configuration right away and set on the SDK on the next
+ * frame, so several updates made in one frame take a single SDK call. {@link #flush()} sets it
+ * sooner, and the plugin calls it before handling any other call, so loads always use the latest
+ * configuration.
+ *
+ * <p>The SDK's configuration is read once, on first use. Changes made to it outside the plugin
+ * after that aren't seen, and are replaced by the next update that changes something.
+ *
+ * <p>This class is only used on the main thread.
+ */
+class RequestConfigurationCache {
+  @NonNull private final FlutterMobileAdsWrapper mobileAds;
+  @Nullable private RequestConfiguration configuration;
+  private boolean pending;
+  private long updates;
+  private long skippedUpdates;
+  private long sdkUpdates;
+
+  @NonNull
+  private final Choreographer.FrameCallback flushOnFrame =
+      new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          flush();
+        }
+      };
+
+  RequestConfigurationCache(@NonNull FlutterMobileAdsWrapper mobileAds) {
+    this.mobileAds = mobileAds;
+  }
+
+  /** Returns the configuration, including updates not set on the SDK yet. */
+  @NonNull
+  RequestConfiguration get() {
+    if (configuration == null) {
+      configuration = mobileAds.getRequestConfiguration();
+    }
+    return configuration;
+  }
+
+  /**
+   * Updates the configuration with every field that isn't null, and schedules setting it on the SDK
+   * if any of them changed it.
+   */
+  void update(
+      @Nullable String maxAdContentRating,
+      @Nullable Integer tagForChildDirectedTreatment,
+      @Nullable Integer tagForUnderAgeOfConsent,
+      @Nullable List<String> testDeviceIds) {
+    updates++;
+    final RequestConfiguration current = get();
+    final boolean changed =
+        (maxAdContentRating != null
+                && !maxAdContentRating.equals(current.getMaxAdContentRating()))
+            || (tagForChildDirectedTreatment != null
+                && tagForChildDirectedTreatment != current.getTagForChildDirectedTreatment())
+            || (tagForUnderAgeOfConsent != null
+                && tagForUnderAgeOfConsent != current.getTagForUnderAgeOfConsent())
+            || (testDeviceIds != null
+                && !Objects.equals(testDeviceIds, current.getTestDeviceIds()));
+    if (!changed) {
+      skippedUpdates++;
+      return;
+    }
+
+    final RequestConfiguration.Builder builder = current.toBuilder();
+    if (maxAdContentRating != null) {
+      builder.setMaxAdContentRating(maxAdContentRating);
+    }
+    if (tagForChildDirectedTreatment != null) {
+      builder.setTagForChildDirectedTreatment(tagForChildDirectedTreatment);
+    }
+    if (tagForUnderAgeOfConsent != null) {
+      builder.setTagForUnderAgeOfConsent(tagForUnderAgeOfConsent);
+    }
+    if (testDeviceIds != null) {
+      builder.setTestDeviceIds(testDeviceIds);
+    }
+    configuration = builder.build();
+    if (!pending) {
+      pending = true;
+      Choreographer.getInstance().postFrameCallback(flushOnFrame);
+    }
+  }
+
+  /** Sets the configuration on the SDK now if an update hasn't been set yet. */
+  void flush() {
+    if (!pending) {
+      return;
+    }
+    pending = false;
+    Choreographer.getInstance().removeFrameCallback(flushOnFrame);
+    sdkUpdates++;
+    mobileAds.setRequestConfiguration(get());
+  }
+
+  /** Returns how many updates were made, how many changed nothing and how many reached the SDK. */
+  @NonNull
+  Map<String, Object> getStats() {
+    final Map<String, Object> stats = new HashMap<>();
+    stats.put("updates", updates);
+    stats.put("skippedUpdates", skippedUpdates);
+    stats.put("sdkUpdates", sdkUpdates);
+    return stats;
+  }
+}
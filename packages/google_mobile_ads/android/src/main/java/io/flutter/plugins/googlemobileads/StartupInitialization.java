@@ -0,0 +1,78 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.gms.ads.MobileAds;
+import com.google.android.gms.ads.initialization.InitializationStatus;
+import com.google.android.gms.ads.initialization.OnInitializationCompleteListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SDK initialization {@link MobileAdsInitializer} starts when the process starts, before the
+ * Flutter engine, so later calls to initialize can wait for it instead of starting another.
+ *
+ * <p>Listeners added before initialization completes are called when it does, in the order they
+ * were added. Listeners added after are called right away with the same status.
+ */
+class StartupInitialization implements OnInitializationCompleteListener {
+  @Nullable private static StartupInitialization instance;
+
+  @NonNull private final List<OnInitializationCompleteListener> listeners = new ArrayList<>();
+  @Nullable private InitializationStatus status;
+
+  /** Starts initializing the SDK, unless it was already started. */
+  static synchronized void start(@NonNull Context context) {
+    if (instance == null) {
+      instance = new StartupInitialization();
+      MobileAds.initialize(context.getApplicationContext(), instance);
+    }
+  }
+
+  /** Returns the initialization started when the process started, or null if there was none. */
+  @Nullable
+  static synchronized StartupInitialization get() {
+    return instance;
+  }
+
+  /** Calls {@code listener} once initialization completes, or now if it already has. */
+  void addListener(@NonNull OnInitializationCompleteListener listener) {
+    final InitializationStatus completedStatus;
+    synchronized (this) {
+      completedStatus = status;
+      if (completedStatus == null) {
+        listeners.add(listener);
+        return;
+      }
+    }
+    listener.onInitializationComplete(completedStatus);
+  }
+
+  @Override
+  public void onInitializationComplete(@NonNull InitializationStatus initializationStatus) {
+    final List<OnInitializationCompleteListener> waiting;
+    synchronized (this) {
+      status = initializationStatus;
+      waiting = new ArrayList<>(listeners);
+      listeners.clear();
+    }
+    for (OnInitializationCompleteListener listener : waiting) {
+      listener.onInitializationComplete(initializationStatus);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The Android half of the string dictionary {@link AdMessageCodec} uses for method calls sent to
+ * Dart. The first time a string is written it is defined with an id, and later writes refer to the
+ * id, so strings repeated across events, such as map keys, adapter class names and currency codes,
+ * are encoded and sent once. Dart keeps the strings it was sent by id.
+ *
+ * <p>At most {@code capacity} strings are kept. Once full, the id of the least recently written
+ * string is reused for the next new string, whose definition replaces it on the Dart side too.
+ *
+ * <p>Ids only mean the same thing on both sides while messages reach Dart in the order they were
+ * encoded. This class is only used on the main thread, where method calls are encoded and sent
+ * together. Dart may still miss definitions, for example when it has no handler during a hot
+ * restart, so the dictionary is cleared whenever Dart doesn't decode a method call.
+ */
+class StringDictionary {
+  static final int DEFAULT_CAPACITY = 256;
+
+  /** Longer strings are rarely repeated, so they are always written in full. */
+  static final int MAX_STRING_LENGTH = 256;
+
+  private final int capacity;
+  @NonNull private final LinkedHashMap<String, Integer> ids = new LinkedHashMap<>(16, 0.75f, true);
+  private long hits;
+  private long definitions;
+  private long evictions;
+
+  StringDictionary() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  StringDictionary(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  /** Returns the id {@code string} was defined with, or -1 if it needs to be defined. */
+  int get(@NonNull String string) {
+    final Integer id = ids.get(string);
+    if (id == null) {
+      return -1;
+    }
+    hits++;
+    return id;
+  }
+
+  /** Defines {@code string}, which must not have an id, and returns its new id. */
+  int define(@NonNull String string) {
+    definitions++;
+    int id = ids.size();
+    if (id == capacity) {
+      final Iterator<Integer> eldest = ids.values().iterator();
+      id = eldest.next();
+      eldest.remove();
+      evictions++;
+    }
+    ids.put(string, id);
+    return id;
+  }
+
+  /** Forgets every string, so ids are defined again from the start. */
+  void clear() {
+    ids.clear();
+  }
+
+  /** Returns hit, definition and eviction counts, and the number of strings kept. */
+  @NonNull
+  Map<String, Object> getStats() {
+    final Map<String, Object> stats = new HashMap<>();
+    stats.put("hits", hits);
+    stats.put("definitions", definitions);
+    stats.put("evictions", evictions);
+    stats.put("size", ids.size());
+    stats.put("capacity", capacity);
+    return stats;
+  }
+}
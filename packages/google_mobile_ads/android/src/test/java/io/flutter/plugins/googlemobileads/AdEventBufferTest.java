@@ -0,0 +1,79 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link AdEventBuffer}. */
+@RunWith(RobolectricTestRunner.class)
+public class AdEventBufferTest {
+
+  private static FlutterAdEvent event(byte type, int adId) {
+    return new FlutterAdEvent(type, adId);
+  }
+
+  @Test
+  public void drainReturnsEventsInOrder() {
+    final AdEventBuffer buffer = new AdEventBuffer(4);
+    buffer.add(event(FlutterAdEvent.AD_OPENED, 0));
+    buffer.add(event(FlutterAdEvent.AD_CLOSED, 1));
+
+    assertEquals(
+        Arrays.asList(event(FlutterAdEvent.AD_OPENED, 0), event(FlutterAdEvent.AD_CLOSED, 1)),
+        buffer.drain());
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void fullBufferDropsOldestLowPriorityEvent() {
+    final AdEventBuffer buffer = new AdEventBuffer(3);
+    buffer.add(event(FlutterAdEvent.AD_OPENED, 0));
+    buffer.add(event(FlutterAdEvent.AD_IMPRESSION, 0));
+    buffer.add(event(FlutterAdEvent.PAID_EVENT, 0));
+
+    buffer.add(event(FlutterAdEvent.AD_CLOSED, 0));
+
+    assertEquals(1, buffer.getDroppedCount());
+    assertEquals(
+        Arrays.asList(
+            event(FlutterAdEvent.AD_OPENED, 0),
+            event(FlutterAdEvent.PAID_EVENT, 0),
+            event(FlutterAdEvent.AD_CLOSED, 0)),
+        buffer.drain());
+  }
+
+  @Test
+  public void fullBufferOfHighPriorityEventsDropsOldest() {
+    final AdEventBuffer buffer = new AdEventBuffer(2);
+    for (int i = 0; i < 5; i++) {
+      buffer.add(event(FlutterAdEvent.AD_OPENED, i));
+    }
+
+    assertEquals(3, buffer.getDroppedCount());
+    assertEquals(
+        Arrays.asList(event(FlutterAdEvent.AD_OPENED, 3), event(FlutterAdEvent.AD_OPENED, 4)),
+        buffer.drain());
+
+    // Still usable after wrapping around.
+    buffer.add(event(FlutterAdEvent.AD_CLOSED, 5));
+    assertEquals(Arrays.asList(event(FlutterAdEvent.AD_CLOSED, 5)), buffer.drain());
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link AdEventMetrics}. */
+@RunWith(RobolectricTestRunner.class)
+public class AdEventMetricsTest {
+
+  @Test
+  public void bucketsArePowersOfTwo() {
+    assertEquals(0, AdEventMetrics.bucketOf(0));
+    assertEquals(1, AdEventMetrics.bucketOf(1));
+    assertEquals(2, AdEventMetrics.bucketOf(2));
+    assertEquals(2, AdEventMetrics.bucketOf(3));
+    assertEquals(11, AdEventMetrics.bucketOf(1024));
+    assertEquals(AdEventMetrics.BUCKET_COUNT - 1, AdEventMetrics.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void formatOfAd() {
+    assertEquals(
+        AdEventMetrics.FORMAT_FLUID, AdEventMetrics.formatOf(mock(FluidAdManagerBannerAd.class)));
+    assertEquals(
+        AdEventMetrics.FORMAT_AD_MANAGER_BANNER,
+        AdEventMetrics.formatOf(mock(FlutterAdManagerBannerAd.class)));
+    assertEquals(
+        AdEventMetrics.FORMAT_BANNER, AdEventMetrics.formatOf(mock(FlutterBannerAd.class)));
+    assertEquals(AdEventMetrics.FORMAT_UNKNOWN, AdEventMetrics.formatOf(null));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void snapshotIncludesRecordedEvents() {
+    final AdEventMetrics metrics = new AdEventMetrics();
+    final FlutterAdEvent event = new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, 0);
+    event.adFormat = AdEventMetrics.FORMAT_BANNER;
+
+    metrics.recordSent(event, event.createdAtNanos + 5000);
+    metrics.recordSent(event, event.createdAtNanos + 5000);
+
+    final Map<String, Object> snapshot = metrics.snapshot();
+    final Map<String, Object> eventTypes = (Map<String, Object>) snapshot.get("eventTypes");
+    assertEquals(1, eventTypes.size());
+    final Map<String, Object> impressions = (Map<String, Object>) eventTypes.get("onAdImpression");
+    assertEquals(2L, impressions.get("count"));
+    assertEquals(10L, impressions.get("totalLatencyMicros"));
+    final long[] expectedHistogram = new long[AdEventMetrics.BUCKET_COUNT];
+    expectedHistogram[AdEventMetrics.bucketOf(5)] = 2;
+    assertArrayEquals(expectedHistogram, (long[]) impressions.get("latencyHistogram"));
+
+    final Map<String, Object> adFormats = (Map<String, Object>) snapshot.get("adFormats");
+    assertTrue(adFormats.containsKey("banner"));
+    assertFalse(adFormats.containsKey("unknown"));
+  }
+}
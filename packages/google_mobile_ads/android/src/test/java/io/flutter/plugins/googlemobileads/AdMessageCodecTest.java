@@ -14,10 +14,13 @@
 
 package io.flutter.plugins.googlemobileads;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -29,11 +32,13 @@ import android.content.Context;
 import android.location.Location;
 import com.google.android.gms.ads.AdSize;
 import com.google.android.gms.ads.RequestConfiguration;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdError;
 import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdapterResponseInfo;
 import io.flutter.plugins.googlemobileads.FlutterAd.FlutterResponseInfo;
 import io.flutter.plugins.googlemobileads.FlutterAdSize.AdSizeFactory;
 import io.flutter.plugins.googlemobileads.FlutterAdSize.AnchoredAdaptiveBannerAdSize;
 import io.flutter.plugins.googlemobileads.FlutterAdSize.InlineAdaptiveBannerAdSize;
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -103,6 +108,33 @@ public class AdMessageCodecTest {
             FlutterAdapterStatus.AdapterInitializationState.NOT_READY, "desc", 56.66));
   }
 
+  @Test
+  public void encodeAdEvent() {
+    final FlutterAdEvent event = new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, 5);
+    final ByteBuffer message = codec.encodeMessage(event);
+
+    // Type, event type and a one byte ad id.
+    assertEquals(3, message.limit());
+    assertEquals(event, codec.decodeMessage((ByteBuffer) message.position(0)));
+  }
+
+  @Test
+  public void encodeAdEventWithFields() {
+    final FlutterAdEvent event =
+        new FlutterAdEvent(FlutterAdEvent.PAID_EVENT, 300, 1200000L, 2, "USD");
+    final ByteBuffer message = codec.encodeMessage(event);
+
+    assertEquals(event, codec.decodeMessage((ByteBuffer) message.position(0)));
+  }
+
+  @Test
+  public void encodeAdEventWithLargeAdId() {
+    final FlutterAdEvent event = new FlutterAdEvent(FlutterAdEvent.AD_OPENED, Integer.MAX_VALUE);
+    final ByteBuffer message = codec.encodeMessage(event);
+
+    assertEquals(event, codec.decodeMessage((ByteBuffer) message.position(0)));
+  }
+
   @Test
   public void decodeServerSideVerificationOptions() {
     FlutterServerSideVerificationOptions options =
@@ -289,6 +321,49 @@ public class AdMessageCodecTest {
     assertEquals(codec.decodeMessage((ByteBuffer) message.position(0)), flutterAdManagerAdRequest);
   }
 
+  @Test
+  public void decodedRequestsAreInterned() {
+    final FlutterAdRequest request =
+        new FlutterAdRequest.Builder().setKeywords(Arrays.asList("1", "2")).build();
+    final ByteBuffer message = codec.encodeMessage(request);
+
+    final Object first = codec.decodeMessage((ByteBuffer) message.position(0));
+    final Object second = codec.decodeMessage((ByteBuffer) message.position(0));
+
+    assertTrue(first == second);
+    assertEquals(1L, codec.requestInterner.getStats().get("hits"));
+  }
+
+  @Test
+  public void decodeLocationWithIntTimeAndReuseIt() {
+    // Dart writes times that fit in 32 bits as ints.
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    stream.write(147);
+    codec.writeValue(stream, 1.5);
+    codec.writeValue(stream, 25.0);
+    codec.writeValue(stream, 38.0);
+    codec.writeValue(stream, 1000);
+    final ByteBuffer message = ByteBuffer.allocateDirect(stream.size());
+    message.put(stream.toByteArray());
+
+    final Location first = (Location) codec.decodeMessage((ByteBuffer) message.position(0));
+    assertEquals(1.5f, first.getAccuracy(), 0);
+    assertEquals(25.0, first.getLongitude(), 0);
+    assertEquals(38.0, first.getLatitude(), 0);
+    assertEquals(1000L, first.getTime());
+
+    // The same coordinates decode to the same location.
+    assertSame(first, codec.decodeMessage((ByteBuffer) message.position(0)));
+
+    final Location other = new Location("");
+    other.setLongitude(26.0);
+    final ByteBuffer otherMessage = codec.encodeMessage(other);
+    final Location decodedOther =
+        (Location) codec.decodeMessage((ByteBuffer) otherMessage.position(0));
+    assertNotSame(first, decodedOther);
+    assertEquals(26.0, decodedOther.getLongitude(), 0);
+  }
+
   @Test
   public void encodeFlutterAdSize() {
     final ByteBuffer message = codec.encodeMessage(new FlutterAdSize(1, 2));
@@ -325,6 +400,103 @@ public class AdMessageCodecTest {
     assertEquals(error.responseInfo, info);
   }
 
+  @Test
+  public void encodeSubclassesAsTheirSuperclass() {
+    final FlutterAdError error = new FlutterAdError(1, "domain", "message") {};
+    final FlutterAdRequest request =
+        new FlutterAdRequest.Builder().setKeywords(Arrays.asList("1", "2")).build();
+
+    // Encode twice so the second message uses the cached type of each class.
+    for (int i = 0; i < 2; i++) {
+      final ByteBuffer message = codec.encodeMessage(Arrays.asList(error, request, "string"));
+      final List<?> result = (List<?>) codec.decodeMessage((ByteBuffer) message.position(0));
+      assertEquals(result.get(0), new FlutterAdError(1, "domain", "message"));
+      assertEquals(result.get(1), request);
+      assertEquals(result.get(2), "string");
+    }
+  }
+
+  @Test
+  public void encodeFramedValues() {
+    codec.setFramingEnabled(true);
+    final FlutterAdEvent event = new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, 5);
+    final ByteBuffer message =
+        codec.encodeMessage(
+            Arrays.asList(new FlutterRewardedAd.FlutterRewardItem(23, "coins"), event, "string"));
+
+    // List type, list size, then the first frame.
+    assertEquals((byte) 150, message.get(2));
+    final List<?> result = (List<?>) codec.decodeMessage((ByteBuffer) message.position(0));
+    assertEquals(result.get(0), new FlutterRewardedAd.FlutterRewardItem(23, "coins"));
+    assertEquals(result.get(1), event);
+    assertEquals(result.get(2), "string");
+  }
+
+  @Test
+  public void decodeFramedValuesWithUnknownFieldsAndTypes() {
+    final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+    codec.writeValue(frame, new FlutterRewardedAd.FlutterRewardItem(23, "coins"));
+    codec.writeValue(frame, "field added later");
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    stream.write(12); // List
+    stream.write(3);
+    stream.write(150);
+    stream.write(frame.size());
+    stream.write(frame.toByteArray(), 0, frame.size());
+    // A frame holding a type added later.
+    stream.write(150);
+    stream.write(2);
+    stream.write(200);
+    stream.write(0);
+    codec.writeValue(stream, "after");
+    final ByteBuffer message = ByteBuffer.allocateDirect(stream.size());
+    message.put(stream.toByteArray());
+
+    final List<?> result = (List<?>) codec.decodeMessage((ByteBuffer) message.position(0));
+    assertEquals(result.get(0), new FlutterRewardedAd.FlutterRewardItem(23, "coins"));
+    assertNull(result.get(1));
+    assertEquals(result.get(2), "after");
+  }
+
+  @Test
+  public void writeMethodCallsWithStringDictionary() {
+    codec.setStringDictionaryEnabled(true);
+    final ByteArrayOutputStream first = new ByteArrayOutputStream();
+    codec.writeMethodCall(first, "onAdEvent", Collections.singletonList("USD"));
+    final ByteArrayOutputStream second = new ByteArrayOutputStream();
+    codec.writeMethodCall(second, "onAdEvent", Collections.singletonList("USD"));
+
+    // Strings are defined with an id the first time, then referred to by it.
+    final byte[] firstBytes = first.toByteArray();
+    assertEquals((byte) 151, firstBytes[0]);
+    assertEquals(0, firstBytes[1]);
+    assertEquals("onAdEvent".length(), firstBytes[2]);
+    assertArrayEquals(new byte[] {(byte) 152, 0, 12, 1, (byte) 152, 1}, second.toByteArray());
+    assertEquals(2L, codec.stringDictionary.getStats().get("hits"));
+
+    codec.setStringDictionaryEnabled(false);
+    final ByteArrayOutputStream disabled = new ByteArrayOutputStream();
+    codec.writeMethodCall(disabled, "onAdEvent", null);
+    assertEquals(7, disabled.toByteArray()[0]);
+  }
+
+  @Test
+  public void framedValuesWriteStringsInFull() {
+    codec.setStringDictionaryEnabled(true);
+    codec.setFramingEnabled(true);
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    codec.writeMethodCall(
+        stream, "onAdEvent", new FlutterRewardedAd.FlutterRewardItem(23, "coins"));
+
+    codec.setStringDictionaryEnabled(false);
+    final ByteBuffer message = ByteBuffer.allocateDirect(stream.size());
+    message.put(stream.toByteArray());
+    // Skip the defined method name to read the framed argument.
+    message.position(3 + "onAdEvent".length());
+    assertEquals(
+        new FlutterRewardedAd.FlutterRewardItem(23, "coins"), codec.decodeMessage(message));
+  }
+
   public void encodeInlineAdaptiveBanner() {
     AdSize adSize = new AdSize(100, 101);
     doReturn(adSize)
@@ -0,0 +1,157 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.content.Context;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.FlutterException;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link AdMethodCodec} and {@link PooledBinaryMessenger}. */
+@RunWith(RobolectricTestRunner.class)
+public class AdMethodCodecTest {
+  private AdMessageCodec messageCodec;
+  private EncodeBufferPool pool;
+  private AdMethodCodec codec;
+
+  @Before
+  public void setup() {
+    messageCodec = new AdMessageCodec(mock(Context.class));
+    pool = new EncodeBufferPool();
+    codec = new AdMethodCodec(messageCodec, pool);
+  }
+
+  @Test
+  public void encodesLikeStandardMethodCodec() {
+    final StandardMethodCodec standardCodec = new StandardMethodCodec(messageCodec);
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("adId", 1);
+    arguments.put(
+        "responseInfo",
+        new FlutterAd.FlutterResponseInfo(
+            "id", "adapter", Collections.<FlutterAd.FlutterAdapterResponseInfo>emptyList()));
+    final MethodCall call = new MethodCall("onAdEvent", arguments);
+
+    assertEquals(
+        bytesOf(standardCodec.encodeMethodCall(call)), bytesOf(codec.encodeMethodCall(call)));
+    assertEquals(
+        bytesOf(standardCodec.encodeSuccessEnvelope(Collections.singletonList("ok"))),
+        bytesOf(codec.encodeSuccessEnvelope(Collections.singletonList("ok"))));
+  }
+
+  @Test
+  public void sentBuffersAreReused() {
+    final BinaryMessenger messenger = mock(BinaryMessenger.class);
+    final ByteBuffer[] sent = new ByteBuffer[2];
+    doAnswer(
+            new Answer<Void>() {
+              int count;
+
+              @Override
+              public Void answer(InvocationOnMock invocation) {
+                // The engine copies the message before send returns.
+                sent[count++] = invocation.getArgument(1);
+                return null;
+              }
+            })
+        .when(messenger)
+        .send(eq("channel"), any(ByteBuffer.class), any());
+    final MethodChannel channel =
+        new MethodChannel(new PooledBinaryMessenger(messenger, pool), "channel", codec);
+
+    channel.invokeMethod("first", 1);
+    channel.invokeMethod("second", 2);
+
+    assertSame(sent[0], sent[1]);
+    assertEquals(1L, pool.getStats().get("buffersAllocated"));
+    assertEquals(1L, pool.getStats().get("buffersReused"));
+  }
+
+  @Test
+  public void undecodedMessagesAreReported() {
+    final BinaryMessenger messenger = mock(BinaryMessenger.class);
+    final Runnable onUndecodedMessage = mock(Runnable.class);
+    final BinaryMessenger.BinaryReply callback = mock(BinaryMessenger.BinaryReply.class);
+    final PooledBinaryMessenger pooledMessenger =
+        new PooledBinaryMessenger(messenger, pool, onUndecodedMessage);
+    pooledMessenger.send("channel", ByteBuffer.allocateDirect(1), callback);
+    pooledMessenger.send("channel", ByteBuffer.allocateDirect(1));
+    final ArgumentCaptor<BinaryMessenger.BinaryReply> replies =
+        ArgumentCaptor.forClass(BinaryMessenger.BinaryReply.class);
+    verify(messenger, times(2)).send(eq("channel"), any(ByteBuffer.class), replies.capture());
+
+    final ByteBuffer reply = ByteBuffer.allocateDirect(1);
+    replies.getAllValues().get(0).reply(reply);
+    verify(callback).reply(reply);
+    verify(onUndecodedMessage, never()).run();
+
+    // Dart replies with no message when it has no handler or fails to decode.
+    replies.getAllValues().get(0).reply(null);
+    replies.getAllValues().get(1).reply(null);
+    verify(callback).reply(null);
+    verify(onUndecodedMessage, times(2)).run();
+  }
+
+  @Test
+  public void errorRepliesResetTheStringDictionary() {
+    messageCodec.setStringDictionaryEnabled(true);
+    messageCodec.writeMethodCall(new ByteArrayOutputStream(), "onAdEvent", null);
+    assertEquals(1, messageCodec.stringDictionary.getStats().get("size"));
+
+    final ByteBuffer envelope =
+        new StandardMethodCodec(messageCodec).encodeErrorEnvelope("error", null, null);
+    envelope.flip();
+    try {
+      codec.decodeEnvelope(envelope);
+      fail();
+    } catch (FlutterException e) {
+      assertEquals("error", e.code);
+    }
+    assertEquals(0, messageCodec.stringDictionary.getStats().get("size"));
+  }
+
+  private static ByteBuffer bytesOf(ByteBuffer message) {
+    final ByteBuffer bytes = ByteBuffer.allocate(message.position());
+    message.flip();
+    bytes.put(message);
+    bytes.flip();
+    return bytes;
+  }
+}
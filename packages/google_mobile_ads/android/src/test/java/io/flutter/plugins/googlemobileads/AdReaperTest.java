@@ -0,0 +1,121 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link AdReaper}. */
+@RunWith(RobolectricTestRunner.class)
+public class AdReaperTest {
+
+  private final List<Integer> reapedIds = new ArrayList<>();
+  private AdReaper reaper;
+
+  @Before
+  public void setup() {
+    reapedIds.clear();
+    reaper =
+        new AdReaper(
+            new MainThreadDispatcher(),
+            new AdReaper.OnReapListener() {
+              @Override
+              public void onReap(int adId) {
+                reapedIds.add(adId);
+                reaper.onUntracked(adId);
+              }
+            });
+  }
+
+  @Test
+  public void nothingIsReapedByDefault() {
+    reaper.onTracked(0, true);
+    reaper.onStateChanged(0, AdReaper.STATE_FAILED);
+
+    shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.DAYS);
+    reaper.sweep();
+
+    assertTrue(reapedIds.isEmpty());
+  }
+
+  @Test
+  public void adsAreReapedOnceTheirStateOutlivesItsTtl() {
+    reaper.setTtls(1000, 2000, 3000);
+    reaper.onTracked(0, false);
+    reaper.onTracked(1, true);
+    reaper.onTracked(2, true);
+    reaper.onStateChanged(0, AdReaper.STATE_FAILED);
+    reaper.onStateChanged(1, AdReaper.STATE_DISMISSED);
+    reaper.onStateChanged(2, AdReaper.STATE_LOADED);
+
+    shadowOf(Looper.getMainLooper()).idleFor(1000, TimeUnit.MILLISECONDS);
+    assertEquals(Collections.singletonList(0), reapedIds);
+
+    shadowOf(Looper.getMainLooper()).idleFor(2000, TimeUnit.MILLISECONDS);
+    assertEquals(Arrays.asList(0, 1, 2), reapedIds);
+
+    final Map<String, Object> counts = reaper.getReapedCounts();
+    assertEquals(1L, counts.get("failed"));
+    assertEquals(1L, counts.get("dismissed"));
+    assertEquals(1L, counts.get("neverShown"));
+  }
+
+  @Test
+  public void loadedAdsWithViewsAndShowingAdsAreKept() {
+    reaper.setTtls(1000, 1000, 1000);
+    reaper.onTracked(0, false);
+    reaper.onTracked(1, true);
+    reaper.onStateChanged(0, AdReaper.STATE_LOADED);
+    reaper.onStateChanged(1, AdReaper.STATE_SHOWING);
+
+    shadowOf(Looper.getMainLooper()).idleFor(10, TimeUnit.SECONDS);
+
+    assertTrue(reapedIds.isEmpty());
+  }
+
+  @Test
+  public void changingStateRestartsTheTtl() {
+    reaper.setTtls(AdReaper.TTL_DISABLED, 1000, 1000);
+    reaper.onTracked(0, true);
+    reaper.onStateChanged(0, AdReaper.STATE_LOADED);
+
+    shadowOf(Looper.getMainLooper()).idleFor(900, TimeUnit.MILLISECONDS);
+    reaper.onStateChanged(0, AdReaper.STATE_SHOWING);
+    reaper.onStateChanged(0, AdReaper.STATE_DISMISSED);
+    shadowOf(Looper.getMainLooper()).idleFor(900, TimeUnit.MILLISECONDS);
+    assertTrue(reapedIds.isEmpty());
+
+    shadowOf(Looper.getMainLooper()).idleFor(1000, TimeUnit.MILLISECONDS);
+    assertEquals(Collections.singletonList(0), reapedIds);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroTtlThrows() {
+    reaper.setTtls(0, AdReaper.TTL_DISABLED, AdReaper.TTL_DISABLED);
+  }
+}
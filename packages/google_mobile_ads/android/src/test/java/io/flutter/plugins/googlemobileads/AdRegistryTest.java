@@ -0,0 +1,113 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link AdRegistry}. */
+@RunWith(RobolectricTestRunner.class)
+public class AdRegistryTest {
+
+  private AdRegistry registry;
+
+  @Before
+  public void setup() {
+    registry = new AdRegistry();
+  }
+
+  @Test
+  public void lookupsInBothDirections() {
+    final FlutterAd ad = mock(FlutterAd.class);
+    registry.put(7, ad);
+
+    assertSame(ad, registry.get(7));
+    assertEquals((Integer) 7, registry.idFor(ad));
+    assertNull(registry.get(8));
+    assertNull(registry.idFor(mock(FlutterAd.class)));
+  }
+
+  @Test
+  public void eventMasksFollowTheirAds() {
+    registry.put(0, mock(FlutterAd.class), 1 << FlutterAdEvent.AD_LOADED);
+    for (int i = 1; i < 40; i++) {
+      registry.put(i, mock(FlutterAd.class));
+    }
+    registry.remove(1);
+
+    assertEquals(1 << FlutterAdEvent.AD_LOADED, registry.eventMask(0));
+    assertEquals(FlutterAdEvent.ALL_TYPES_MASK, registry.eventMask(2));
+    assertEquals(FlutterAdEvent.ALL_TYPES_MASK, registry.eventMask(1));
+    assertEquals(1 << FlutterAdEvent.AD_LOADED, new AdRegistry(registry).eventMask(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicateIdThrows() {
+    registry.put(1, mock(FlutterAd.class));
+    registry.put(1, mock(FlutterAd.class));
+  }
+
+  @Test
+  public void removeKeepsOtherAdsReachable() {
+    final FlutterAd[] ads = new FlutterAd[500];
+    for (int i = 0; i < ads.length; i++) {
+      ads[i] = mock(FlutterAd.class);
+      registry.put(i, ads[i]);
+    }
+
+    for (int i = 0; i < ads.length; i += 2) {
+      assertSame(ads[i], registry.remove(i));
+    }
+
+    assertEquals(250, registry.size());
+    for (int i = 0; i < ads.length; i++) {
+      if (i % 2 == 0) {
+        assertNull(registry.get(i));
+        assertNull(registry.idFor(ads[i]));
+      } else {
+        assertSame(ads[i], registry.get(i));
+        assertEquals((Integer) i, registry.idFor(ads[i]));
+      }
+    }
+    assertNull(registry.remove(0));
+  }
+
+  @Test
+  public void clearRemovesEveryAd() {
+    final FlutterAd first = mock(FlutterAd.class);
+    final FlutterAd second = mock(FlutterAd.class);
+    registry.put(0, first);
+    registry.put(1, second);
+
+    final List<FlutterAd> values = registry.values();
+    assertEquals(2, values.size());
+    assertTrue(values.contains(first) && values.contains(second));
+
+    registry.clear();
+
+    assertEquals(0, registry.size());
+    assertNull(registry.get(0));
+    assertNull(registry.idFor(second));
+  }
+}
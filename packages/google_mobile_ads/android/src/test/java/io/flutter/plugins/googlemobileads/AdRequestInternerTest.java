@@ -0,0 +1,117 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.location.Location;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link AdRequestInterner}. */
+@RunWith(RobolectricTestRunner.class)
+public class AdRequestInternerTest {
+
+  @Test
+  public void requestsWithTheSameContentAreShared() {
+    final AdRequestInterner interner = new AdRequestInterner();
+
+    final FlutterAdRequest first = interner.intern(request("a"));
+    final FlutterAdRequest second = interner.intern(request("a"));
+    final FlutterAdRequest other = interner.intern(request("b"));
+
+    assertSame(first, second);
+    assertNotSame(first, other);
+    final Map<String, Object> stats = interner.getStats();
+    assertEquals(1L, stats.get("hits"));
+    assertEquals(2L, stats.get("misses"));
+    assertEquals(1.0 / 3, (double) stats.get("hitRate"), 0.0001);
+    assertEquals(2, stats.get("size"));
+  }
+
+  @Test
+  public void requestsWithEqualLocationsAreShared() {
+    final AdRequestInterner interner = new AdRequestInterner();
+
+    final FlutterAdRequest first =
+        interner.intern(new FlutterAdRequest.Builder().setLocation(location()).build());
+    final FlutterAdRequest second =
+        interner.intern(new FlutterAdRequest.Builder().setLocation(location()).build());
+
+    assertSame(first, second);
+  }
+
+  @Test
+  public void adManagerRequestsAreKeptApart() {
+    final AdRequestInterner interner = new AdRequestInterner();
+
+    final FlutterAdRequest request = interner.intern(request("a"));
+    final FlutterAdManagerAdRequest adManagerRequest =
+        interner.intern(adManagerRequest("a", "ppid-1"));
+    final FlutterAdManagerAdRequest otherPublisherProvidedId =
+        interner.intern(adManagerRequest("a", "ppid-2"));
+
+    assertNotSame(request, adManagerRequest);
+    assertNotSame(adManagerRequest, otherPublisherProvidedId);
+    assertSame(adManagerRequest, interner.intern(adManagerRequest("a", "ppid-1")));
+  }
+
+  @Test
+  public void leastRecentlyUsedRequestIsEvicted() {
+    final AdRequestInterner interner = new AdRequestInterner(2);
+
+    final FlutterAdRequest a = interner.intern(request("a"));
+    interner.intern(request("b"));
+    interner.intern(request("a"));
+    interner.intern(request("c"));
+
+    assertSame(a, interner.intern(request("a")));
+    assertEquals(2, interner.getStats().get("size"));
+    // "b" was evicted, so it is interned again.
+    final FlutterAdRequest b = request("b");
+    assertSame(b, interner.intern(b));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroCapacityThrows() {
+    new AdRequestInterner(0);
+  }
+
+  private static FlutterAdRequest request(String keyword) {
+    return new FlutterAdRequest.Builder().setKeywords(Arrays.asList(keyword)).build();
+  }
+
+  private static FlutterAdManagerAdRequest adManagerRequest(
+      String keyword, String publisherProvidedId) {
+    final FlutterAdManagerAdRequest.Builder builder = new FlutterAdManagerAdRequest.Builder();
+    builder.setKeywords(Arrays.asList(keyword));
+    builder.setPublisherProvidedId(publisherProvidedId);
+    return builder.build();
+  }
+
+  private static Location location() {
+    final Location location = new Location("");
+    location.setAccuracy(1.5f);
+    location.setLatitude(12.5);
+    location.setLongitude(-4.25);
+    location.setTime(1000);
+    return location;
+  }
+}
@@ -0,0 +1,109 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link EncodeBufferPool}. */
+@RunWith(RobolectricTestRunner.class)
+public class EncodeBufferPoolTest {
+
+  @Test
+  public void releasedBuffersAndStreamsAreReused() {
+    final EncodeBufferPool pool = new EncodeBufferPool();
+
+    final ByteBuffer first = encode(pool, 100);
+    assertTrue(first.isDirect());
+    assertEquals(EncodeBufferPool.MIN_BUFFER_CAPACITY, first.capacity());
+    assertEquals(100, first.position());
+    pool.release(first);
+
+    for (int i = 0; i < 10; i++) {
+      final ByteBuffer buffer = encode(pool, 100 + i);
+      assertSame(first, buffer);
+      assertEquals(100 + i, buffer.position());
+      pool.release(buffer);
+    }
+
+    final Map<String, Object> stats = pool.getStats();
+    assertEquals(1L, stats.get("streamsAllocated"));
+    assertEquals(0L, stats.get("streamGrowths"));
+    assertEquals(1L, stats.get("buffersAllocated"));
+    assertEquals(10L, stats.get("buffersReused"));
+  }
+
+  @Test
+  public void buffersArePooledByCapacity() {
+    final EncodeBufferPool pool = new EncodeBufferPool();
+
+    final ByteBuffer small = encode(pool, 10);
+    final ByteBuffer large = encode(pool, 1000);
+    assertEquals(1024, large.capacity());
+    pool.release(small);
+    pool.release(large);
+
+    assertSame(large, encode(pool, 600));
+    assertSame(small, encode(pool, 20));
+  }
+
+  @Test
+  public void newStreamsAreSizedFromRecentMessages() {
+    final EncodeBufferPool pool = new EncodeBufferPool();
+
+    // The first stream grows to fit a large message.
+    final EncodeBufferPool.Stream stream = pool.acquireStream();
+    stream.write(new byte[3000], 0, 3000);
+    pool.toBuffer(stream);
+    assertEquals(1L, pool.getStats().get("streamGrowths"));
+
+    // A second stream taken at the same time starts out large enough.
+    final EncodeBufferPool.Stream first = pool.acquireStream();
+    final EncodeBufferPool.Stream second = pool.acquireStream();
+    assertEquals(4096, second.buffer().length);
+    first.write(new byte[3000], 0, 3000);
+    second.write(new byte[3000], 0, 3000);
+    pool.toBuffer(first);
+    pool.toBuffer(second);
+    assertEquals(1L, pool.getStats().get("streamGrowths"));
+  }
+
+  @Test
+  public void largeMessagesAreNotPooled() {
+    final EncodeBufferPool pool = new EncodeBufferPool();
+    final int size = EncodeBufferPool.MAX_BUFFER_CAPACITY + 1;
+
+    final ByteBuffer buffer = encode(pool, size);
+    assertEquals(size, buffer.capacity());
+    pool.release(buffer);
+
+    assertEquals(1L, pool.getStats().get("unpooledBuffersAllocated"));
+    assertEquals(EncodeBufferPool.MIN_BUFFER_CAPACITY, encode(pool, 1).capacity());
+    assertEquals(1L, pool.getStats().get("buffersAllocated"));
+  }
+
+  private static ByteBuffer encode(EncodeBufferPool pool, int size) {
+    final EncodeBufferPool.Stream stream = pool.acquireStream();
+    stream.write(new byte[size], 0, size);
+    return pool.toBuffer(stream);
+  }
+}
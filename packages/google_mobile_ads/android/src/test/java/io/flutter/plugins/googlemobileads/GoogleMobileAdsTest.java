@@ -14,22 +14,29 @@
 
 package io.flutter.plugins.googlemobileads;
 
-import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
-import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
 
 import android.app.Activity;
 import android.content.Context;
 import android.os.Bundle;
+import android.os.Looper;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.lifecycle.ProcessLifecycleOwner;
 import androidx.test.core.app.ApplicationProvider;
 import com.google.android.gms.ads.AdError;
 import com.google.android.gms.ads.AdSize;
@@ -43,12 +50,14 @@ import com.google.android.gms.ads.initialization.OnInitializationCompleteListene
 import com.google.android.gms.ads.nativead.NativeAd;
 import com.google.android.gms.ads.nativead.NativeAdView;
 import io.flutter.embedding.engine.plugins.FlutterPlugin.FlutterPluginBinding;
+import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.StandardMethodCodec;
 import io.flutter.plugin.platform.PlatformViewRegistry;
+import io.flutter.plugins.googlemobileads.FlutterAd.FlutterAdapterResponseInfo;
 import io.flutter.plugins.googlemobileads.FlutterAd.FlutterResponseInfo;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -57,7 +66,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.hamcrest.Matcher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -85,7 +95,7 @@ public class GoogleMobileAdsTest {
         .send(
             eq("plugins.flutter.io/google_mobile_ads"),
             byteBufferCaptor.capture(),
-            (BinaryMessenger.BinaryReply) isNull());
+            any(BinaryMessenger.BinaryReply.class));
 
     return new StandardMethodCodec(new AdMessageCodec(null))
         .decodeMethodCall((ByteBuffer) byteBufferCaptor.getValue().position(0));
@@ -221,12 +231,10 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onAdLoaded"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
-    assertThat(
-        call.arguments, (Matcher) hasEntry("responseInfo", new FlutterResponseInfo(responseInfo)));
+    assertEquals(
+        new FlutterAdEvent(
+            FlutterAdEvent.AD_LOADED, 0, new FlutterResponseInfo(responseInfo)),
+        call.arguments);
   }
 
   @Test
@@ -245,11 +253,7 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onAdLoaded"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
-    assertThat(call.arguments, (Matcher) hasEntry("responseInfo", null));
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.AD_LOADED, 0, (Object) null), call.arguments);
   }
 
   @Test
@@ -268,15 +272,12 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onAdFailedToLoad"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
-    //noinspection rawtypes
-    assertThat(
-        call.arguments,
-        (Matcher)
-            hasEntry("loadAdError", new FlutterAd.FlutterLoadAdError(1, "hi", "friend", null)));
+    assertEquals(
+        new FlutterAdEvent(
+            FlutterAdEvent.AD_FAILED_TO_LOAD,
+            0,
+            new FlutterAd.FlutterLoadAdError(1, "hi", "friend", null)),
+        call.arguments);
   }
 
   @Test
@@ -295,14 +296,7 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onAppEvent"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("name", "color"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("data", "red"));
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.APP_EVENT, 0, "color", "red"), call.arguments);
   }
 
   @Test
@@ -321,10 +315,7 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onAdOpened"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.AD_OPENED, 0), call.arguments);
   }
 
   @Test
@@ -350,10 +341,7 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onNativeAdClicked"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.NATIVE_AD_CLICKED, 0), call.arguments);
   }
 
   @Test
@@ -379,10 +367,7 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onAdImpression"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, 0), call.arguments);
   }
 
   @Test
@@ -401,10 +386,7 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onAdClosed"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.AD_CLOSED, 0), call.arguments);
   }
 
   @Test
@@ -419,14 +401,439 @@ public class GoogleMobileAdsTest {
 
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
+    assertEquals(
+        new FlutterAdEvent(
+            FlutterAdEvent.REWARDED_AD_USER_EARNED_REWARD,
+            0,
+            new FlutterRewardedAd.FlutterRewardItem(23, "coins")),
+        call.arguments);
+  }
+
+  @Test
+  public void eventsRaisedTogetherAreSentAsOneBatch() {
+    testManager.onAdImpression(0);
+    testManager.onAdOpened(1);
+    testManager.onAdClosed(0);
+
+    final MethodCall call = getLastMethodCall();
+    assertEquals("onAdEvents", call.method);
+    assertEquals(
+        Arrays.asList(
+            new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, 0),
+            new FlutterAdEvent(FlutterAdEvent.AD_OPENED, 1),
+            new FlutterAdEvent(FlutterAdEvent.AD_CLOSED, 0)),
+        call.arguments);
+  }
+
+  @Test
+  public void eventBatchWindowDelaysFlush() {
+    testManager.setEventBatchWindowMillis(16);
+    testManager.onAdImpression(0);
+
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(mockMessenger, never())
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+
+    testManager.onAdOpened(0);
+    shadowOf(Looper.getMainLooper()).idleFor(16, TimeUnit.MILLISECONDS);
+
+    final MethodCall call = getLastMethodCall();
+    assertEquals("onAdEvents", call.method);
     //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("eventName", "onRewardedAdUserEarnedReward"));
-    //noinspection rawtypes
-    assertThat(call.arguments, (Matcher) hasEntry("adId", 0));
-    //noinspection rawtypes
-    assertThat(
-        call.arguments,
-        (Matcher) hasEntry("rewardItem", new FlutterRewardedAd.FlutterRewardItem(23, "coins")));
+    assertEquals(2, ((List) call.arguments).size());
+  }
+
+  @Test
+  public void disabledEventBatchingSendsOnMainThreadWithoutPosting() {
+    final MainThreadDispatcher dispatcher = new MainThreadDispatcher();
+    final AdInstanceManager manager =
+        new AdInstanceManager(
+            new MethodChannel(
+                mockMessenger,
+                "plugins.flutter.io/google_mobile_ads",
+                new StandardMethodCodec(new AdMessageCodec(mockActivity))),
+            dispatcher);
+    manager.setEventBatchWindowMillis(AdEventBatcher.BATCH_WINDOW_DISABLED);
+
+    manager.onAdImpression(0);
+
+    final MethodCall call = getLastMethodCall();
+    assertEquals("onAdEvent", call.method);
+    assertEquals(1, dispatcher.getDirectCount());
+    assertEquals(0, dispatcher.getPostedCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void eventBatchWindowMustNotBeNegative() {
+    testManager.setEventBatchWindowMillis(-2);
+  }
+
+  @Test
+  public void eventsRaisedWhilePausedAreReplayedInOrder() {
+    testManager.trackAd(mock(FlutterBannerAd.class), 0);
+    testManager.pauseEvents();
+
+    testManager.onAdLoaded(0, null);
+    testManager.onAdImpression(0);
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(mockMessenger, never())
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+
+    testManager.resumeEvents();
+
+    final MethodCall call = getLastMethodCall();
+    assertEquals("onAdEvents", call.method);
+    assertEquals(
+        Arrays.asList(
+            new FlutterAdEvent(FlutterAdEvent.AD_LOADED, 0, (Object) null),
+            new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, 0)),
+        call.arguments);
+  }
+
+  @Test
+  public void eventsForDisposedAdsAreNotReplayed() {
+    testManager.trackAd(mock(FlutterBannerAd.class), 0);
+    testManager.trackAd(mock(FlutterBannerAd.class), 1);
+    testManager.pauseEvents();
+
+    testManager.onAdLoaded(0, null);
+    testManager.onAdLoaded(1, null);
+    shadowOf(Looper.getMainLooper()).idle();
+    testManager.disposeAd(0);
+    testManager.resumeEvents();
+
+    final MethodCall call = getLastMethodCall();
+    assertEquals("onAdEvent", call.method);
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.AD_LOADED, 1, (Object) null), call.arguments);
+  }
+
+  @Test
+  public void eventsRaisedWhileDetachedAreReplayedOnTheNewEngine() {
+    final GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(
+            mockFlutterPluginBinding, testManager, mock(FlutterMobileAdsWrapper.class));
+    testManager.trackAd(mock(FlutterBannerAd.class), 0);
+    plugin.onDetachedFromEngine(mockFlutterPluginBinding);
+
+    testManager.onAdLoaded(0, null);
+    testManager.onAdImpression(0);
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(mockMessenger, never())
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+
+    final BinaryMessenger newMessenger = mock(BinaryMessenger.class);
+    final List<MethodCall> sent = recordMethodCallsSentOn(newMessenger);
+    plugin.onAttachedToEngine(mockPluginBinding(newMessenger));
+    shadowOf(Looper.getMainLooper()).idle();
+
+    assertEquals(1, sent.size());
+    assertEquals("onAdEvents", sent.get(0).method);
+    assertEquals(
+        Arrays.asList(
+            new FlutterAdEvent(FlutterAdEvent.AD_LOADED, 0, (Object) null),
+            new FlutterAdEvent(FlutterAdEvent.AD_IMPRESSION, 0)),
+        sent.get(0).arguments);
+    verify(mockMessenger, never())
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+  }
+
+  @Test
+  public void appStateChannelsMoveToTheNewEngine() {
+    final GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(null, null, mock(FlutterMobileAdsWrapper.class));
+    final BinaryMessenger oldMessenger = mock(BinaryMessenger.class);
+    plugin.onAttachedToEngine(mockPluginBinding(oldMessenger));
+    plugin.onDetachedFromEngine(mockPluginBinding(oldMessenger));
+
+    final BinaryMessenger newMessenger = mock(BinaryMessenger.class);
+    plugin.onAttachedToEngine(mockPluginBinding(newMessenger));
+
+    // The old engine's handler is removed rather than left behind with a second notifier.
+    verify(oldMessenger)
+        .setMessageHandler("plugins.flutter.io/google_mobile_ads/app_state_method", null);
+    verify(newMessenger)
+        .setMessageHandler(
+            eq("plugins.flutter.io/google_mobile_ads/app_state_method"),
+            any(BinaryMessenger.BinaryMessageHandler.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void paidEventTotalsAreSentInTheBackgroundAfterReattaching() {
+    final GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(
+            mockFlutterPluginBinding, testManager, mock(FlutterMobileAdsWrapper.class));
+    plugin.onAttachedToEngine(mockPluginBinding(mock(BinaryMessenger.class)));
+    plugin.onMethodCall(
+        new MethodCall(
+            "MobileAds#setPaidEventAggregation",
+            Collections.singletonMap("flushIntervalMillis", 30000)),
+        mock(Result.class));
+    final FlutterBannerAd banner = mock(FlutterBannerAd.class);
+    doReturn("test-ad-unit").when(banner).getAdUnitId();
+    testManager.trackAd(banner, 0);
+
+    plugin.onDetachedFromEngine(mockFlutterPluginBinding);
+    final BinaryMessenger newMessenger = mock(BinaryMessenger.class);
+    final List<MethodCall> sent = recordMethodCallsSentOn(newMessenger);
+    plugin.onAttachedToEngine(mockPluginBinding(newMessenger));
+    testManager.onPaidEvent(banner, new FlutterAdValue(3, "USD", 2500));
+
+    final LifecycleRegistry lifecycle =
+        (LifecycleRegistry) ProcessLifecycleOwner.get().getLifecycle();
+    lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_START);
+    lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_STOP);
+
+    assertEquals(1, sent.size());
+    assertEquals("onPaidEventSummary", sent.get(0).method);
+    final Map<String, Object> summary =
+        ((List<Map<String, Object>>) sent.get(0).arguments).get(0);
+    assertEquals("test-ad-unit", summary.get("adUnitId"));
+    assertEquals(2500L, ((Number) summary.get("valueMicros")).longValue());
+
+    // Stop observing the process lifecycle, which outlives the test.
+    plugin.onMethodCall(
+        new MethodCall(
+            "MobileAds#setPaidEventAggregation",
+            Collections.singletonMap("flushIntervalMillis", null)),
+        mock(Result.class));
+  }
+
+  /** Returns a binding to an engine whose messages go to {@code messenger}. */
+  private static FlutterPluginBinding mockPluginBinding(BinaryMessenger messenger) {
+    final FlutterPluginBinding binding = mock(FlutterPluginBinding.class);
+    doReturn(ApplicationProvider.getApplicationContext()).when(binding).getApplicationContext();
+    doReturn(messenger).when(binding).getBinaryMessenger();
+    doReturn(mock(PlatformViewRegistry.class)).when(binding).getPlatformViewRegistry();
+    return binding;
+  }
+
+  /**
+   * Returns the list the method calls sent on the ad channel of {@code messenger} are added to.
+   * Messages are pooled, so each one is decoded as it is sent.
+   */
+  private static List<MethodCall> recordMethodCallsSentOn(BinaryMessenger messenger) {
+    final StandardMethodCodec codec = new StandardMethodCodec(new AdMessageCodec(null));
+    final List<MethodCall> sent = new ArrayList<>();
+    doAnswer(
+            new Answer() {
+              @Override
+              public Object answer(InvocationOnMock invocation) {
+                final ByteBuffer message = ((ByteBuffer) invocation.getArgument(1)).duplicate();
+                message.flip();
+                sent.add(codec.decodeMethodCall(message));
+                return null;
+              }
+            })
+        .when(messenger)
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+    return sent;
+  }
+
+  @Test
+  public void eventsAreBufferedWhenDartHasNoHandler() {
+    testManager.trackAd(mock(FlutterBannerAd.class), 0);
+    testManager.onAdLoaded(0, null);
+    shadowOf(Looper.getMainLooper()).idle();
+
+    // A null reply means Dart has no handler for the channel.
+    final ArgumentCaptor<BinaryMessenger.BinaryReply> replyCaptor =
+        ArgumentCaptor.forClass(BinaryMessenger.BinaryReply.class);
+    verify(mockMessenger)
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            replyCaptor.capture());
+    replyCaptor.getValue().reply(null);
+
+    testManager.onAdOpened(0);
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(mockMessenger, times(1))
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+
+    testManager.resumeEvents();
+    shadowOf(Looper.getMainLooper()).idle();
+
+    final ArgumentCaptor<ByteBuffer> messageCaptor = ArgumentCaptor.forClass(ByteBuffer.class);
+    verify(mockMessenger, times(2))
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            messageCaptor.capture(),
+            any(BinaryMessenger.BinaryReply.class));
+    final MethodCall call =
+        new StandardMethodCodec(new AdMessageCodec(null))
+            .decodeMethodCall((ByteBuffer) messageCaptor.getValue().position(0));
+    assertEquals("onAdEvents", call.method);
+    assertEquals(
+        Arrays.asList(
+            new FlutterAdEvent(FlutterAdEvent.AD_LOADED, 0, (Object) null),
+            new FlutterAdEvent(FlutterAdEvent.AD_OPENED, 0)),
+        call.arguments);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void stringsOfEventsDartDidNotDecodeAreDefinedAgain() {
+    final GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(
+            mockFlutterPluginBinding, testManager, mock(FlutterMobileAdsWrapper.class));
+    final BinaryMessenger messenger = mock(BinaryMessenger.class);
+    final List<byte[]> sent = new ArrayList<>();
+    final List<BinaryMessenger.BinaryReply> replies = new ArrayList<>();
+    doAnswer(
+            new Answer() {
+              @Override
+              public Object answer(InvocationOnMock invocation) {
+                final ByteBuffer message = ((ByteBuffer) invocation.getArgument(1)).duplicate();
+                message.flip();
+                final byte[] bytes = new byte[message.remaining()];
+                message.get(bytes);
+                sent.add(bytes);
+                replies.add((BinaryMessenger.BinaryReply) invocation.getArgument(2));
+                return null;
+              }
+            })
+        .when(messenger)
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+    plugin.onAttachedToEngine(mockPluginBinding(messenger));
+    plugin.onMethodCall(
+        new MethodCall("MobileAds#setStringDictionary", Collections.singletonMap("enabled", true)),
+        mock(Result.class));
+    testManager.trackAd(mock(FlutterBannerAd.class), 0);
+    testManager.onAdImpression(0);
+    shadowOf(Looper.getMainLooper()).idle();
+    testManager.onAdImpression(0);
+    shadowOf(Looper.getMainLooper()).idle();
+    // The method name was defined by the first event and referred to by the second.
+    assertEquals((byte) 151, sent.get(0)[0]);
+    assertEquals((byte) 152, sent.get(1)[0]);
+
+    // Dart is restarting and has no handler, so neither event was decoded.
+    replies.get(0).reply(null);
+    replies.get(1).reply(null);
+    final Result metricsResult = mock(Result.class);
+    plugin.onMethodCall(new MethodCall("Diagnostics#getMetrics", null), metricsResult);
+    final ArgumentCaptor<Map<String, Object>> metrics = ArgumentCaptor.forClass(Map.class);
+    verify(metricsResult).success(metrics.capture());
+    assertEquals(
+        0, ((Map<String, Object>) metrics.getValue().get("stringDictionary")).get("size"));
+
+    // The buffered events are replayed once Dart has a handler, defining their strings again.
+    testManager.resumeEvents();
+    shadowOf(Looper.getMainLooper()).idle();
+    assertEquals(3, sent.size());
+    assertEquals((byte) 151, sent.get(2)[0]);
+
+    // After "_init", the events of the ads it disposed are dropped and the restarted app starts a
+    // new dictionary.
+    replies.get(2).reply(null);
+    plugin.onMethodCall(new MethodCall("_init", null), mock(Result.class));
+    plugin.onMethodCall(
+        new MethodCall("MobileAds#setStringDictionary", Collections.singletonMap("enabled", true)),
+        mock(Result.class));
+    testManager.trackAd(mock(FlutterBannerAd.class), 1);
+    testManager.onAdImpression(1);
+    shadowOf(Looper.getMainLooper()).idle();
+    assertEquals(4, sent.size());
+    assertEquals((byte) 151, sent.get(3)[0]);
+  }
+
+  @Test
+  public void maskedOffEventsAreNotSent() {
+    final FlutterBannerAd bannerAd = mock(FlutterBannerAd.class);
+    final int eventMask =
+        FlutterAdEvent.ALL_TYPES_MASK
+            & ~(1 << FlutterAdEvent.AD_IMPRESSION)
+            & ~(1 << FlutterAdEvent.PAID_EVENT);
+    testManager.trackAd(bannerAd, 0, eventMask);
+
+    testManager.onAdImpression(0);
+    testManager.onPaidEvent(bannerAd, new FlutterAdValue(1, "USD", 100));
+    testManager.onAdLoaded(0, null);
+
+    final MethodCall call = getLastMethodCall();
+    assertEquals("onAdEvent", call.method);
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.AD_LOADED, 0, (Object) null), call.arguments);
+  }
+
+  @Test
+  public void lazyResponseInfoIsFetchedOnDemand() {
+    final FlutterBannerAd bannerAd = mock(FlutterBannerAd.class);
+    testManager.trackAd(bannerAd, 0);
+    testManager.setLazyResponseInfo(true);
+
+    final AdapterResponseInfo adapterInfo = mock(AdapterResponseInfo.class);
+    doReturn("adapter-class").when(adapterInfo).getAdapterClassName();
+    doReturn("description").when(adapterInfo).toString();
+    final ResponseInfo responseInfo = mock(ResponseInfo.class);
+    doReturn("response-id").when(responseInfo).getResponseId();
+    doReturn("class-name").when(responseInfo).getMediationAdapterClassName();
+    doReturn(Collections.singletonList(adapterInfo)).when(responseInfo).getAdapterResponses();
+
+    testManager.onAdLoaded(0, responseInfo);
+
+    final MethodCall call = getLastMethodCall();
+    assertEquals(
+        new FlutterAdEvent(
+            FlutterAdEvent.AD_LOADED,
+            0,
+            new FlutterResponseInfo(
+                "response-id", "class-name", new ArrayList<FlutterAdapterResponseInfo>())),
+        call.arguments);
+    // Adapter responses are only converted once they are fetched.
+    verify(responseInfo, never()).getAdapterResponses();
+
+    final FlutterResponseInfo fetched = testManager.getResponseInfo(0);
+    assertEquals(1, fetched.getAdapterResponses().size());
+    assertEquals("adapter-class", fetched.getAdapterResponses().get(0).getAdapterClassName());
+
+    testManager.disposeAd(0);
+    assertNull(testManager.getResponseInfo(0));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void failedAdsAreReapedAfterTheirTtl() {
+    final FlutterBannerAd banner = mock(FlutterBannerAd.class);
+    testManager.trackAd(banner, 0, 1 << FlutterAdEvent.AD_REAPED);
+    testManager.setOrphanedAdTtls(1000, AdReaper.TTL_DISABLED, AdReaper.TTL_DISABLED);
+
+    testManager.onAdFailedToLoad(0, mock(FlutterAd.FlutterLoadAdError.class));
+    shadowOf(Looper.getMainLooper()).idleFor(1000, TimeUnit.MILLISECONDS);
+
+    verify(banner).dispose();
+    assertNull(testManager.adForId(0));
+    final MethodCall call = getLastMethodCall();
+    assertEquals("onAdEvent", call.method);
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.AD_REAPED, 0), call.arguments);
+    assertEquals(
+        1L, ((Map<String, Object>) testManager.getMetrics().get("reapedAds")).get("failed"));
+    // The event is recorded under the format of the ad, though it was disposed first.
+    final Map<String, Object> adFormats =
+        (Map<String, Object>) testManager.getMetrics().get("adFormats");
+    assertNotNull(adFormats.get("banner"));
+    assertNull(adFormats.get("unknown"));
   }
 
   @Test
@@ -492,6 +899,102 @@ public class GoogleMobileAdsTest {
     verify(result).success(ArgumentMatchers.any(FlutterInitializationStatus.class));
   }
 
+  @Test
+  public void loadsWaitForInitializationToCompleteOnceADeadlineIsSet() {
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    GoogleMobileAdsPlugin plugin = spyPluginWithBanners(mockMobileAds);
+    plugin.onMethodCall(
+        new MethodCall(
+            "MobileAds#setInitializationLoadDeadline",
+            Collections.singletonMap("deadlineMillis", 5000)),
+        mock(Result.class));
+    final OnInitializationCompleteListener listener = initialize(plugin, mockMobileAds);
+
+    final Result result = mock(Result.class);
+    plugin.onMethodCall(new MethodCall("loadBannerAd", bannerLoadArguments(1)), result);
+
+    verify(result, never()).success(null);
+    assertNull(testManager.adForId(1));
+
+    listener.onInitializationComplete(mock(InitializationStatus.class));
+    verify(result).success(null);
+    assertNotNull(testManager.adForId(1));
+  }
+
+  @Test
+  public void loadsDontWaitForInitializationByDefault() {
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    GoogleMobileAdsPlugin plugin = spyPluginWithBanners(mockMobileAds);
+    initialize(plugin, mockMobileAds);
+
+    final Result result = mock(Result.class);
+    plugin.onMethodCall(new MethodCall("loadBannerAd", bannerLoadArguments(1)), result);
+
+    verify(result).success(null);
+    assertNotNull(testManager.adForId(1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void disposingAnAdWithAHeldLoadRepliesAndDropsTheLoad() {
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    GoogleMobileAdsPlugin plugin = spyPluginWithBanners(mockMobileAds);
+    plugin.onMethodCall(
+        new MethodCall(
+            "MobileAds#setInitializationLoadDeadline",
+            Collections.singletonMap("deadlineMillis", 5000)),
+        mock(Result.class));
+    final OnInitializationCompleteListener listener = initialize(plugin, mockMobileAds);
+    final Result result = mock(Result.class);
+    plugin.onMethodCall(new MethodCall("loadBannerAd", bannerLoadArguments(1)), result);
+
+    plugin.onMethodCall(
+        new MethodCall("disposeAd", Collections.singletonMap("adId", 1)), mock(Result.class));
+    verify(result).success(null);
+
+    // The held load was dropped, so it neither starts nor replies again.
+    listener.onInitializationComplete(mock(InitializationStatus.class));
+    verify(result, times(1)).success(null);
+    assertNull(testManager.adForId(1));
+    final Result metricsResult = mock(Result.class);
+    plugin.onMethodCall(new MethodCall("Diagnostics#getMetrics", null), metricsResult);
+    final ArgumentCaptor<Map<String, Object>> metrics = ArgumentCaptor.forClass(Map.class);
+    verify(metricsResult).success(metrics.capture());
+    final Map<String, Object> stats =
+        (Map<String, Object>) metrics.getValue().get("initializationLoadQueue");
+    assertEquals(0, stats.get("waiting"));
+    assertEquals(1L, stats.get("cancelled"));
+  }
+
+  /** Returns a spy plugin whose banner loads create mock ad views. */
+  private GoogleMobileAdsPlugin spyPluginWithBanners(FlutterMobileAdsWrapper mobileAds) {
+    GoogleMobileAdsPlugin plugin =
+        spy(new GoogleMobileAdsPlugin(mockFlutterPluginBinding, testManager, mobileAds));
+    BannerAdCreator bannerAdCreator = mock(BannerAdCreator.class);
+    doReturn(mock(AdView.class)).when(bannerAdCreator).createAdView();
+    doReturn(bannerAdCreator).when(plugin).getBannerAdCreator(any(Context.class));
+    return plugin;
+  }
+
+  /** Calls "MobileAds#initialize" and returns the listener given to the SDK. */
+  private static OnInitializationCompleteListener initialize(
+      GoogleMobileAdsPlugin plugin, FlutterMobileAdsWrapper mobileAds) {
+    plugin.onMethodCall(new MethodCall("MobileAds#initialize", null), mock(Result.class));
+    final ArgumentCaptor<OnInitializationCompleteListener> listener =
+        ArgumentCaptor.forClass(OnInitializationCompleteListener.class);
+    verify(mobileAds).initialize(any(Context.class), listener.capture());
+    return listener.getValue();
+  }
+
+  private Map<String, Object> bannerLoadArguments(int adId) {
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("adId", adId);
+    arguments.put("adUnitId", "test-ad-unit");
+    arguments.put("request", new FlutterAdRequest.Builder().build());
+    arguments.put("size", new FlutterAdSize(320, 50));
+    return arguments;
+  }
+
   @Test
   public void testGetRequestConfiguration() {
     AdInstanceManager testManagerSpy = spy(testManager);
@@ -513,6 +1016,70 @@ public class GoogleMobileAdsTest {
     verify(result).success(rc);
   }
 
+  @Test
+  public void requestConfigurationUpdatesAreSetBeforeTheNextCall() {
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    doReturn(new RequestConfiguration.Builder().build())
+        .when(mockMobileAds)
+        .getRequestConfiguration();
+    GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(mockFlutterPluginBinding, testManager, mockMobileAds);
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("maxAdContentRating", RequestConfiguration.MAX_AD_CONTENT_RATING_T);
+    arguments.put("testDeviceIds", Arrays.asList("id1"));
+
+    plugin.onMethodCall(
+        new MethodCall("MobileAds#updateRequestConfiguration", arguments), mock(Result.class));
+    plugin.onMethodCall(
+        new MethodCall("MobileAds#updateRequestConfiguration", arguments), mock(Result.class));
+    verify(mockMobileAds, never()).setRequestConfiguration(any(RequestConfiguration.class));
+    plugin.onMethodCall(new MethodCall("MobileAds#getVersionString", null), mock(Result.class));
+
+    final ArgumentCaptor<RequestConfiguration> captor =
+        ArgumentCaptor.forClass(RequestConfiguration.class);
+    verify(mockMobileAds).setRequestConfiguration(captor.capture());
+    assertEquals(
+        RequestConfiguration.MAX_AD_CONTENT_RATING_T, captor.getValue().getMaxAdContentRating());
+    assertEquals(Arrays.asList("id1"), captor.getValue().getTestDeviceIds());
+  }
+
+  @Test
+  public void lookupsOffMainThreadSeeConsistentRegistry() throws InterruptedException {
+    final FlutterBannerAd stable = mock(FlutterBannerAd.class);
+    testManager.trackAd(stable, 0);
+
+    final AtomicBoolean done = new AtomicBoolean();
+    final AtomicBoolean failed = new AtomicBoolean();
+    final Thread reader =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                while (!done.get()) {
+                  if (testManager.adForId(0) != stable
+                      || !Integer.valueOf(0).equals(testManager.adIdFor(stable))) {
+                    failed.set(true);
+                  }
+                }
+              }
+            });
+    reader.start();
+
+    for (int i = 1; i <= 200; i++) {
+      testManager.trackAd(mock(FlutterBannerAd.class), i);
+      if (i % 2 == 0) {
+        testManager.disposeAd(i - 1);
+      }
+    }
+    done.set(true);
+    reader.join();
+
+    assertFalse(failed.get());
+    assertEquals(stable, testManager.adForId(0));
+    assertNull(testManager.adForId(1));
+    assertNotNull(testManager.adForId(200));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void trackAdThrowsErrorForDuplicateId() {
     final FlutterBannerAd banner = mock(FlutterBannerAd.class);
@@ -528,13 +1095,51 @@ public class GoogleMobileAdsTest {
     testManager.onPaidEvent(banner, flutterAdValue);
     final MethodCall call = getLastMethodCall();
     assertEquals("onAdEvent", call.method);
-    //noinspection rawtypes
-    Map args = (Map) call.arguments;
-    assertEquals(args.get("eventName"), "onPaidEvent");
-    assertEquals(args.get("adId"), 1);
-    assertEquals(args.get("valueMicros"), 1L);
-    assertEquals(args.get("precision"), 1);
-    assertEquals(args.get("currencyCode"), "code");
+    assertEquals(new FlutterAdEvent(FlutterAdEvent.PAID_EVENT, 1, 1L, 1, "code"), call.arguments);
+  }
+
+  @Test
+  public void onPaidEventForUntrackedAdIsDropped() {
+    testManager.onPaidEvent(mock(FlutterBannerAd.class), new FlutterAdValue(1, "code", 1L));
+
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(mockMessenger, never())
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            any(ByteBuffer.class),
+            any(BinaryMessenger.BinaryReply.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void paidEventsAreSummarizedWhileAggregating() {
+    final FlutterBannerAd banner = mock(FlutterBannerAd.class);
+    doReturn("test-ad-unit").when(banner).getAdUnitId();
+    testManager.trackAd(banner, 0);
+    testManager.setPaidEventFlushIntervalMillis(1000);
+
+    testManager.onPaidEvent(banner, new FlutterAdValue(3, "USD", 100L));
+    testManager.onPaidEvent(banner, new FlutterAdValue(3, "USD", 50L));
+    shadowOf(Looper.getMainLooper()).idle();
+    testManager.flushPaidEvents();
+
+    // Summaries are sent without a reply callback.
+    final ArgumentCaptor<ByteBuffer> byteBufferCaptor = ArgumentCaptor.forClass(ByteBuffer.class);
+    verify(mockMessenger)
+        .send(
+            eq("plugins.flutter.io/google_mobile_ads"),
+            byteBufferCaptor.capture(),
+            ArgumentMatchers.<BinaryMessenger.BinaryReply>any());
+    final MethodCall call =
+        new StandardMethodCodec(new AdMessageCodec(null))
+            .decodeMethodCall((ByteBuffer) byteBufferCaptor.getValue().position(0));
+    assertEquals("onPaidEventSummary", call.method);
+    final Map<String, Object> summary = ((List<Map<String, Object>>) call.arguments).get(0);
+    assertEquals("test-ad-unit", summary.get("adUnitId"));
+    assertEquals("USD", summary.get("currencyCode"));
+    assertEquals(3, summary.get("precision"));
+    assertEquals(150L, summary.get("valueMicros"));
+    assertEquals(2L, summary.get("count"));
   }
 
   @Test
@@ -624,6 +1229,195 @@ public class GoogleMobileAdsTest {
     verify(result).success("Test-SDK-Version");
   }
 
+  @Test
+  public void callsFromTheTaskQueueAreHandledOnTheMainThread() throws InterruptedException {
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    doReturn("Test-SDK-Version").when(mockMobileAds).getVersionString();
+    final GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(mockFlutterPluginBinding, testManager, mockMobileAds);
+    final FlutterAdRequest request = mock(FlutterAdRequest.class);
+    final FlutterAdManagerAdRequest adManagerRequest = mock(FlutterAdManagerAdRequest.class);
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("request", request);
+    final Map<String, Object> loadArguments =
+        Collections.<String, Object>singletonMap("adManagerRequest", adManagerRequest);
+    arguments.put("loads", Collections.singletonList(load("loadAppOpenAd", loadArguments)));
+    final Result result = mock(Result.class);
+
+    final Thread taskQueue =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                plugin.onMethodCall(
+                    new MethodCall("MobileAds#getVersionString", arguments), result);
+              }
+            });
+    taskQueue.start();
+    taskQueue.join();
+
+    // SDK requests are built on the calling thread, the call itself waits for the main thread.
+    verify(request).asAdRequest();
+    verify(adManagerRequest).asAdManagerAdRequest();
+    verify(mockMobileAds, never()).getVersionString();
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(result).success("Test-SDK-Version");
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testGetMetrics() {
+    final FlutterBannerAd banner = mock(FlutterBannerAd.class);
+    testManager.trackAd(banner, 0);
+    testManager.onAdImpression(0);
+    getLastMethodCall();
+
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(mockFlutterPluginBinding, testManager, mockMobileAds);
+    Result result = mock(Result.class);
+    plugin.onMethodCall(new MethodCall("Diagnostics#getMetrics", null), result);
+
+    final ArgumentCaptor<Map<String, Object>> metricsCaptor = ArgumentCaptor.forClass(Map.class);
+    verify(result).success(metricsCaptor.capture());
+    final Map<String, Object> metrics = metricsCaptor.getValue();
+    final Map<String, Object> eventTypes = (Map<String, Object>) metrics.get("eventTypes");
+    final Map<String, Object> impressions = (Map<String, Object>) eventTypes.get("onAdImpression");
+    assertEquals(1L, impressions.get("count"));
+    final Map<String, Object> adFormats = (Map<String, Object>) metrics.get("adFormats");
+    assertNotNull(adFormats.get("banner"));
+    final Map<String, Object> mainThread = (Map<String, Object>) metrics.get("mainThreadDispatch");
+    assertEquals(1L, mainThread.get("posted"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void methodCallsAreTimedOnceEnabled() {
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(mockFlutterPluginBinding, testManager, mockMobileAds);
+    plugin.onMethodCall(new MethodCall("MobileAds#getVersionString", null), mock(Result.class));
+    plugin.onMethodCall(
+        new MethodCall(
+            "MobileAds#setMethodCallTiming", Collections.singletonMap("enabled", true)),
+        mock(Result.class));
+    plugin.onMethodCall(new MethodCall("MobileAds#getVersionString", null), mock(Result.class));
+    plugin.onMethodCall(
+        new MethodCall("showAdWithoutView", Collections.singletonMap("adId", 7)),
+        mock(Result.class));
+
+    Result result = mock(Result.class);
+    plugin.onMethodCall(new MethodCall("Diagnostics#getMetrics", null), result);
+
+    final ArgumentCaptor<Map<String, Object>> metricsCaptor = ArgumentCaptor.forClass(Map.class);
+    verify(result).success(metricsCaptor.capture());
+    final Map<String, Object> methodCalls =
+        (Map<String, Object>) metricsCaptor.getValue().get("methodCalls");
+    // The call made before timing was enabled isn't counted.
+    final Map<String, Object> versions =
+        (Map<String, Object>) methodCalls.get("MobileAds#getVersionString");
+    assertEquals(1L, versions.get("count"));
+    final Map<String, Object> shows = (Map<String, Object>) methodCalls.get("showAdWithoutView");
+    assertEquals(1L, shows.get("count"));
+    long replies = 0;
+    for (long bucket : (long[]) shows.get("latencyHistogram")) {
+      replies += bucket;
+    }
+    assertEquals(1L, replies);
+    // The metrics call replies only after its own snapshot is taken.
+    assertFalse(methodCalls.containsKey("Diagnostics#getMetrics"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void loadAdsRepliesWithAStatusPerLoad() {
+    GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(
+            mockFlutterPluginBinding, testManager, mock(FlutterMobileAdsWrapper.class));
+    final Map<String, Object> nativeArguments = new HashMap<>();
+    nativeArguments.put("adId", 0);
+    nativeArguments.put("adUnitId", "test-ad-unit");
+    nativeArguments.put("factoryId", "missing");
+    final Map<String, Object> rewardedArguments = new HashMap<>();
+    rewardedArguments.put("adId", 1);
+    rewardedArguments.put("adUnitId", "test-ad-unit");
+    final List<Map<String, Object>> loads = new ArrayList<>();
+    loads.add(load("loadNativeAd", nativeArguments));
+    loads.add(load("loadRewardedAd", rewardedArguments));
+    loads.add(load("disposeAd", Collections.<String, Object>singletonMap("adId", 0)));
+
+    Result result = mock(Result.class);
+    final MethodCall call = new MethodCall("loadAds", Collections.singletonMap("loads", loads));
+    plugin.onMethodCall(call, result);
+
+    final ArgumentCaptor<List<Object>> statusesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(result).success(statusesCaptor.capture());
+    final List<Object> statuses = statusesCaptor.getValue();
+    assertEquals(3, statuses.size());
+    assertEquals("NativeAdError", ((Map<String, Object>) statuses.get(0)).get("code"));
+    assertEquals("InvalidRequest", ((Map<String, Object>) statuses.get(1)).get("code"));
+    // Only load calls can be batched.
+    assertEquals("notImplemented", ((Map<String, Object>) statuses.get(2)).get("code"));
+    assertNull(testManager.adForId(0));
+    assertNull(testManager.adForId(1));
+  }
+
+  private static Map<String, Object> load(String method, Map<String, Object> arguments) {
+    final Map<String, Object> load = new HashMap<>();
+    load.put("method", method);
+    load.put("arguments", arguments);
+    return load;
+  }
+
+  @Test
+  public void testSetAdEventBatchWindow() {
+    AdInstanceManager testManagerSpy = spy(testManager);
+    FlutterMobileAdsWrapper mockMobileAds = mock(FlutterMobileAdsWrapper.class);
+    GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(mockFlutterPluginBinding, testManagerSpy, mockMobileAds);
+
+    MethodCall methodCall =
+        new MethodCall(
+            "MobileAds#setAdEventBatchWindow",
+            Collections.singletonMap("batchWindowMillis", 16));
+    Result result = mock(Result.class);
+    plugin.onMethodCall(methodCall, result);
+
+    verify(testManagerSpy).setEventBatchWindowMillis(16L);
+    verify(result).success(null);
+
+    methodCall =
+        new MethodCall(
+            "MobileAds#setAdEventBatchWindow",
+            Collections.singletonMap("batchWindowMillis", null));
+    plugin.onMethodCall(methodCall, result);
+
+    verify(testManagerSpy).setEventBatchWindowMillis(AdEventBatcher.BATCH_WINDOW_DISABLED);
+  }
+
+  @Test
+  public void bannerAdCreatorIsSharedAcrossActivities() {
+    GoogleMobileAdsPlugin plugin =
+        new GoogleMobileAdsPlugin(
+            mockFlutterPluginBinding, testManager, mock(FlutterMobileAdsWrapper.class));
+    FlutterPluginBinding binding = mock(FlutterPluginBinding.class);
+    Context context = ApplicationProvider.getApplicationContext();
+    doReturn(context).when(binding).getApplicationContext();
+    doReturn(mock(BinaryMessenger.class)).when(binding).getBinaryMessenger();
+    doReturn(mock(PlatformViewRegistry.class)).when(binding).getPlatformViewRegistry();
+    plugin.onAttachedToEngine(binding);
+
+    final BannerAdCreator creator = plugin.getBannerAdCreator(context);
+    ActivityPluginBinding activityBinding = mock(ActivityPluginBinding.class);
+    doReturn(mockActivity).when(activityBinding).getActivity();
+    plugin.onAttachedToActivity(activityBinding);
+    assertSame(creator, plugin.getBannerAdCreator(context));
+    // Banner views are still created with the application context.
+    assertSame(context, creator.getContext());
+    plugin.onDetachedFromActivity();
+    assertSame(creator, plugin.getBannerAdCreator(context));
+  }
+
   @Test
   public void testGetAnchoredAdaptiveBannerAdSize() {
     // Setup mocks
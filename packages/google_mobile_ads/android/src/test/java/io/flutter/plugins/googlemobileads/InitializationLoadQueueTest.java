@@ -0,0 +1,157 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link InitializationLoadQueue}. */
+@RunWith(RobolectricTestRunner.class)
+public class InitializationLoadQueueTest {
+
+  private final List<Integer> startedIds = new ArrayList<>();
+  private InitializationLoadQueue queue;
+
+  @Before
+  public void setup() {
+    startedIds.clear();
+    queue = new InitializationLoadQueue(new MainThreadDispatcher());
+    queue.setDeadlineMillis(5000);
+  }
+
+  private void hold(String method, final int adId, Result result) {
+    queue.hold(
+        method,
+        adId,
+        new Runnable() {
+          @Override
+          public void run() {
+            startedIds.add(adId);
+          }
+        },
+        result);
+  }
+
+  @Test
+  public void loadsAreNotHeldByDefault() {
+    final InitializationLoadQueue defaultQueue =
+        new InitializationLoadQueue(new MainThreadDispatcher());
+    defaultQueue.onInitializationStarted();
+    assertFalse(defaultQueue.isHolding());
+  }
+
+  @Test
+  public void loadsAreOnlyHeldWhileInitializing() {
+    assertFalse(queue.isHolding());
+    queue.onInitializationStarted();
+    assertTrue(queue.isHolding());
+    queue.onInitializationComplete();
+    assertFalse(queue.isHolding());
+    // Initializing again doesn't hold loads again.
+    queue.onInitializationStarted();
+    assertFalse(queue.isHolding());
+  }
+
+  @Test
+  public void heldLoadsStartByPriorityOnceInitialized() {
+    queue.onInitializationStarted();
+    hold("loadInterstitialAd", 1, mock(Result.class));
+    hold("loadBannerAd", 2, mock(Result.class));
+    hold("loadAppOpenAd", 3, mock(Result.class));
+    hold("loadNativeAd", 4, mock(Result.class));
+    hold("loadFluidAd", 5, mock(Result.class));
+    assertEquals(Collections.<Integer>emptyList(), startedIds);
+
+    shadowOf(Looper.getMainLooper()).idleFor(200, TimeUnit.MILLISECONDS);
+    queue.onInitializationComplete();
+
+    assertEquals(Arrays.asList(3, 2, 5, 4, 1), startedIds);
+    final Map<String, Object> stats = queue.getStats();
+    assertEquals(5L, stats.get("held"));
+    assertEquals(0L, stats.get("releasedByDeadline"));
+    assertEquals(0, stats.get("waiting"));
+    assertEquals(1000L, stats.get("totalWaitMillis"));
+    assertEquals(200L, stats.get("maxWaitMillis"));
+  }
+
+  @Test
+  public void heldLoadsStartAtTheDeadline() {
+    queue.setDeadlineMillis(1000);
+    queue.onInitializationStarted();
+    hold("loadBannerAd", 1, mock(Result.class));
+
+    shadowOf(Looper.getMainLooper()).idleFor(999, TimeUnit.MILLISECONDS);
+    assertEquals(Collections.<Integer>emptyList(), startedIds);
+    shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.MILLISECONDS);
+    assertEquals(Arrays.asList(1), startedIds);
+    assertFalse(queue.isHolding());
+    assertEquals(1L, queue.getStats().get("releasedByDeadline"));
+
+    // Completing initialization later has nothing left to start.
+    queue.onInitializationComplete();
+    assertEquals(Arrays.asList(1), startedIds);
+  }
+
+  @Test
+  public void loadsAreNeverHeldWithTheDeadlineDisabled() {
+    queue.setDeadlineMillis(InitializationLoadQueue.DEADLINE_DISABLED);
+    queue.onInitializationStarted();
+    assertFalse(queue.isHolding());
+  }
+
+  @Test
+  public void disablingTheDeadlineStartsHeldLoads() {
+    queue.onInitializationStarted();
+    hold("loadBannerAd", 1, mock(Result.class));
+    queue.setDeadlineMillis(InitializationLoadQueue.DEADLINE_DISABLED);
+    assertEquals(Arrays.asList(1), startedIds);
+    assertFalse(queue.isHolding());
+  }
+
+  @Test
+  public void heldLoadsOfDisposedAdsAreCancelled() {
+    queue.onInitializationStarted();
+    final Result disposed = mock(Result.class);
+    final Result kept = mock(Result.class);
+    hold("loadBannerAd", 1, disposed);
+    hold("loadBannerAd", 2, kept);
+
+    queue.cancel(1);
+    verify(disposed).success(null);
+    verify(kept, never()).success(null);
+    queue.onInitializationComplete();
+
+    assertEquals(Arrays.asList(2), startedIds);
+    assertEquals(1L, queue.getStats().get("cancelled"));
+  }
+}
@@ -0,0 +1,104 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link MainThreadDispatcher}. */
+@RunWith(RobolectricTestRunner.class)
+public class MainThreadDispatcherTest {
+
+  private MainThreadDispatcher dispatcher;
+
+  @Before
+  public void setup() {
+    dispatcher = new MainThreadDispatcher();
+  }
+
+  @Test
+  public void executeOnMainThreadRunsDirectly() {
+    final Runnable runnable = mock(Runnable.class);
+
+    assertTrue(dispatcher.isMainThread());
+    dispatcher.execute(runnable);
+
+    verify(runnable).run();
+    assertEquals(1, dispatcher.getDirectCount());
+    assertEquals(0, dispatcher.getPostedCount());
+  }
+
+  @Test
+  public void executeOffMainThreadPosts() throws InterruptedException {
+    final Runnable runnable = mock(Runnable.class);
+    final boolean[] wasMainThread = new boolean[] {true};
+
+    final Thread thread =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                wasMainThread[0] = dispatcher.isMainThread();
+                dispatcher.execute(runnable);
+              }
+            });
+    thread.start();
+    thread.join();
+
+    assertFalse(wasMainThread[0]);
+    verify(runnable, never()).run();
+    assertEquals(0, dispatcher.getDirectCount());
+    assertEquals(1, dispatcher.getPostedCount());
+
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(runnable).run();
+  }
+
+  @Test
+  public void postAlwaysQueues() {
+    final Runnable runnable = mock(Runnable.class);
+
+    dispatcher.post(runnable);
+    verify(runnable, never()).run();
+
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(runnable).run();
+    assertEquals(0, dispatcher.getDirectCount());
+    assertEquals(1, dispatcher.getPostedCount());
+  }
+
+  @Test
+  public void cancelRemovesDelayedPost() {
+    final Runnable runnable = mock(Runnable.class);
+
+    dispatcher.postDelayed(runnable, 16);
+    dispatcher.cancel(runnable);
+
+    shadowOf(Looper.getMainLooper()).idleFor(16, TimeUnit.MILLISECONDS);
+    verify(runnable, never()).run();
+  }
+}
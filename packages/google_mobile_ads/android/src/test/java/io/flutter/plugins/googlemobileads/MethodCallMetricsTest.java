@@ -0,0 +1,63 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link MethodCallMetrics}. */
+@RunWith(RobolectricTestRunner.class)
+public class MethodCallMetricsTest {
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void snapshotIncludesRecordedCalls() {
+    final MethodCallMetrics metrics =
+        new MethodCallMetrics(Arrays.asList("loadNativeAd", "showAdWithoutView"));
+
+    metrics.recordHandled("loadNativeAd", 3000);
+    metrics.recordReplied("loadNativeAd", 5000);
+    metrics.recordHandled("loadNativeAd", 1000);
+    metrics.recordReplied("loadNativeAd", 5000);
+    // Only the methods given up front are recorded.
+    metrics.recordHandled("unknown", 1000);
+
+    final Map<String, Object> snapshot = metrics.snapshot();
+    assertEquals(1, snapshot.size());
+    final Map<String, Object> loads = (Map<String, Object>) snapshot.get("loadNativeAd");
+    assertEquals(2L, loads.get("count"));
+    assertEquals(4L, loads.get("totalMainThreadMicros"));
+    assertEquals(10L, loads.get("totalLatencyMicros"));
+    final long[] expectedHistogram = new long[AdEventMetrics.BUCKET_COUNT];
+    expectedHistogram[AdEventMetrics.bucketOf(5)] = 2;
+    assertArrayEquals(expectedHistogram, (long[]) loads.get("latencyHistogram"));
+  }
+
+  @Test
+  public void disabledUntilEnabled() {
+    final MethodCallMetrics metrics = new MethodCallMetrics(Arrays.asList("disposeAd"));
+    assertFalse(metrics.isEnabled());
+    metrics.setEnabled(true);
+    assertTrue(metrics.isEnabled());
+  }
+}
@@ -0,0 +1,129 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link PaidEventAggregator}. */
+@RunWith(RobolectricTestRunner.class)
+public class PaidEventAggregatorTest {
+
+  private MethodChannel channel;
+  private PaidEventAggregator aggregator;
+
+  @Before
+  public void setup() {
+    channel = mock(MethodChannel.class);
+    aggregator = new PaidEventAggregator(channel, new MainThreadDispatcher());
+  }
+
+  @Test
+  public void totalsAreKeptPerAdUnitCurrencyAndPrecision() {
+    aggregator.add("unit-a", "USD", 3, 100);
+    aggregator.add("unit-a", "USD", 3, 250);
+    aggregator.add("unit-a", "USD", 1, 5);
+    aggregator.add("unit-a", "EUR", 3, 7);
+    aggregator.add("unit-b", "USD", 3, 11);
+
+    final List<Map<String, Object>> summaries = aggregator.drain();
+
+    assertEquals(4, summaries.size());
+    assertSummary(summaries.get(0), "unit-a", "USD", 3, 350, 2);
+    assertSummary(summaries.get(1), "unit-a", "USD", 1, 5, 1);
+    assertSummary(summaries.get(2), "unit-a", "EUR", 3, 7, 1);
+    assertSummary(summaries.get(3), "unit-b", "USD", 3, 11, 1);
+    assertTrue(aggregator.drain().isEmpty());
+  }
+
+  @Test
+  public void totalsAreSentEveryInterval() {
+    aggregator.setFlushIntervalMillis(1000);
+    assertTrue(aggregator.isEnabled());
+
+    aggregator.add("unit-a", "USD", 3, 100);
+    shadowOf(Looper.getMainLooper()).idleFor(999, TimeUnit.MILLISECONDS);
+    verify(channel, never()).invokeMethod(anyString(), any());
+
+    shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.MILLISECONDS);
+    verify(channel).invokeMethod(eq("onPaidEventSummary"), any());
+
+    // Intervals without paid events send nothing.
+    shadowOf(Looper.getMainLooper()).idleFor(1000, TimeUnit.MILLISECONDS);
+    verify(channel, times(1)).invokeMethod(eq("onPaidEventSummary"), any());
+
+    aggregator.add("unit-a", "USD", 3, 100);
+    shadowOf(Looper.getMainLooper()).idleFor(1000, TimeUnit.MILLISECONDS);
+    verify(channel, times(2)).invokeMethod(eq("onPaidEventSummary"), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void disablingSendsRemainingTotals() {
+    aggregator.setFlushIntervalMillis(1000);
+    aggregator.add("unit-a", "USD", 3, 100);
+
+    aggregator.setFlushIntervalMillis(PaidEventAggregator.AGGREGATION_DISABLED);
+
+    assertFalse(aggregator.isEnabled());
+    final ArgumentCaptor<List<Map<String, Object>>> captor =
+        ArgumentCaptor.forClass((Class) List.class);
+    verify(channel).invokeMethod(eq("onPaidEventSummary"), captor.capture());
+    assertSummary(captor.getValue().get(0), "unit-a", "USD", 3, 100, 1);
+
+    // The interval no longer fires.
+    shadowOf(Looper.getMainLooper()).idleFor(1000, TimeUnit.MILLISECONDS);
+    verify(channel, times(1)).invokeMethod(anyString(), any());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroFlushIntervalThrows() {
+    aggregator.setFlushIntervalMillis(0);
+  }
+
+  private static void assertSummary(
+      Map<String, Object> summary,
+      String adUnitId,
+      String currencyCode,
+      int precision,
+      long valueMicros,
+      long count) {
+    assertEquals(adUnitId, summary.get("adUnitId"));
+    assertEquals(currencyCode, summary.get("currencyCode"));
+    assertEquals(precision, summary.get("precision"));
+    assertEquals(valueMicros, summary.get("valueMicros"));
+    assertEquals(count, summary.get("count"));
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import com.google.android.gms.ads.RequestConfiguration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link RequestConfigurationCache}. */
+@RunWith(RobolectricTestRunner.class)
+public class RequestConfigurationCacheTest {
+
+  private FlutterMobileAdsWrapper mobileAds;
+  private RequestConfigurationCache cache;
+
+  @Before
+  public void setup() {
+    mobileAds = mock(FlutterMobileAdsWrapper.class);
+    final RequestConfiguration configuration =
+        new RequestConfiguration.Builder()
+            .setMaxAdContentRating(RequestConfiguration.MAX_AD_CONTENT_RATING_MA)
+            .setTestDeviceIds(Arrays.asList("id1"))
+            .build();
+    doReturn(configuration).when(mobileAds).getRequestConfiguration();
+    cache = new RequestConfigurationCache(mobileAds);
+  }
+
+  @Test
+  public void updatesThatChangeNothingAreSkipped() {
+    cache.update(RequestConfiguration.MAX_AD_CONTENT_RATING_MA, null, null, Arrays.asList("id1"));
+    cache.update(null, null, null, null);
+    shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.SECONDS);
+
+    verify(mobileAds, never()).setRequestConfiguration(any(RequestConfiguration.class));
+    // The SDK is only asked once.
+    cache.get();
+    verify(mobileAds, times(1)).getRequestConfiguration();
+    final Map<String, Object> stats = cache.getStats();
+    assertEquals(2L, stats.get("updates"));
+    assertEquals(2L, stats.get("skippedUpdates"));
+    assertEquals(0L, stats.get("sdkUpdates"));
+  }
+
+  @Test
+  public void updatesInOneFrameAreSetOnce() {
+    cache.update(RequestConfiguration.MAX_AD_CONTENT_RATING_G, null, null, null);
+    cache.update(null, RequestConfiguration.TAG_FOR_CHILD_DIRECTED_TREATMENT_TRUE, null, null);
+    // Reads see updates before they are set.
+    assertEquals(
+        RequestConfiguration.MAX_AD_CONTENT_RATING_G, cache.get().getMaxAdContentRating());
+    verify(mobileAds, never()).setRequestConfiguration(any(RequestConfiguration.class));
+
+    shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.SECONDS);
+
+    final ArgumentCaptor<RequestConfiguration> captor =
+        ArgumentCaptor.forClass(RequestConfiguration.class);
+    verify(mobileAds).setRequestConfiguration(captor.capture());
+    assertEquals(
+        RequestConfiguration.MAX_AD_CONTENT_RATING_G, captor.getValue().getMaxAdContentRating());
+    assertEquals(
+        RequestConfiguration.TAG_FOR_CHILD_DIRECTED_TREATMENT_TRUE,
+        captor.getValue().getTagForChildDirectedTreatment());
+    assertEquals(Arrays.asList("id1"), captor.getValue().getTestDeviceIds());
+  }
+
+  @Test
+  public void flushSetsAPendingUpdateNow() {
+    cache.update(null, null, null, Arrays.asList("id2"));
+    cache.flush();
+    verify(mobileAds).setRequestConfiguration(any(RequestConfiguration.class));
+
+    // Nothing is left for the frame.
+    shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.SECONDS);
+    cache.flush();
+    verify(mobileAds, times(1)).setRequestConfiguration(any(RequestConfiguration.class));
+    assertEquals(1L, cache.getStats().get("sdkUpdates"));
+  }
+}
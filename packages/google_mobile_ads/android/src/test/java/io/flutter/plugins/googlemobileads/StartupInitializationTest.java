@@ -0,0 +1,60 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.android.gms.ads.initialization.InitializationStatus;
+import com.google.android.gms.ads.initialization.OnInitializationCompleteListener;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link StartupInitialization}. */
+@RunWith(RobolectricTestRunner.class)
+public class StartupInitializationTest {
+
+  @Test
+  public void listenersWaitForInitializationInOrder() {
+    final StartupInitialization initialization = new StartupInitialization();
+    final OnInitializationCompleteListener first = mock(OnInitializationCompleteListener.class);
+    final OnInitializationCompleteListener second = mock(OnInitializationCompleteListener.class);
+    final InitializationStatus status = mock(InitializationStatus.class);
+
+    initialization.addListener(first);
+    initialization.addListener(second);
+    verify(first, never()).onInitializationComplete(status);
+
+    initialization.onInitializationComplete(status);
+    final InOrder inOrder = inOrder(first, second);
+    inOrder.verify(first).onInitializationComplete(status);
+    inOrder.verify(second).onInitializationComplete(status);
+  }
+
+  @Test
+  public void listenersAddedAfterInitializationAreCalledRightAway() {
+    final StartupInitialization initialization = new StartupInitialization();
+    final InitializationStatus status = mock(InitializationStatus.class);
+    initialization.onInitializationComplete(status);
+
+    final OnInitializationCompleteListener listener = mock(OnInitializationCompleteListener.class);
+    initialization.addListener(listener);
+    verify(listener).onInitializationComplete(status);
+  }
+}
@@ -0,0 +1,77 @@
+// Copyright 2021 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.flutter.plugins.googlemobileads;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link StringDictionary}. */
+@RunWith(RobolectricTestRunner.class)
+public class StringDictionaryTest {
+
+  @Test
+  public void definedStringsAreFound() {
+    final StringDictionary dictionary = new StringDictionary();
+
+    assertEquals(-1, dictionary.get("a"));
+    assertEquals(0, dictionary.define("a"));
+    assertEquals(1, dictionary.define("b"));
+    assertEquals(0, dictionary.get("a"));
+    assertEquals(1, dictionary.get("b"));
+
+    final Map<String, Object> stats = dictionary.getStats();
+    assertEquals(2L, stats.get("hits"));
+    assertEquals(2L, stats.get("definitions"));
+    assertEquals(0L, stats.get("evictions"));
+    assertEquals(2, stats.get("size"));
+  }
+
+  @Test
+  public void leastRecentlyWrittenStringGivesUpItsId() {
+    final StringDictionary dictionary = new StringDictionary(2);
+
+    dictionary.define("a");
+    dictionary.define("b");
+    dictionary.get("a");
+
+    // "b" was written least recently, so "c" takes its id.
+    assertEquals(1, dictionary.define("c"));
+    assertEquals(-1, dictionary.get("b"));
+    assertEquals(0, dictionary.get("a"));
+    assertEquals(1, dictionary.get("c"));
+    assertEquals(1L, dictionary.getStats().get("evictions"));
+  }
+
+  @Test
+  public void clearStartsIdsAgain() {
+    final StringDictionary dictionary = new StringDictionary();
+    dictionary.define("a");
+    dictionary.define("b");
+
+    dictionary.clear();
+
+    assertEquals(-1, dictionary.get("a"));
+    assertEquals(0, dictionary.define("b"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroCapacityThrows() {
+    new StringDictionary(0);
+  }
+}
@@ -18,6 +18,7 @@
 
 import 'dart:async';
 import 'dart:collection';
+import 'dart:convert';
 
 import 'package:google_mobile_ads/src/ad_listeners.dart';
 import 'package:google_mobile_ads/src/mobile_ads.dart';
@@ -42,21 +43,38 @@ class AdInstanceManager {
           StandardMethodCodec(AdMessageCodec()),
         ) {
     channel.setMethodCallHandler((MethodCall call) async {
-      assert(call.method == 'onAdEvent');
-
-      final int adId = call.arguments['adId'];
-      final String eventName = call.arguments['eventName'];
-
-      final Ad? ad = adFor(adId);
-      if (ad != null) {
-        _onAdEvent(ad, eventName, call.arguments);
+      assert(call.method == 'onAdEvent' ||
+          call.method == 'onAdEvents' ||
+          call.method == 'onPaidEventSummary');
+
+      if (call.method == 'onPaidEventSummary') {
+        _handlePaidEventSummary(call.arguments);
+      } else if (call.method == 'onAdEvents') {
+        // Android coalesces events raised close together into a single
+        // message. They are listed in the order they were raised.
+        for (final dynamic arguments in call.arguments) {
+          _handleAdEvent(arguments);
+        }
       } else {
-        debugPrint('$Ad with id `$adId` is not available for $eventName.');
+        _handleAdEvent(call.arguments);
       }
     });
   }
 
+  void _handleAdEvent(Map<dynamic, dynamic> arguments) {
+    final int adId = arguments['adId'];
+    final String eventName = arguments['eventName'];
+
+    final Ad? ad = adFor(adId);
+    if (ad != null) {
+      _onAdEvent(ad, eventName, arguments);
+    } else {
+      debugPrint('$Ad with id `$adId` is not available for $eventName.');
+    }
+  }
+
   int _nextAdId = 0;
+  OnPaidEventSummaryCallback? _onPaidEventSummary;
   final _BiMap<int, Ad> _loadedAds = _BiMap<int, Ad>();
 
   /// Invokes load and dispose calls.
@@ -187,6 +205,11 @@ class AdInstanceManager {
       case 'onFluidAdHeightChanged':
         _invokeFluidAdHeightChanged(ad, arguments);
         break;
+      case 'onAdReaped':
+        // Android disposed an ad that was never disposed from Dart, so stop
+        // holding on to it here too.
+        _loadedAds.remove(arguments['adId']);
+        break;
       default:
         debugPrint('invalid ad event name: $eventName');
     }
@@ -341,26 +364,9 @@ class AdInstanceManager {
       Ad ad, String eventName, Map<dynamic, dynamic> arguments) {
     assert(arguments['valueMicros'] != null && arguments['valueMicros'] is num);
 
-    int precisionTypeInt = arguments['precision'];
-    PrecisionType precisionType;
-    switch (precisionTypeInt) {
-      case 0:
-        precisionType = PrecisionType.unknown;
-        break;
-      case 1:
-        precisionType = PrecisionType.estimated;
-        break;
-      case 2:
-        precisionType = PrecisionType.publisherProvided;
-        break;
-      case 3:
-        precisionType = PrecisionType.precise;
-        break;
-      default:
-        debugPrint('Unexpected precisionType: $precisionTypeInt');
-        precisionType = PrecisionType.unknown;
-        break;
-    }
+    final PrecisionType precisionType = _precisionTypeFrom(
+      arguments['precision'],
+    );
     if (ad is AdWithView) {
       ad.listener.onPaidEvent?.call(
         ad,
@@ -380,6 +386,36 @@ class AdInstanceManager {
     }
   }
 
+  PrecisionType _precisionTypeFrom(int precisionTypeInt) {
+    switch (precisionTypeInt) {
+      case 0:
+        return PrecisionType.unknown;
+      case 1:
+        return PrecisionType.estimated;
+      case 2:
+        return PrecisionType.publisherProvided;
+      case 3:
+        return PrecisionType.precise;
+      default:
+        debugPrint('Unexpected precisionType: $precisionTypeInt');
+        return PrecisionType.unknown;
+    }
+  }
+
+  void _handlePaidEventSummary(List<dynamic> arguments) {
+    final List<PaidEventSummary> summaries = <PaidEventSummary>[
+      for (final Map<dynamic, dynamic> summary in arguments)
+        PaidEventSummary(
+          adUnitId: summary['adUnitId'],
+          currencyCode: summary['currencyCode'],
+          precision: _precisionTypeFrom(summary['precision']),
+          valueMicros: summary['valueMicros'],
+          count: summary['count'],
+        ),
+    ];
+    _onPaidEventSummary?.call(summaries);
+  }
+
   Future<InitializationStatus> initialize() async {
     return (await instanceManager.channel.invokeMethod<InitializationStatus>(
       'MobileAds#initialize',
@@ -412,6 +448,93 @@ class AdInstanceManager {
   /// Indicates that [adId] is unmounted from the widget tree.
   void unmountWidgetAdId(int adId) => _mountedWidgetAdIds.remove(adId);
 
+  /// Returns the bitmask of Android ad events [ad] has Dart callbacks for.
+  ///
+  /// Android skips building and sending the events left out of the mask. Only
+  /// events whose listener callbacks are final are left out, because any
+  /// other callback can still be set after the ad is loaded.
+  int _eventMaskFor(AdWithView ad) {
+    final AdWithViewListener listener = ad.listener;
+    return AdMessageCodec.adEventMask(excluding: <String>[
+      if (listener.onAdImpression == null) 'onAdImpression',
+      if (listener.onPaidEvent == null) 'onPaidEvent',
+      if (listener.onAdOpened == null) 'onAdOpened',
+      if (listener.onAdClosed == null) 'onAdClosed',
+      if (ad is NativeAd && ad.listener.onNativeAdClicked == null)
+        'onNativeAdClicked',
+    ]);
+  }
+
+  /// Whether loads started in the same microtask are sent to the Android
+  /// plugin in a single `loadAds` call.
+  bool get loadCoalescing => _loadCoalescing;
+  bool _loadCoalescing = false;
+
+  final List<_PendingLoad> _pendingLoads = <_PendingLoad>[];
+
+  /// Sets whether loads started in the same microtask, such as the ads of a
+  /// screen being built, are sent to the Android plugin in one call.
+  void setLoadCoalescing(bool enabled) {
+    _loadCoalescing = enabled;
+  }
+
+  Future<void> _invokeLoad(String method, Map<dynamic, dynamic> arguments) {
+    if (!_loadCoalescing || defaultTargetPlatform != TargetPlatform.android) {
+      return channel.invokeMethod<void>(method, arguments);
+    }
+    if (_pendingLoads.isEmpty) {
+      scheduleMicrotask(_sendPendingLoads);
+    }
+    final _PendingLoad load = _PendingLoad(method, arguments);
+    _pendingLoads.add(load);
+    return load.completer.future;
+  }
+
+  Future<void> _sendPendingLoads() async {
+    final List<_PendingLoad> loads = List<_PendingLoad>.of(_pendingLoads);
+    _pendingLoads.clear();
+    if (loads.length == 1) {
+      final _PendingLoad load = loads.single;
+      load.completer
+          .complete(channel.invokeMethod<void>(load.method, load.arguments));
+      return;
+    }
+
+    final List<dynamic>? statuses;
+    try {
+      statuses = await channel.invokeMethod<List<dynamic>>(
+        'loadAds',
+        <dynamic, dynamic>{
+          'loads': <dynamic>[
+            for (final _PendingLoad load in loads)
+              <dynamic, dynamic>{
+                'method': load.method,
+                'arguments': load.arguments,
+              },
+          ],
+        },
+      );
+    } catch (error, stackTrace) {
+      for (final _PendingLoad load in loads) {
+        load.completer.completeError(error, stackTrace);
+      }
+      return;
+    }
+    for (int i = 0; i < loads.length; i++) {
+      // Null if the ad is loading, otherwise the error of its load.
+      final Map<dynamic, dynamic>? status =
+          statuses != null && i < statuses.length ? statuses[i] : null;
+      if (status == null) {
+        loads[i].completer.complete();
+      } else {
+        loads[i].completer.completeError(PlatformException(
+          code: status['code'],
+          message: status['message'],
+        ));
+      }
+    }
+  }
+
   /// Starts loading the ad if not previously loaded.
   ///
   /// Loading also terminates if ad is already in the process of loading.
@@ -422,13 +545,14 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadBannerAd',
       <dynamic, dynamic>{
         'adId': adId,
         'adUnitId': ad.adUnitId,
         'request': ad.request,
         'size': ad.size,
+        'eventMask': _eventMaskFor(ad),
       },
     );
   }
@@ -440,7 +564,7 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadInterstitialAd',
       <dynamic, dynamic>{
         'adId': adId,
@@ -460,7 +584,7 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadNativeAd',
       <dynamic, dynamic>{
         'adId': adId,
@@ -470,6 +594,7 @@ class AdInstanceManager {
         'factoryId': ad.factoryId,
         'nativeAdOptions': ad.nativeAdOptions,
         'customOptions': ad.customOptions,
+        'eventMask': _eventMaskFor(ad),
       },
     );
   }
@@ -484,7 +609,7 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadRewardedAd',
       <dynamic, dynamic>{
         'adId': adId,
@@ -504,7 +629,7 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadAppOpenAd',
       <dynamic, dynamic>{
         'adId': adId,
@@ -526,13 +651,14 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadAdManagerBannerAd',
       <dynamic, dynamic>{
         'adId': adId,
         'sizes': ad.sizes,
         'adUnitId': ad.adUnitId,
         'request': ad.request,
+        'eventMask': _eventMaskFor(ad),
       },
     );
   }
@@ -547,13 +673,14 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadFluidAd',
       <dynamic, dynamic>{
         'adId': adId,
         'sizes': ad.sizes,
         'adUnitId': ad.adUnitId,
         'request': ad.request,
+        'eventMask': _eventMaskFor(ad),
       },
     );
   }
@@ -568,7 +695,7 @@ class AdInstanceManager {
 
     final int adId = _nextAdId++;
     _loadedAds[adId] = ad;
-    return channel.invokeMethod<void>(
+    return _invokeLoad(
       'loadAdManagerInterstitialAd',
       <dynamic, dynamic>{
         'adId': adId,
@@ -694,6 +821,157 @@ class AdInstanceManager {
     return (await instanceManager.channel
         .invokeMethod<String>('MobileAds#getVersionString'))!;
   }
+
+  /// Sets how long Android buffers ad events before sending them as one batch.
+  Future<void> setAdEventBatchWindow(Duration? batchWindow) {
+    return channel.invokeMethod<void>(
+      'MobileAds#setAdEventBatchWindow',
+      <dynamic, dynamic>{
+        'batchWindowMillis': batchWindow?.inMilliseconds,
+      },
+    );
+  }
+
+  /// Starts totaling paid events on Android and sending the totals to
+  /// [onSummary] every [flushInterval].
+  Future<void> enablePaidEventAggregation(
+      Duration flushInterval, OnPaidEventSummaryCallback onSummary) {
+    _onPaidEventSummary = onSummary;
+    return channel.invokeMethod<void>(
+      'MobileAds#setPaidEventAggregation',
+      <dynamic, dynamic>{
+        'flushIntervalMillis': flushInterval.inMilliseconds,
+      },
+    );
+  }
+
+  /// Stops totaling paid events on Android. The remaining totals are still
+  /// sent to the last summary callback.
+  Future<void> disablePaidEventAggregation() {
+    return channel.invokeMethod<void>(
+      'MobileAds#setPaidEventAggregation',
+      <dynamic, dynamic>{
+        'flushIntervalMillis': null,
+      },
+    );
+  }
+
+  /// Sets how long Android keeps ads that failed to load, were dismissed, or
+  /// were loaded but never shown before disposing them. Null keeps such ads
+  /// until they are disposed from Dart.
+  Future<void> setOrphanedAdTtls({
+    Duration? failedToLoad,
+    Duration? dismissed,
+    Duration? neverShown,
+  }) {
+    return channel.invokeMethod<void>(
+      'MobileAds#setOrphanedAdTtls',
+      <dynamic, dynamic>{
+        'failedMillis': failedToLoad?.inMilliseconds,
+        'dismissedMillis': dismissed?.inMilliseconds,
+        'neverShownMillis': neverShown?.inMilliseconds,
+      },
+    );
+  }
+
+  /// Sets how long the Android plugin holds loads while the SDK initializes.
+  Future<void> setInitializationLoadDeadline(Duration? deadline) {
+    return channel.invokeMethod<void>(
+      'MobileAds#setInitializationLoadDeadline',
+      <dynamic, dynamic>{
+        'deadlineMillis': deadline?.inMilliseconds,
+      },
+    );
+  }
+
+  /// Whether load events carry response infos without adapter responses.
+  bool get lazyResponseInfo => _lazyResponseInfo;
+  bool _lazyResponseInfo = false;
+
+  /// Sets whether load events carry response infos without adapter responses.
+  Future<void> setLazyResponseInfo(bool enabled) {
+    _lazyResponseInfo = enabled;
+    return channel.invokeMethod<void>(
+      'MobileAds#setLazyResponseInfo',
+      <dynamic, dynamic>{
+        'enabled': enabled,
+      },
+    );
+  }
+
+  /// Fetches the full response info kept by the Android plugin for [ad].
+  ///
+  /// Returns null if [ad] isn't loaded.
+  Future<ResponseInfo?> getResponseInfo(Ad ad) {
+    final int? adId = adIdFor(ad);
+    if (adId == null) {
+      return Future<ResponseInfo?>.value();
+    }
+    return channel.invokeMethod<ResponseInfo>(
+      'getResponseInfo',
+      <dynamic, dynamic>{
+        'adId': adId,
+      },
+    );
+  }
+
+  /// Sets whether custom values are length framed in both directions.
+  ///
+  /// Framed values are always readable on both sides, so Dart starts framing
+  /// before the plugin is told to.
+  Future<void> setMessageFraming(bool enabled) {
+    _adMessageCodec.framingEnabled = enabled;
+    return channel.invokeMethod<void>(
+      'MobileAds#setMessageFraming',
+      <dynamic, dynamic>{
+        'enabled': enabled,
+      },
+    );
+  }
+
+  /// Sets whether the Android plugin times the calls made on its channel.
+  Future<void> setMethodCallTiming(bool enabled) {
+    return channel.invokeMethod<void>(
+      'MobileAds#setMethodCallTiming',
+      <dynamic, dynamic>{
+        'enabled': enabled,
+      },
+    );
+  }
+
+  /// Whether the Android plugin writes method calls with a string dictionary.
+  bool get stringDictionary => _stringDictionary;
+  bool _stringDictionary = false;
+
+  /// Sets whether the Android plugin writes method calls with a string
+  /// dictionary.
+  ///
+  /// The plugin starts a new dictionary when it's enabled, so the codec
+  /// forgets its strings before the plugin is told to.
+  Future<void> setStringDictionary(bool enabled) {
+    if (enabled && !_stringDictionary) {
+      _adMessageCodec.resetStringDictionary();
+    }
+    _stringDictionary = enabled;
+    return channel.invokeMethod<void>(
+      'MobileAds#setStringDictionary',
+      <dynamic, dynamic>{
+        'enabled': enabled,
+      },
+    );
+  }
+
+  AdMessageCodec get _adMessageCodec =>
+      (channel.codec as StandardMethodCodec).messageCodec as AdMessageCodec;
+
+  /// Gets a snapshot of the Android plugin's ad event metrics.
+  Future<Map<String, dynamic>> getDiagnosticMetrics() async {
+    final Map<dynamic, dynamic>? metrics =
+        await channel.invokeMethod<Map<dynamic, dynamic>>(
+      'Diagnostics#getMetrics',
+    );
+    return metrics?.cast<String, dynamic>() ?? <String, dynamic>{};
+  }
 }
 
 @visibleForTesting
@@ -719,9 +997,112 @@ class AdMessageCodec extends StandardMessageCodec {
   static const int _valueInlineAdaptiveBannerAdSize = 146;
   static const int _valueLocationParams = 147;
   static const int _valueRequestConfigurationParams = 148;
+  static const int _valueAdEvent = 149;
+  static const int _valueFramed = 150;
+  static const int _valueStringDefinition = 151;
+  static const int _valueStringReference = 152;
+
+  /// The largest type written by [StandardMessageCodec].
+  static const int _lastStandardType = 14;
+
+  /// Whether custom values are written framed: as [_valueFramed], their
+  /// length in bytes as an unsigned varint, and then the value itself.
+  ///
+  /// A reader can skip a framed value without decoding it, and ignores fields
+  /// appended to a framed value that it doesn't know about. Framed values are
+  /// always read, whether or not they are written. Only Android reads them.
+  bool framingEnabled = false;
+
+  /// The strings defined by the Android plugin's string dictionary, by id.
+  final Map<int, String> _strings = <int, String>{};
+
+  /// Forgets the strings defined so far, before the plugin starts a new
+  /// string dictionary.
+  void resetStringDictionary() => _strings.clear();
+
+  /// Event names indexed by the event type Android writes for an ad event.
+  static const List<String> _adEventNames = <String>[
+    'onAdLoaded',
+    'onAdFailedToLoad',
+    'onAppEvent',
+    'onAdImpression',
+    'onNativeAdClicked',
+    'onAdOpened',
+    'onAdClosed',
+    'onRewardedAdUserEarnedReward',
+    'onPaidEvent',
+    'onFailedToShowFullScreenContent',
+    'onAdShowedFullScreenContent',
+    'onAdDismissedFullScreenContent',
+    'onAdMetadataChanged',
+    'onFluidAdHeightChanged',
+    'onAdReaped',
+  ];
+
+  /// Returns a bitmask with the bit `1 << type` set for every Android ad event
+  /// type, except for the events named in [excluding].
+  static int adEventMask({Iterable<String> excluding = const <String>[]}) {
+    int mask = (1 << _adEventNames.length) - 1;
+    for (final String eventName in excluding) {
+      mask &= ~(1 << _adEventNames.indexOf(eventName));
+    }
+    return mask;
+  }
+
+  /// The keys of the fields that follow each event type, in the order Android
+  /// writes them.
+  static const List<List<String>> _adEventFields = <List<String>>[
+    <String>['responseInfo'],
+    <String>['loadAdError'],
+    <String>['name', 'data'],
+    <String>[],
+    <String>[],
+    <String>[],
+    <String>[],
+    <String>['rewardItem'],
+    <String>['valueMicros', 'precision', 'currencyCode'],
+    <String>['error'],
+    <String>[],
+    <String>[],
+    <String>[],
+    <String>['height'],
+    <String>[],
+  ];
 
   @override
   void writeValue(WriteBuffer buffer, dynamic value) {
+    if (framingEnabled && _isCustomValue(value)) {
+      final WriteBuffer frameBuffer = WriteBuffer();
+      _writeCustomOrStandardValue(frameBuffer, value);
+      final ByteData frame = frameBuffer.done();
+      buffer.putUint8(_valueFramed);
+      _writeVarint(buffer, frame.lengthInBytes);
+      buffer.putUint8List(frame.buffer
+          .asUint8List(frame.offsetInBytes, frame.lengthInBytes));
+    } else {
+      _writeCustomOrStandardValue(buffer, value);
+    }
+  }
+
+  static bool _isCustomValue(dynamic value) {
+    return value is AdSize ||
+        value is AdRequest ||
+        value is RewardItem ||
+        value is ResponseInfo ||
+        value is AdapterResponseInfo ||
+        value is LoadAdError ||
+        value is AdError ||
+        value is AdapterInitializationState ||
+        value is AdapterStatus ||
+        value is InitializationStatus ||
+        value is ServerSideVerificationOptions ||
+        value is NativeAdOptions ||
+        value is VideoOptions ||
+        value is RequestConfiguration ||
+        value is LocationParams;
+  }
+
+  void _writeCustomOrStandardValue(WriteBuffer buffer, dynamic value) {
     if (value is AdSize) {
       writeAdSize(buffer, value);
     } else if (value is AdManagerAdRequest) {
@@ -824,6 +1205,34 @@ class AdMessageCodec extends StandardMessageCodec {
   @override
   dynamic readValueOfType(dynamic type, ReadBuffer buffer) {
     switch (type) {
+      case _valueFramed:
+        final int length = _readVarint(buffer);
+        // Read the value from a copy of its bytes, so alignment is relative to
+        // the frame like it was when the frame was written and any unread
+        // trailing fields are skipped.
+        final Uint8List bytes =
+            Uint8List.fromList(buffer.getUint8List(length));
+        final ReadBuffer frame = ReadBuffer(ByteData.sublistView(bytes));
+        final int frameType = frame.getUint8();
+        return _isKnownType(frameType)
+            ? readValueOfType(frameType, frame)
+            : null;
+      case _valueStringDefinition:
+        final int id = _readVarint(buffer);
+        final String string =
+            utf8.decoder.convert(buffer.getUint8List(readSize(buffer)));
+        _strings[id] = string;
+        return string;
+      case _valueStringReference:
+        final int id = _readVarint(buffer);
+        final String? string = _strings[id];
+        if (string == null) {
+          // Failing the message makes the plugin define its strings again.
+          throw StateError('Undefined string dictionary id: $id');
+        }
+        return string;
+      case _valueAdEvent:
+        return _readAdEvent(buffer);
       case _valueInlineAdaptiveBannerAdSize:
         final num width = readValueOfType(buffer.getUint8(), buffer);
         final num? maxHeight = readValueOfType(buffer.getUint8(), buffer);
@@ -1007,6 +1416,46 @@ class AdMessageCodec extends StandardMessageCodec {
     }
   }
 
+  /// Reads an ad event into the same map of arguments iOS sends for an event.
+  Map<dynamic, dynamic> _readAdEvent(ReadBuffer buffer) {
+    final int eventType = buffer.getUint8();
+    final Map<dynamic, dynamic> arguments = <dynamic, dynamic>{
+      'adId': _readVarint(buffer),
+      'eventName': _adEventNames[eventType],
+    };
+    for (final String key in _adEventFields[eventType]) {
+      arguments[key] = readValueOfType(buffer.getUint8(), buffer);
+    }
+    return arguments;
+  }
+
+  /// Whether [type] can be read, as opposed to a type added later.
+  static bool _isKnownType(int type) {
+    return type <= _lastStandardType ||
+        (type >= _valueAdSize && type <= _valueFramed);
+  }
+
+  void _writeVarint(WriteBuffer buffer, int value) {
+    int remaining = value.toUnsigned(32);
+    while ((remaining & ~0x7F) != 0) {
+      buffer.putUint8((remaining & 0x7F) | 0x80);
+      remaining >>= 7;
+    }
+    buffer.putUint8(remaining);
+  }
+
+  int _readVarint(ReadBuffer buffer) {
+    int value = 0;
+    int shift = 0;
+    int byte;
+    do {
+      byte = buffer.getUint8();
+      value |= (byte & 0x7F) << shift;
+      shift += 7;
+    } while ((byte & 0x80) != 0);
+    return value.toSigned(32);
+  }
+
   Map<String, List<T>>? _tryDeepMapCast<T>(Map<dynamic, dynamic>? map) {
     if (map == null) return null;
     return map.map<String, List<T>>(
@@ -1116,6 +1565,16 @@ extension AdChoicesPlacementExtension on AdChoicesPlacement {
   }
 }
 
+/// A load call waiting to be sent with the others started in the same
+/// microtask.
+class _PendingLoad {
+  _PendingLoad(this.method, this.arguments);
+
+  final String method;
+  final Map<dynamic, dynamic> arguments;
+  final Completer<void> completer = Completer<void>();
+}
+
 class _BiMap<K extends Object, V extends Object> extends MapBase<K, V> {
   _BiMap() {
     _inverse = _BiMap<V, K>._inverse(this);
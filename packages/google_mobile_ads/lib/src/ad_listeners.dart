@@ -12,6 +12,8 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 
+import 'dart:ui' show hashValues;
+
 import 'package:meta/meta.dart';
 
 import 'ad_containers.dart';
@@ -55,6 +57,54 @@ enum PrecisionType {
   precise
 }
 
+/// Paid event totals for one ad unit, currency and precision.
+///
+/// See `MobileAds.instance.enablePaidEventAggregation`.
+class PaidEventSummary {
+  /// Constructs a [PaidEventSummary].
+  const PaidEventSummary({
+    required this.adUnitId,
+    required this.currencyCode,
+    required this.precision,
+    required this.valueMicros,
+    required this.count,
+  });
+
+  /// The ad unit the paid events came from.
+  final String adUnitId;
+
+  /// The ISO 4217 currency code of the paid events.
+  final String currencyCode;
+
+  /// The precision of the paid events.
+  final PrecisionType precision;
+
+  /// The sum of the paid events' values, in micros.
+  final int valueMicros;
+
+  /// The number of paid events.
+  final int count;
+
+  @override
+  bool operator ==(Object other) {
+    return other is PaidEventSummary &&
+        adUnitId == other.adUnitId &&
+        currencyCode == other.currencyCode &&
+        precision == other.precision &&
+        valueMicros == other.valueMicros &&
+        count == other.count;
+  }
+
+  @override
+  int get hashCode =>
+      hashValues(adUnitId, currencyCode, precision, valueMicros, count);
+}
+
+/// The callback type for paid event totals sent while paid event aggregation
+/// is enabled.
+typedef OnPaidEventSummaryCallback = void Function(
+    List<PaidEventSummary> summaries);
+
 /// Listener for app events.
 class AppEventListener {
   /// Called when an app event is received.
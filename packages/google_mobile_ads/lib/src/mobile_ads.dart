@@ -47,6 +47,9 @@ class MobileAds {
   ///
   /// If this method is not called, the first ad request automatically
   /// initializes the Google Mobile Ads SDK.
+  ///
+  /// On Android apps that start initialization at app startup, as described
+  /// in the README, this completes with the result of that initialization.
   Future<InitializationStatus> initialize() {
     return instanceManager.initialize();
   }
@@ -60,6 +63,9 @@ class MobileAds {
   }
 
   /// Update the [RequestConfiguration] to apply for future ad requests.
+  ///
+  /// On Android, updates that change nothing are skipped, and the changes made
+  /// within a frame are applied together before the next ad is loaded.
   Future<void> updateRequestConfiguration(
       RequestConfiguration requestConfiguration) {
     return instanceManager.updateRequestConfiguration(requestConfiguration);
@@ -122,6 +128,170 @@ class MobileAds {
     return instanceManager.getVersionString();
   }
 
+  /// Sets how long ad events are buffered before being delivered (Android only).
+  ///
+  /// The default, [Duration.zero], batches events until the main thread is
+  /// idle. A null [batchWindow] delivers each event as soon as it is raised.
+  Future<void> setAdEventBatchWindow(Duration? batchWindow) {
+    assert(batchWindow == null || !batchWindow.isNegative);
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.setAdEventBatchWindow(batchWindow);
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Totals paid events instead of delivering each one (Android only).
+  ///
+  /// Totals per ad unit, currency and precision are passed to [onSummary]
+  /// every [flushInterval] and when the app goes to the background.
+  Future<void> enablePaidEventAggregation({
+    required Duration flushInterval,
+    required OnPaidEventSummaryCallback onSummary,
+  }) {
+    assert(flushInterval > Duration.zero);
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.enablePaidEventAggregation(
+          flushInterval, onSummary);
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Delivers paid events to the `onPaidEvent` callbacks of individual ads
+  /// again (Android only).
+  ///
+  /// The totals collected since the last summary are passed on one last time.
+  Future<void> disablePaidEventAggregation() {
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.disablePaidEventAggregation();
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Disposes ads that were most likely leaked (Android only).
+  ///
+  /// Ads that failed to load, were dismissed or were never shown for longer
+  /// than the matching timeout are disposed. A null timeout, the default,
+  /// never disposes ads in that state.
+  Future<void> setOrphanedAdTtls({
+    Duration? failedToLoad,
+    Duration? dismissed,
+    Duration? neverShown,
+  }) {
+    assert(failedToLoad == null || failedToLoad > Duration.zero);
+    assert(dismissed == null || dismissed > Duration.zero);
+    assert(neverShown == null || neverShown > Duration.zero);
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.setOrphanedAdTtls(
+        failedToLoad: failedToLoad,
+        dismissed: dismissed,
+        neverShown: neverShown,
+      );
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Holds loads made while [initialize] runs for up to [deadline] (Android
+  /// only).
+  ///
+  /// Off by default. Held loads start once initialization completes or
+  /// [deadline] passes, app open ads first. A null [deadline] turns it off.
+  /// Changes apply from the next call to [initialize].
+  Future<void> setInitializationLoadDeadline(Duration? deadline) {
+    assert(deadline == null || deadline > Duration.zero);
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.setInitializationLoadDeadline(deadline);
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Sets whether load events skip the adapter responses (Android only).
+  ///
+  /// While enabled, [ResponseInfo.adapterResponses] is empty. Use
+  /// [getResponseInfo] to fetch the full response info when it's needed.
+  Future<void> setLazyResponseInfo(bool enabled) {
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.setLazyResponseInfo(enabled);
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Gets the full response info of the last load of [ad].
+  ///
+  /// On Android with [setLazyResponseInfo] enabled, the response info is
+  /// fetched from the plugin, which keeps it until the ad is disposed.
+  /// Otherwise [ad]'s own [Ad.responseInfo] is returned.
+  Future<ResponseInfo?> getResponseInfo(Ad ad) {
+    if (defaultTargetPlatform == TargetPlatform.android &&
+        instanceManager.lazyResponseInfo) {
+      return instanceManager.getResponseInfo(ad);
+    } else {
+      return Future.value(ad.responseInfo);
+    }
+  }
+
+  /// Sets whether ad values sent on the plugin's channel are length framed
+  /// (Android only).
+  ///
+  /// A framed value is prefixed with its size, so a reader can skip values
+  /// and fields it doesn't know about.
+  Future<void> setMessageFraming(bool enabled) {
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.setMessageFraming(enabled);
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Sets whether the plugin times each of its method calls (Android only).
+  ///
+  /// The timings are reported by [getDiagnosticMetrics].
+  Future<void> setMethodCallTiming(bool enabled) {
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.setMethodCallTiming(enabled);
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Sets whether the plugin sends strings by id after their first use
+  /// (Android only).
+  ///
+  /// This shrinks event streams that repeat the same keys, adapter class
+  /// names and currency codes.
+  Future<void> setStringDictionary(bool enabled) {
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.setStringDictionary(enabled);
+    } else {
+      return Future.value();
+    }
+  }
+
+  /// Sets whether ads loaded in the same microtask are loaded with a single
+  /// platform call (Android only).
+  ///
+  /// Each load's future still completes, or fails, on its own.
+  void setLoadCoalescing(bool enabled) {
+    instanceManager.setLoadCoalescing(enabled);
+  }
+
+  /// Gets diagnostic metrics about the plugin (Android only).
+  ///
+  /// Includes ad event counts and latencies, per method call timings and the
+  /// hit rates of the plugin's caches. Returns an empty map on iOS.
+  Future<Map<String, dynamic>> getDiagnosticMetrics() {
+    if (defaultTargetPlatform == TargetPlatform.android) {
+      return instanceManager.getDiagnosticMetrics();
+    } else {
+      return Future.value(<String, dynamic>{});
+    }
+  }
+
   /// Internal init to cleanup state for hot restart.
   /// This is a workaround for https://github.com/flutter/flutter/issues/7160.
   void _init() {
@@ -226,6 +226,12 @@ void main() {
           'adUnitId': BannerAd.testAdUnitId,
           'request': banner.request,
           'size': AdSize.banner,
+          'eventMask': AdMessageCodec.adEventMask(excluding: <String>[
+            'onAdImpression',
+            'onPaidEvent',
+            'onAdOpened',
+            'onAdClosed',
+          ]),
         })
       ]);
 
@@ -235,6 +241,93 @@ void main() {
       expect(adSize!, AdSize.banner);
     });
 
+    test('coalesce loads started together', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      instanceManager.setLoadCoalescing(true);
+      instanceManager.channel
+          .setMockMethodCallHandler((MethodCall methodCall) async {
+        log.add(methodCall);
+        return <dynamic>[
+          null,
+          <dynamic, dynamic>{
+            'code': 'NativeAdError',
+            'message': 'Can\'t find NativeAdFactory with id: missing',
+          },
+        ];
+      });
+      final BannerAd banner = BannerAd(
+        adUnitId: BannerAd.testAdUnitId,
+        size: AdSize.banner,
+        listener: BannerAdListener(),
+        request: AdRequest(),
+      );
+      final NativeAd native = NativeAd(
+        adUnitId: NativeAd.testAdUnitId,
+        factoryId: 'missing',
+        listener: NativeAdListener(),
+        request: AdRequest(),
+      );
+
+      final Future<void> bannerLoad = banner.load();
+      final Future<void> nativeLoad = native.load();
+      await bannerLoad;
+      await expectLater(
+        nativeLoad,
+        throwsA(isA<PlatformException>()
+            .having((e) => e.code, 'code', 'NativeAdError')),
+      );
+
+      expect(log, hasLength(1));
+      expect(log.single.method, 'loadAds');
+      final List<dynamic> loads = log.single.arguments['loads'];
+      expect(loads[0]['method'], 'loadBannerAd');
+      expect(loads[0]['arguments']['adId'], instanceManager.adIdFor(banner));
+      expect(loads[0]['arguments']['size'], AdSize.banner);
+      expect(loads[1]['method'], 'loadNativeAd');
+      expect(loads[1]['arguments']['factoryId'], 'missing');
+    });
+
+    test('a single coalesced load is sent as is', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      instanceManager.setLoadCoalescing(true);
+      final BannerAd banner = BannerAd(
+        adUnitId: BannerAd.testAdUnitId,
+        size: AdSize.banner,
+        listener: BannerAdListener(),
+        request: AdRequest(),
+      );
+
+      await banner.load();
+
+      expect(log, hasLength(1));
+      expect(log.single.method, 'loadBannerAd');
+    });
+
+    test('banner event mask keeps events that have callbacks', () async {
+      final BannerAd banner = BannerAd(
+        adUnitId: BannerAd.testAdUnitId,
+        size: AdSize.banner,
+        listener: BannerAdListener(
+          onAdImpression: (ad) {},
+          onPaidEvent: (ad, value, precision, currencyCode) {},
+        ),
+        request: AdRequest(),
+      );
+
+      await banner.load();
+      expect(log, <Matcher>[
+        isMethodCall('loadBannerAd', arguments: <String, dynamic>{
+          'adId': 0,
+          'adUnitId': BannerAd.testAdUnitId,
+          'request': banner.request,
+          'size': AdSize.banner,
+          'eventMask': AdMessageCodec.adEventMask(
+            excluding: <String>['onAdOpened', 'onAdClosed'],
+          ),
+        })
+      ]);
+    });
+
     test('dispose banner', () async {
       final BannerAd banner = BannerAd(
         adUnitId: BannerAd.testAdUnitId,
@@ -302,6 +395,13 @@ void main() {
           'factoryId': '0',
           'nativeAdOptions': nativeAdOptions,
           'customOptions': options,
+          'eventMask': AdMessageCodec.adEventMask(excluding: <String>[
+            'onAdImpression',
+            'onPaidEvent',
+            'onAdOpened',
+            'onAdClosed',
+            'onNativeAdClicked',
+          ]),
         })
       ]);
 
@@ -329,6 +429,13 @@ void main() {
           'factoryId': '0',
           'nativeAdOptions': null,
           'customOptions': options,
+          'eventMask': AdMessageCodec.adEventMask(excluding: <String>[
+            'onAdImpression',
+            'onPaidEvent',
+            'onAdOpened',
+            'onAdClosed',
+            'onNativeAdClicked',
+          ]),
         })
       ]);
 
@@ -711,6 +818,12 @@ void main() {
           'adUnitId': 'testId',
           'sizes': <AdSize>[AdSize.largeBanner],
           'request': AdManagerAdRequest(),
+          'eventMask': AdMessageCodec.adEventMask(excluding: <String>[
+            'onAdImpression',
+            'onPaidEvent',
+            'onAdOpened',
+            'onAdClosed',
+          ]),
         })
       ]);
 
@@ -752,6 +865,61 @@ void main() {
       expect(adEventCompleter.future, completion(banner));
     });
 
+    test('onAdEvents delivers batched events in order', () async {
+      final List<String> events = <String>[];
+
+      final BannerAd banner = BannerAd(
+        adUnitId: BannerAd.testAdUnitId,
+        size: AdSize.banner,
+        listener: BannerAdListener(
+          onAdLoaded: (Ad ad) => events.add('loaded'),
+          onAdImpression: (Ad ad) => events.add('impression'),
+          onAdOpened: (Ad ad) => events.add('opened'),
+        ),
+        request: AdRequest(),
+      );
+
+      await banner.load();
+
+      final MethodCall methodCall =
+          MethodCall('onAdEvents', <Map<dynamic, dynamic>>[
+        <dynamic, dynamic>{'adId': 0, 'eventName': 'onAdLoaded'},
+        <dynamic, dynamic>{'adId': 0, 'eventName': 'onAdImpression'},
+        <dynamic, dynamic>{'adId': 0, 'eventName': 'onAdOpened'},
+      ]);
+
+      await instanceManager.channel.binaryMessenger.handlePlatformMessage(
+        'plugins.flutter.io/google_mobile_ads',
+        instanceManager.channel.codec.encodeMethodCall(methodCall),
+        (ByteData? data) {},
+      );
+
+      expect(events, <String>['loaded', 'impression', 'opened']);
+    });
+
+    test('onAdReaped stops tracking the ad', () async {
+      await InterstitialAd.load(
+        adUnitId: InterstitialAd.testAdUnitId,
+        request: AdRequest(),
+        adLoadCallback: InterstitialAdLoadCallback(
+            onAdLoaded: (ad) => null, onAdFailedToLoad: (error) => null),
+      );
+      final Ad interstitial = instanceManager.adFor(0)!;
+
+      final MethodCall methodCall = MethodCall('onAdEvent', <dynamic, dynamic>{
+        'adId': 0,
+        'eventName': 'onAdReaped',
+      });
+      await instanceManager.channel.binaryMessenger.handlePlatformMessage(
+        'plugins.flutter.io/google_mobile_ads',
+        instanceManager.channel.codec.encodeMethodCall(methodCall),
+        (ByteData? data) {},
+      );
+
+      expect(instanceManager.adFor(0), isNull);
+      expect(instanceManager.adIdFor(interstitial), isNull);
+    });
+
     test('onAdFailedToLoad banner', () async {
       final Completer<List<dynamic>> resultsCompleter =
           Completer<List<dynamic>>();
@@ -1384,6 +1552,123 @@ void main() {
       expect(result.type, 'type');
     });
 
+    test('decode ad event', () async {
+      final WriteBuffer buffer = WriteBuffer();
+      buffer.putUint8(149);
+      buffer.putUint8(3); // onAdImpression
+      buffer.putUint8(5);
+
+      final Map<dynamic, dynamic> result =
+          codec.decodeMessage(buffer.done());
+      expect(result, <dynamic, dynamic>{
+        'adId': 5,
+        'eventName': 'onAdImpression',
+      });
+    });
+
+    test('decode ad event with fields and multibyte ad id', () async {
+      final WriteBuffer buffer = WriteBuffer();
+      buffer.putUint8(149);
+      buffer.putUint8(8); // onPaidEvent
+      // 300 as an unsigned varint.
+      buffer.putUint8(0xAC);
+      buffer.putUint8(0x02);
+      codec.writeValue(buffer, 1200000);
+      codec.writeValue(buffer, 2);
+      codec.writeValue(buffer, 'USD');
+
+      final Map<dynamic, dynamic> result =
+          codec.decodeMessage(buffer.done());
+      expect(result, <dynamic, dynamic>{
+        'adId': 300,
+        'eventName': 'onPaidEvent',
+        'valueMicros': 1200000,
+        'precision': 2,
+        'currencyCode': 'USD',
+      });
+    });
+
+    test('encode/decode framed values', () async {
+      final AdMessageCodec framingCodec = AdMessageCodec()
+        ..framingEnabled = true;
+      final RewardItem item = RewardItem(1, 'type');
+      final ByteData byteData = framingCodec.encodeMessage(<dynamic>[
+        AdSize.banner,
+        item,
+        'not framed',
+      ])!;
+      expect(byteData.getUint8(2), 150);
+
+      // Framed values can be read whether or not framing is enabled.
+      final List<dynamic> result = codec.decodeMessage(byteData);
+      expect(result[0], AdSize.banner);
+      expect((result[1] as RewardItem).amount, 1);
+      expect((result[1] as RewardItem).type, 'type');
+      expect(result[2], 'not framed');
+    });
+
+    test('decode framed values with unknown fields and types', () async {
+      final WriteBuffer buffer = WriteBuffer();
+      buffer.putUint8(12); // List
+      buffer.putUint8(3);
+      final WriteBuffer frame = WriteBuffer();
+      codec.writeValue(frame, RewardItem(2, 'coins'));
+      codec.writeValue(frame, 'field added later');
+      final ByteData frameData = frame.done();
+      buffer.putUint8(150);
+      buffer.putUint8(frameData.lengthInBytes);
+      buffer.putUint8List(frameData.buffer
+          .asUint8List(frameData.offsetInBytes, frameData.lengthInBytes));
+      // A frame holding a type added later.
+      buffer.putUint8(150);
+      buffer.putUint8(2);
+      buffer.putUint8(200);
+      buffer.putUint8(0);
+      codec.writeValue(buffer, 'after');
+
+      final List<dynamic> result = codec.decodeMessage(buffer.done());
+      expect((result[0] as RewardItem).amount, 2);
+      expect((result[0] as RewardItem).type, 'coins');
+      expect(result[1], isNull);
+      expect(result[2], 'after');
+    });
+
+    test('decode strings from the string dictionary', () async {
+      final AdMessageCodec dictionaryCodec = AdMessageCodec();
+      final WriteBuffer buffer = WriteBuffer();
+      buffer.putUint8(12); // List
+      buffer.putUint8(3);
+      buffer.putUint8(151);
+      buffer.putUint8(0);
+      buffer.putUint8(3);
+      buffer.putUint8List(Uint8List.fromList('USD'.codeUnits));
+      buffer.putUint8(152);
+      buffer.putUint8(0);
+      buffer.putUint8(152);
+      buffer.putUint8(0);
+
+      final List<dynamic> result = dictionaryCodec.decodeMessage(buffer.done());
+      expect(result, <dynamic>['USD', 'USD', 'USD']);
+
+      final WriteBuffer undefined = WriteBuffer();
+      undefined.putUint8(152);
+      undefined.putUint8(1);
+      expect(() => dictionaryCodec.decodeMessage(undefined.done()),
+          throwsStateError);
+
+      final WriteBuffer reference = WriteBuffer();
+      reference.putUint8(152);
+      reference.putUint8(0);
+      expect(dictionaryCodec.decodeMessage(reference.done()), 'USD');
+
+      dictionaryCodec.resetStringDictionary();
+      final WriteBuffer afterReset = WriteBuffer();
+      afterReset.putUint8(152);
+      afterReset.putUint8(0);
+      expect(() => dictionaryCodec.decodeMessage(afterReset.done()),
+          throwsStateError);
+    });
+
     test('encode/decode $InlineAdaptiveSize', () async {
       ByteData byteData = codec.encodeMessage(
           AdSize.getCurrentOrientationInlineAdaptiveBannerAdSize(100))!;
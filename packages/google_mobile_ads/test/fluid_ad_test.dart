@@ -91,6 +91,7 @@ void main() {
           'adUnitId': 'testId',
           'sizes': <AdSize>[FluidAdSize()],
           'request': AdManagerAdRequest(),
+          'eventMask': AdMessageCodec.adEventMask(),
         })
       ]);
 
@@ -174,6 +175,7 @@ void main() {
           'adUnitId': 'testId',
           'sizes': <AdSize>[FluidAdSize()],
           'request': AdManagerAdRequest(),
+          'eventMask': AdMessageCodec.adEventMask(),
         })
       ]);
 
@@ -52,9 +52,23 @@ void main() {
           case 'MobileAds#setAppVolume':
           case 'MobileAds#disableSDKCrashReporting':
           case 'MobileAds#disableMediationInitialization':
+          case 'MobileAds#setAdEventBatchWindow':
+          case 'MobileAds#setPaidEventAggregation':
+          case 'MobileAds#setOrphanedAdTtls':
+          case 'MobileAds#setLazyResponseInfo':
+          case 'MobileAds#setMessageFraming':
+          case 'MobileAds#setStringDictionary':
+          case 'MobileAds#setMethodCallTiming':
+          case 'MobileAds#setInitializationLoadDeadline':
             return null;
           case 'MobileAds#getVersionString':
             return Future<String>.value('Test-SDK-Version');
+          case 'Diagnostics#getMetrics':
+            return <dynamic, dynamic>{
+              'eventTypes': <dynamic, dynamic>{
+                'onAdLoaded': <dynamic, dynamic>{'count': 1},
+              },
+            };
           case 'MobileAds#updateRequestConfiguration':
             return null;
           case 'MobileAds#getRequestConfiguration':
@@ -292,6 +306,245 @@ void main() {
       ]);
     });
 
+    test('$MobileAds.setAdEventBatchWindow', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      await MobileAds.instance
+          .setAdEventBatchWindow(const Duration(milliseconds: 16));
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setAdEventBatchWindow',
+            arguments: {'batchWindowMillis': 16})
+      ]);
+
+      await MobileAds.instance.setAdEventBatchWindow(null);
+      expect(
+          log.last,
+          isMethodCall('MobileAds#setAdEventBatchWindow',
+              arguments: {'batchWindowMillis': null}));
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.setAdEventBatchWindow(Duration.zero);
+      expect(log, hasLength(2));
+    });
+
+    test('$MobileAds.getDiagnosticMetrics', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      final Map<String, dynamic> metrics =
+          await MobileAds.instance.getDiagnosticMetrics();
+
+      expect(log, <Matcher>[
+        isMethodCall('Diagnostics#getMetrics', arguments: null),
+      ]);
+      expect(metrics['eventTypes']['onAdLoaded']['count'], 1);
+
+      // Empty on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      expect(await MobileAds.instance.getDiagnosticMetrics(), isEmpty);
+      expect(log, hasLength(1));
+    });
+
+    test('$MobileAds.setOrphanedAdTtls', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      await MobileAds.instance.setOrphanedAdTtls(
+        failedToLoad: const Duration(minutes: 1),
+        neverShown: const Duration(hours: 1),
+      );
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setOrphanedAdTtls', arguments: {
+          'failedMillis': 60000,
+          'dismissedMillis': null,
+          'neverShownMillis': 3600000,
+        })
+      ]);
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.setOrphanedAdTtls();
+      expect(log, hasLength(1));
+    });
+
+    test('$MobileAds.setInitializationLoadDeadline', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      await MobileAds.instance
+          .setInitializationLoadDeadline(const Duration(seconds: 2));
+      await MobileAds.instance.setInitializationLoadDeadline(null);
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setInitializationLoadDeadline', arguments: {
+          'deadlineMillis': 2000,
+        }),
+        isMethodCall('MobileAds#setInitializationLoadDeadline', arguments: {
+          'deadlineMillis': null,
+        }),
+      ]);
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.setInitializationLoadDeadline(null);
+      expect(log, hasLength(2));
+    });
+
+    test('$MobileAds.setLazyResponseInfo', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      await MobileAds.instance.setLazyResponseInfo(true);
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setLazyResponseInfo', arguments: {
+          'enabled': true,
+        })
+      ]);
+      expect(instanceManager.lazyResponseInfo, isTrue);
+
+      // Ads that aren't loaded have no response info to fetch.
+      final BannerAd ad = BannerAd(
+        adUnitId: 'test-ad-unit',
+        size: AdSize.banner,
+        request: AdRequest(),
+        listener: BannerAdListener(),
+      );
+      expect(await MobileAds.instance.getResponseInfo(ad), isNull);
+      expect(log, hasLength(1));
+
+      await MobileAds.instance.setLazyResponseInfo(false);
+      expect(instanceManager.lazyResponseInfo, isFalse);
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.setLazyResponseInfo(true);
+      expect(log, hasLength(2));
+    });
+
+    test('$MobileAds.setMethodCallTiming', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      await MobileAds.instance.setMethodCallTiming(true);
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setMethodCallTiming', arguments: {
+          'enabled': true,
+        })
+      ]);
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.setMethodCallTiming(true);
+      expect(log, hasLength(1));
+    });
+
+    test('$MobileAds.setMessageFraming', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      await MobileAds.instance.setMessageFraming(true);
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setMessageFraming', arguments: {
+          'enabled': true,
+        })
+      ]);
+      final StandardMethodCodec codec =
+          instanceManager.channel.codec as StandardMethodCodec;
+      expect((codec.messageCodec as AdMessageCodec).framingEnabled, isTrue);
+
+      await MobileAds.instance.setMessageFraming(false);
+      expect((codec.messageCodec as AdMessageCodec).framingEnabled, isFalse);
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.setMessageFraming(true);
+      expect(log, hasLength(2));
+    });
+
+    test('$MobileAds.setStringDictionary', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      await MobileAds.instance.setStringDictionary(true);
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setStringDictionary', arguments: {
+          'enabled': true,
+        })
+      ]);
+      expect(instanceManager.stringDictionary, isTrue);
+
+      await MobileAds.instance.setStringDictionary(false);
+      expect(instanceManager.stringDictionary, isFalse);
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.setStringDictionary(true);
+      expect(log, hasLength(2));
+    });
+
+    test('$MobileAds.setLoadCoalescing', () {
+      MobileAds.instance.setLoadCoalescing(true);
+      expect(instanceManager.loadCoalescing, isTrue);
+
+      MobileAds.instance.setLoadCoalescing(false);
+      expect(instanceManager.loadCoalescing, isFalse);
+      expect(log, isEmpty);
+    });
+
+    test('$MobileAds.enablePaidEventAggregation', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      final List<PaidEventSummary> received = <PaidEventSummary>[];
+      await MobileAds.instance.enablePaidEventAggregation(
+        flushInterval: const Duration(seconds: 30),
+        onSummary: (List<PaidEventSummary> summaries) =>
+            received.addAll(summaries),
+      );
+
+      expect(log, <Matcher>[
+        isMethodCall('MobileAds#setPaidEventAggregation',
+            arguments: {'flushIntervalMillis': 30000})
+      ]);
+
+      final MethodCall summaryCall =
+          MethodCall('onPaidEventSummary', <dynamic>[
+        <dynamic, dynamic>{
+          'adUnitId': 'test-ad-unit',
+          'currencyCode': 'USD',
+          'precision': 3,
+          'valueMicros': 2500,
+          'count': 2,
+        },
+      ]);
+      await instanceManager.channel.binaryMessenger.handlePlatformMessage(
+        'plugins.flutter.io/google_mobile_ads',
+        instanceManager.channel.codec.encodeMethodCall(summaryCall),
+        (ByteData? data) {},
+      );
+
+      expect(received, <PaidEventSummary>[
+        PaidEventSummary(
+          adUnitId: 'test-ad-unit',
+          currencyCode: 'USD',
+          precision: PrecisionType.precise,
+          valueMicros: 2500,
+          count: 2,
+        ),
+      ]);
+      expect(
+        received.single.hashCode,
+        PaidEventSummary(
+          adUnitId: 'test-ad-unit',
+          currencyCode: 'USD',
+          precision: PrecisionType.precise,
+          valueMicros: 2500,
+          count: 2,
+        ).hashCode,
+      );
+
+      await MobileAds.instance.disablePaidEventAggregation();
+      expect(
+          log.last,
+          isMethodCall('MobileAds#setPaidEventAggregation',
+              arguments: {'flushIntervalMillis': null}));
+
+      // No-op on iOS.
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      await MobileAds.instance.disablePaidEventAggregation();
+      expect(log, hasLength(2));
+    });
+
     test('$AdSize.getAnchoredAdaptiveBannerAdSize', () async {
       await AdSize.getAnchoredAdaptiveBannerAdSize(Orientation.portrait, 23);
 